@@ -0,0 +1,102 @@
+#!/bin/bash
+
+# Footprint of a validation-node instance against the full application (Linux)
+# Starts the boot jar with the default profile and with --spring.profiles.active=validation-node,
+# sends a batch of token validations and records resident memory, heap used after a full GC and
+# the number of loaded classes.
+# Usage: ./footprint-validation-node.sh [token] [port]
+#   [token]  a login token; without it only startup is measured
+# Build first: ./gradlew bootJar
+# Environment: SERVICE_TOKEN (X-Service-Token), REQUESTS (default 500), JAVA (default: java on PATH),
+#   NODE_JAVA_OPTS (JVM flags of the validation node, default below)
+
+TOKEN="$1"
+PORT="${2:-18080}"
+REQUESTS="${REQUESTS:-500}"
+JAVA="${JAVA:-java}"
+NODE_JAVA_OPTS="${NODE_JAVA_OPTS:--XX:+UseSerialGC -Xms48m -Xmx96m -Xss512k -XX:ReservedCodeCacheSize=48m -XX:MaxDirectMemorySize=16m}"
+JAR=$(ls build/libs/*.jar 2> /dev/null | grep -v plain | head -1)
+
+# Colors for output
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+if [ -z "$JAR" ]; then
+    echo -e "${RED}No boot jar in build/libs; run ./gradlew bootJar first${NC}"
+    exit 1
+fi
+for tool in jcmd jstat curl; do
+    if ! command -v "$tool" > /dev/null; then
+        echo -e "${RED}$tool is required${NC}"
+        exit 1
+    fi
+done
+
+HEADERS=(-H "Authorization: Bearer $TOKEN")
+if [ -n "$SERVICE_TOKEN" ]; then
+    HEADERS+=(-H "X-Service-Token: $SERVICE_TOKEN")
+fi
+
+rss_kb() {
+    awk '/VmRSS/ { print $2 }' "/proc/$1/status"
+}
+
+# Sum of the used columns (survivor, eden, old) of jstat -gc, in KB
+heap_used_kb() {
+    jstat -gc "$1" | awk 'NR == 2 { printf "%.0f", $3 + $4 + $6 + $8 }'
+}
+
+loaded_classes() {
+    jstat -class "$1" | awk 'NR == 2 { print $1 }'
+}
+
+measure() {
+    local name="$1" java_opts="$2" profile="$3"
+    local pid ready=""
+
+    # shellcheck disable=SC2086
+    "$JAVA" $java_opts -jar "$JAR" --server.port="$PORT" ${profile:+--spring.profiles.active=$profile} > /dev/null 2>&1 &
+    pid=$!
+
+    for _ in $(seq 1 1200); do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            break
+        fi
+        if curl -s -o /dev/null "http://localhost:$PORT/actuator/health"; then
+            ready=1
+            break
+        fi
+        sleep 0.1
+    done
+    if [ -z "$ready" ]; then
+        echo -e "${RED}$name: did not start on port $PORT${NC}"
+        kill "$pid" 2> /dev/null
+        wait "$pid" 2> /dev/null
+        return
+    fi
+
+    if [ -n "$TOKEN" ]; then
+        local ok=0
+        for _ in $(seq 1 "$REQUESTS"); do
+            if [ "$(curl -s -o /dev/null -w '%{http_code}' "${HEADERS[@]}" "http://localhost:$PORT/api/v1/auth/validate-token")" = "200" ]; then
+                ok=$((ok + 1))
+            fi
+        done
+        echo -e "  $name: ${YELLOW}$ok/$REQUESTS validations succeeded${NC}"
+    fi
+
+    jcmd "$pid" GC.run > /dev/null
+    sleep 1
+    awk -v name="$name" -v rss="$(rss_kb "$pid")" -v heap="$(heap_used_kb "$pid")" -v classes="$(loaded_classes "$pid")" \
+        'BEGIN { printf "%-16s %8.1f MB RSS  %8.1f MB heap used  %7d classes loaded\n", name, rss / 1024, heap / 1024, classes }'
+
+    kill "$pid" 2> /dev/null
+    wait "$pid" 2> /dev/null
+}
+
+echo -e "${GREEN}=== Footprint: full application vs validation-node ===${NC}"
+echo -e "${YELLOW}Validation node JVM flags: $NODE_JAVA_OPTS${NC}"
+measure full "" ""
+measure validation-node "$NODE_JAVA_OPTS" validation-node
@@ -0,0 +1,98 @@
+#!/bin/bash
+
+# Servlet vs reactive token validation load test (Linux)
+# Drives GET /api/v1/auth/validate-token on two running instances with wrk and reports
+# requests/s per CPU core used and resident memory per concurrent connection.
+# Usage: ./load-test-validation.sh <token> [servlet_url] [reactive_url]
+#   e.g. start the servlet instance on 8080 and the reactive one on 8081 with
+#   --spring.profiles.active=reactive-validation --server.port=8081
+# Environment: SERVICE_TOKEN (X-Service-Token), DURATION (default 30s), CONNECTIONS (default "100 1000 5000")
+
+TOKEN="$1"
+SERVLET_URL="${2:-http://localhost:8080}"
+REACTIVE_URL="${3:-http://localhost:8081}"
+DURATION="${DURATION:-30s}"
+CONNECTIONS="${CONNECTIONS:-100 1000 5000}"
+THREADS="${THREADS:-$(nproc)}"
+
+# Colors for output
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+if [ -z "$TOKEN" ]; then
+    echo -e "${RED}Usage: $0 <token> [servlet_url] [reactive_url]${NC}"
+    exit 1
+fi
+if ! command -v wrk > /dev/null; then
+    echo -e "${RED}wrk is required (https://github.com/wg/wrk)${NC}"
+    exit 1
+fi
+
+HEADERS=(-H "Authorization: Bearer $TOKEN")
+if [ -n "$SERVICE_TOKEN" ]; then
+    HEADERS+=(-H "X-Service-Token: $SERVICE_TOKEN")
+fi
+
+# PID of the process listening on the URL's port
+pid_of() {
+    local port="${1##*:}"
+    port="${port%%/*}"
+    ss -ltnpH "sport = :$port" | grep -o 'pid=[0-9]*' | head -1 | cut -d= -f2
+}
+
+# utime + stime of the process, in clock ticks
+cpu_ticks() {
+    awk '{ print $14 + $15 }' "/proc/$1/stat"
+}
+
+rss_kb() {
+    awk '/VmRSS/ { print $2 }' "/proc/$1/status"
+}
+
+run() {
+    local name="$1" url="$2"
+    local pid
+    pid=$(pid_of "$url")
+    if [ -z "$pid" ]; then
+        echo -e "${RED}$name: nothing is listening on $url${NC}"
+        return
+    fi
+
+    # Warm up caches and JIT before measuring
+    wrk -t"$THREADS" -c100 -d10s "${HEADERS[@]}" "$url/api/v1/auth/validate-token" > /dev/null
+    local idle_rss
+    idle_rss=$(rss_kb "$pid")
+
+    for connections in $CONNECTIONS; do
+        local ticks_before ticks_after output rps peak_rss cores
+        ticks_before=$(cpu_ticks "$pid")
+        peak_rss=0
+        (
+            while sleep 1; do rss_kb "$pid"; done
+        ) > "/tmp/load-test-rss.$$" &
+        local sampler=$!
+
+        output=$(wrk -t"$THREADS" -c"$connections" -d"$DURATION" "${HEADERS[@]}" "$url/api/v1/auth/validate-token")
+
+        kill "$sampler" 2> /dev/null
+        ticks_after=$(cpu_ticks "$pid")
+        peak_rss=$(sort -n "/tmp/load-test-rss.$$" | tail -1)
+        rm -f "/tmp/load-test-rss.$$"
+
+        rps=$(echo "$output" | awk '/Requests\/sec/ { print $2 }')
+        # CPU cores busy on average = CPU seconds used / wall seconds
+        cores=$(awk -v t=$((ticks_after - ticks_before)) -v hz="$(getconf CLK_TCK)" -v d="${DURATION%s}" \
+            'BEGIN { printf "%.2f", t / hz / d }')
+        awk -v name="$name" -v c="$connections" -v rps="$rps" -v cores="$cores" -v idle="$idle_rss" -v peak="$peak_rss" \
+            'BEGIN { printf "%-9s %6d conns  %10.0f req/s  %5.2f cores  %9.0f req/s/core  %7.1f KB/conn\n",
+                     name, c, rps, cores, (cores > 0 ? rps / cores : 0), (peak - idle) / c }'
+        echo "$output" | grep -E "Non-2xx|Socket errors" | sed "s/^/          /"
+    done
+}
+
+echo -e "${GREEN}=== Token validation load test: servlet vs reactive ===${NC}"
+echo -e "${YELLOW}Duration: $DURATION per level, connections: $CONNECTIONS, wrk threads: $THREADS${NC}"
+run servlet "$SERVLET_URL"
+run reactive "$REACTIVE_URL"
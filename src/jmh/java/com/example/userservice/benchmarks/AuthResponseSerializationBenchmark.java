@@ -0,0 +1,86 @@
+package com.example.userservice.benchmarks;
+
+import com.example.userservice.dtos.AuthorizationDetailsDTO;
+import com.example.userservice.dtos.AuthorizationResponseDTO;
+import com.example.userservice.dtos.QuickValidationResponseDTO;
+import com.example.userservice.dtos.ResponseStatus;
+import com.example.userservice.dtos.TokenInfoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the legacy HashMap responses with the typed records for the hot auth endpoints.
+ * Run with ./gradlew jmh; the gc profiler reports gc.alloc.rate.norm (bytes per response).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AuthResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Date issuedAt;
+    private Date expiration;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+        issuedAt = new Date();
+        expiration = new Date(issuedAt.getTime() + 86400000);
+    }
+
+    @Benchmark
+    public byte[] quickValidateLegacyMap() throws Exception {
+        Map<String, Object> tokenInfo = new HashMap<>();
+        tokenInfo.put("username", "testuser");
+        tokenInfo.put("userId", 42L);
+        tokenInfo.put("email", "testuser@example.com");
+        tokenInfo.put("tokenId", "0b6c4f0e-1d2a-4f3b-9c8d-7e6f5a4b3c2d");
+        tokenInfo.put("issuedAt", issuedAt);
+        tokenInfo.put("expiration", expiration);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("valid", true);
+        response.put("message", "Token is valid");
+        response.put("status", ResponseStatus.SUCCESS);
+        response.put("tokenInfo", tokenInfo);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] quickValidateRecord() throws Exception {
+        TokenInfoDTO tokenInfo = new TokenInfoDTO("testuser", 42L, "testuser@example.com",
+                "0b6c4f0e-1d2a-4f3b-9c8d-7e6f5a4b3c2d", issuedAt, expiration);
+        return objectMapper.writeValueAsBytes(QuickValidationResponseDTO.valid(tokenInfo));
+    }
+
+    @Benchmark
+    public byte[] checkAuthorizationLegacyMap() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("authorized", true);
+        response.put("message", "User is authorized");
+        response.put("status", ResponseStatus.SUCCESS);
+        Map<String, Object> authDetails = new HashMap<>();
+        authDetails.put("hasRole", false);
+        authDetails.put("checkedRole", "USER");
+        authDetails.put("checkedPermission", "orders:read");
+        response.put("authorizationDetails", authDetails);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] checkAuthorizationRecord() throws Exception {
+        return objectMapper.writeValueAsBytes(AuthorizationResponseDTO.decided(true,
+                new AuthorizationDetailsDTO(false, "USER", "orders:read")));
+    }
+
+    @Benchmark
+    public byte[] missingTokenRecord() throws Exception {
+        return objectMapper.writeValueAsBytes(QuickValidationResponseDTO.MISSING_TOKEN);
+    }
+}
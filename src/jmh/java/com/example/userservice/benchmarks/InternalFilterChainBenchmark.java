@@ -0,0 +1,106 @@
+package com.example.userservice.benchmarks;
+
+import com.example.userservice.security.ServiceCredentialFilter;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Per-request cost of the security filter stack in front of a trivial endpoint: a chain built like
+ * apiSecurityFilterChain (stateless, permitAll) versus the single-filter internal validation chain.
+ * Dispatch through MockMvc is the same for both, so the difference is the filter overhead removed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class InternalFilterChainBenchmark {
+
+    private static final String SERVICE_TOKEN = "internal-service-token";
+
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    static class ChainConfig {
+
+        @Bean
+        @Order(0)
+        SecurityFilterChain internalChain() {
+            return new DefaultSecurityFilterChain(PathPatternRequestMatcher.withDefaults().matcher("/internal/**"),
+                    new ServiceCredentialFilter(SERVICE_TOKEN));
+        }
+
+        @Bean
+        @Order(1)
+        SecurityFilterChain apiChain(HttpSecurity http) throws Exception {
+            http
+                    .securityMatcher("/api/**")
+                    .csrf(csrf -> csrf.disable())
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .authorizeHttpRequests(authorize -> authorize.anyRequest().permitAll());
+            return http.build();
+        }
+
+        @Bean
+        ProbeController probeController() {
+            return new ProbeController();
+        }
+    }
+
+    @RestController
+    static class ProbeController {
+
+        @GetMapping({"/internal/probe", "/api/probe"})
+        String probe() {
+            return "ok";
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(ChainConfig.class);
+        context.refresh();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult fullApiChain() throws Exception {
+        return mockMvc.perform(get("/api/probe")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult internalChain() throws Exception {
+        return mockMvc.perform(get("/internal/probe").header(ServiceCredentialFilter.HEADER, SERVICE_TOKEN)).andReturn();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.userservice.benchmarks;
+
+import com.example.userservice.models.User;
+import com.example.userservice.repositories.ConnectionBulkheads;
+import com.example.userservice.repositories.ReadYourWrites;
+import com.example.userservice.repositories.TokenRepository;
+import com.example.userservice.repositories.TokenStatus;
+import com.example.userservice.security.ApiTokenIntrospectionAuthenticationProvider;
+import com.example.userservice.security.TokenDigest;
+import com.example.userservice.services.JwtService;
+import com.example.userservice.services.RejectedTokenCache;
+import com.example.userservice.services.RevocationService;
+import com.example.userservice.services.TokenIntrospectionService;
+import com.example.userservice.services.TokenValidationService;
+import com.example.userservice.services.TokenVerificationCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.http.converter.OAuth2TokenIntrospectionHttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares /oauth2/introspect with /api/v1/auth/validate-token for the same API token, from
+ * verification through response serialization. Both paths use the real verification and
+ * revocation caches over an in-memory token repository, so the numbers exclude the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class IntrospectionParityBenchmark {
+
+    private TokenValidationService tokenValidationService;
+    private ApiTokenIntrospectionAuthenticationProvider introspectionProvider;
+    private OAuth2TokenIntrospectionHttpMessageConverter introspectionConverter;
+    private ObjectMapper objectMapper;
+    private OAuth2ClientAuthenticationToken clientPrincipal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "a-string-secret-at-least-256-bits-long");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtService, "issuer", "user-service");
+        ReflectionTestUtils.setField(jwtService, "audience", "user-service-clients");
+
+        User user = new User();
+        user.setId(42L);
+        user.setName("testuser");
+        user.setEmail("testuser@example.com");
+        token = jwtService.generateToken(user);
+
+        TokenStatus status = new TokenStatus(1L, TokenDigest.sha256Hex(token),
+                new Date(System.currentTimeMillis() + 86400000));
+        TokenRepository tokenRepository = (TokenRepository) Proxy.newProxyInstance(
+                TokenRepository.class.getClassLoader(),
+                new Class<?>[]{TokenRepository.class},
+                (proxy, method, args) -> method.getName().equals("findActiveStatus")
+                        ? Optional.of(status)
+                        : null);
+
+        RejectedTokenCache rejectedTokenCache = new RejectedTokenCache();
+        ReflectionTestUtils.setField(rejectedTokenCache, "maximumSize", 100000L);
+        ReflectionTestUtils.setField(rejectedTokenCache, "ttl", 30000L);
+        ReflectionTestUtils.setField(rejectedTokenCache, "maximumClients", 10000L);
+        rejectedTokenCache.init();
+
+        TokenVerificationCache verificationCache = new TokenVerificationCache();
+        ReflectionTestUtils.setField(verificationCache, "jwtService", jwtService);
+        ReflectionTestUtils.setField(verificationCache, "rejectedTokenCache", rejectedTokenCache);
+        ReflectionTestUtils.setField(verificationCache, "maximumSize", 100000L);
+        ReflectionTestUtils.setField(verificationCache, "ttl", 300000L);
+        verificationCache.init();
+
+        RevocationService revocationService = new RevocationService();
+        ReflectionTestUtils.setField(revocationService, "jwtService", jwtService);
+        ReflectionTestUtils.setField(revocationService, "cacheSize", 100000L);
+        ReflectionTestUtils.setField(revocationService, "jwtExpiration", 86400000L);
+        revocationService.init();
+
+        tokenValidationService = new TokenValidationService();
+        ReflectionTestUtils.setField(tokenValidationService, "jwtService", jwtService);
+        ReflectionTestUtils.setField(tokenValidationService, "tokenRepository", tokenRepository);
+        ReflectionTestUtils.setField(tokenValidationService, "readYourWrites", new ReadYourWrites());
+        ReflectionTestUtils.setField(tokenValidationService, "connectionBulkheads", new ConnectionBulkheads());
+        ReflectionTestUtils.setField(tokenValidationService, "tokenVerificationCache", verificationCache);
+        ReflectionTestUtils.setField(tokenValidationService, "revocationService", revocationService);
+
+        TokenIntrospectionService introspectionService = new TokenIntrospectionService();
+        ReflectionTestUtils.setField(introspectionService, "tokenValidationService", tokenValidationService);
+        ReflectionTestUtils.setField(introspectionService, "maximumSize", 100000L);
+        ReflectionTestUtils.setField(introspectionService, "ttl", 300000L);
+        introspectionService.init();
+
+        // Stands in for the authorization server provider, which doesn't know API tokens
+        AuthenticationProvider authorizationServerProvider = new AuthenticationProvider() {
+            @Override
+            public Authentication authenticate(Authentication authentication) {
+                OAuth2TokenIntrospectionAuthenticationToken request = (OAuth2TokenIntrospectionAuthenticationToken) authentication;
+                return new OAuth2TokenIntrospectionAuthenticationToken(request.getToken(),
+                        (Authentication) request.getPrincipal(), TokenIntrospectionService.INACTIVE);
+            }
+
+            @Override
+            public boolean supports(Class<?> authentication) {
+                return true;
+            }
+        };
+        introspectionProvider = new ApiTokenIntrospectionAuthenticationProvider(authorizationServerProvider, introspectionService);
+        introspectionConverter = new OAuth2TokenIntrospectionHttpMessageConverter();
+        objectMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+
+        RegisteredClient client = RegisteredClient.withId("bench")
+                .clientId("bench-client")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .build();
+        clientPrincipal = new OAuth2ClientAuthenticationToken(client, ClientAuthenticationMethod.CLIENT_SECRET_BASIC, null);
+    }
+
+    @Benchmark
+    public byte[] validateToken() throws Exception {
+        return objectMapper.writeValueAsBytes(tokenValidationService.validateTokenForMicroservice(token, null));
+    }
+
+    @Benchmark
+    public byte[] introspect() throws Exception {
+        OAuth2TokenIntrospectionAuthenticationToken result = (OAuth2TokenIntrospectionAuthenticationToken)
+                introspectionProvider.authenticate(new OAuth2TokenIntrospectionAuthenticationToken(
+                        token, clientPrincipal, null, Collections.emptyMap()));
+        OAuth2TokenIntrospection claims = result.getTokenClaims();
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        introspectionConverter.write(claims, MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsBytes();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.userservice.benchmarks;
+
+import com.example.userservice.models.User;
+import com.example.userservice.services.JwtService;
+import com.example.userservice.services.ValidationResult;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation cost under a bot-style mix: 10% valid tokens, 90% garbage, malformed, expired or
+ * wrongly signed. Compares the exception-driven jjwt parse the service used before with
+ * JwtService.verify, which reports outcomes and rejects bad shapes before any crypto.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class InvalidTokenMixBenchmark {
+
+    private static final String SECRET = "a-string-secret-at-least-256-bits-long";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private String[] tokens;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtService, "issuer", "user-service");
+        ReflectionTestUtils.setField(jwtService, "audience", "user-service-clients");
+        parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .requireIssuer("user-service")
+                .requireAudience("user-service-clients")
+                .build();
+
+        User user = new User();
+        user.setId(1L);
+        user.setName("testuser");
+        user.setEmail("testuser@example.com");
+        String valid = jwtService.generateToken(user);
+        String expired = Jwts.builder()
+                .issuer("user-service")
+                .subject("testuser")
+                .audience().add("user-service-clients").and()
+                .expiration(new Date(System.currentTimeMillis() - 60000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+        String wrongKey = Jwts.builder()
+                .issuer("user-service")
+                .subject("testuser")
+                .audience().add("user-service-clients").and()
+                .signWith(Keys.hmacShaKeyFor("another-secret-that-is-at-least-256-bits".getBytes()))
+                .compact();
+
+        List<String> mix = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            mix.add(valid);
+        }
+        for (int i = 0; i < 30; i++) {
+            mix.add("garbage-" + i);
+            mix.add(valid.substring(0, valid.lastIndexOf('.')) + ".!" + i);
+            mix.add(i % 2 == 0 ? expired : wrongKey);
+        }
+        Collections.shuffle(mix, new Random(42));
+        tokens = mix.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public Claims exceptionDriven(Cursor cursor) {
+        String token = tokens[cursor.next++ % tokens.length];
+        try {
+            return parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public ValidationResult outcomeBased(Cursor cursor) {
+        return jwtService.verify(tokens[cursor.next++ % tokens.length]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ValidationResult outcomeBasedContended(Cursor cursor) {
+        return jwtService.verify(tokens[cursor.next++ % tokens.length]);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.userservice.benchmarks;
+
+import com.example.userservice.services.PermissionMatcher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wildcard permission checks against roles with thousands of grants: the compiled per-role
+ * trie, the same trie behind the decision cache, and a naive scan that splits every grant.
+ * The requested permission is only granted through a wildcard near the end of the list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PermissionMatcherBenchmark {
+
+    private static final List<String> ROLES = List.of("SUPPORT", "AUDITOR");
+
+    @Param({"1000", "5000"})
+    public int permissionsPerRole;
+
+    private Map<String, List<String>> grants;
+    private PermissionMatcher matcher;
+    private Cache<String, Boolean> decisions;
+    private String permission;
+
+    @Setup
+    public void setUp() {
+        grants = new HashMap<>();
+        for (String role : ROLES) {
+            List<String> granted = new ArrayList<>(permissionsPerRole);
+            for (int i = 0; i < permissionsPerRole; i++) {
+                granted.add("resource" + i + ":" + (i % 2 == 0 ? "read" : "*:write"));
+            }
+            grants.put(role, granted);
+        }
+        grants.get("AUDITOR").add("reports:*");
+        matcher = PermissionMatcher.compile(grants);
+        decisions = Caffeine.newBuilder().maximumSize(10000).build();
+        permission = "reports:2024:export";
+    }
+
+    @Benchmark
+    public boolean compiledMatcher() {
+        return matcher.matches(ROLES, permission);
+    }
+
+    @Benchmark
+    public boolean cachedDecision() {
+        return decisions.get(String.join(",", ROLES) + "|" + permission, key -> matcher.matches(ROLES, permission));
+    }
+
+    @Benchmark
+    public boolean naiveScan() {
+        String[] requested = permission.split(":", -1);
+        for (String role : ROLES) {
+            for (String grant : grants.getOrDefault(role, List.of())) {
+                if (naiveMatches(grant.split(":", -1), requested)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public PermissionMatcher compile() {
+        return PermissionMatcher.compile(grants);
+    }
+
+    private static boolean naiveMatches(String[] grant, String[] requested) {
+        for (int i = 0; i < grant.length; i++) {
+            if ("*".equals(grant[i]) && i == grant.length - 1) {
+                return true;
+            }
+            if (i >= requested.length || (!"*".equals(grant[i]) && !grant[i].equals(requested[i]))) {
+                return false;
+            }
+        }
+        return grant.length == requested.length;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.userservice.benchmarks;
+
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.models.User;
+import com.example.userservice.repositories.ConnectionBulkheads;
+import com.example.userservice.repositories.ReadYourWrites;
+import com.example.userservice.repositories.TokenRepository;
+import com.example.userservice.repositories.TokenStatus;
+import com.example.userservice.security.TokenDigest;
+import com.example.userservice.services.AuthorizationService;
+import com.example.userservice.services.JwtService;
+import com.example.userservice.services.PermissionDictionary;
+import com.example.userservice.services.RevocationService;
+import com.example.userservice.services.TokenValidationService;
+import com.example.userservice.services.TokenVerificationCache;
+import com.example.userservice.services.ValidationResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latency distribution (p50/p99 in the SampleTime output) of validateTokenForMicroservice with the
+ * token status lookup run after verification versus alongside it. The repository is an in-memory
+ * stand-in with injected latency, and verification is never served from the cache, so every call
+ * pays for both. The overlap can save at most the verification time per call.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PipelinedLookupBenchmark {
+
+    @Param({"false", "true"})
+    public boolean pipelined;
+
+    @Param({"500", "2000"})
+    public long dbLatencyMicros;
+
+    private TokenValidationService tokenValidationService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "a-string-secret-at-least-256-bits-long");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtService, "issuer", "user-service");
+        ReflectionTestUtils.setField(jwtService, "audience", "user-service-clients");
+
+        User user = new User();
+        user.setId(42L);
+        user.setName("testuser");
+        user.setEmail("testuser@example.com");
+        token = jwtService.generateToken(user);
+
+        TokenStatus status = new TokenStatus(1L, TokenDigest.sha256Hex(token),
+                new Date(System.currentTimeMillis() + 86400000));
+        long latencyNanos = TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros);
+        TokenRepository tokenRepository = (TokenRepository) Proxy.newProxyInstance(
+                TokenRepository.class.getClassLoader(),
+                new Class<?>[]{TokenRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findActiveStatus")) {
+                        LockSupport.parkNanos(latencyNanos);
+                        return Optional.of(status);
+                    }
+                    return method.getReturnType() == Optional.class ? Optional.empty() : null;
+                });
+
+        // Always verifies, so each call pays for the signature check as on a cache miss
+        TokenVerificationCache uncachedVerification = new TokenVerificationCache() {
+            @Override
+            public ValidationResult verify(String token) {
+                return jwtService.verify(token);
+            }
+        };
+
+        RevocationService revocationService = new RevocationService();
+        ReflectionTestUtils.setField(revocationService, "jwtService", jwtService);
+        ReflectionTestUtils.setField(revocationService, "cacheSize", 100000L);
+        ReflectionTestUtils.setField(revocationService, "jwtExpiration", 86400000L);
+        revocationService.init();
+
+        AuthorizationService authorizationService = new AuthorizationService();
+        ReflectionTestUtils.setField(authorizationService, "permissionDictionary", new PermissionDictionary());
+        ReflectionTestUtils.setField(authorizationService, "decisionCacheSize", 1000L);
+        authorizationService.init();
+
+        tokenValidationService = new TokenValidationService();
+        ReflectionTestUtils.setField(tokenValidationService, "jwtService", jwtService);
+        ReflectionTestUtils.setField(tokenValidationService, "tokenRepository", tokenRepository);
+        ReflectionTestUtils.setField(tokenValidationService, "readYourWrites", new ReadYourWrites());
+        ReflectionTestUtils.setField(tokenValidationService, "connectionBulkheads", new ConnectionBulkheads());
+        ReflectionTestUtils.setField(tokenValidationService, "tokenVerificationCache", uncachedVerification);
+        ReflectionTestUtils.setField(tokenValidationService, "revocationService", revocationService);
+        ReflectionTestUtils.setField(tokenValidationService, "authorizationService", authorizationService);
+        ReflectionTestUtils.setField(tokenValidationService, "pipelined", pipelined);
+        ReflectionTestUtils.setField(tokenValidationService, "lookupThreads", 4);
+        ReflectionTestUtils.setField(tokenValidationService, "lookupQueue", 100);
+        tokenValidationService.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        tokenValidationService.shutdown();
+    }
+
+    @Benchmark
+    public ValidatedTokenResponseDTO validate() {
+        return tokenValidationService.validateTokenForMicroservice(token, null);
+    }
+}
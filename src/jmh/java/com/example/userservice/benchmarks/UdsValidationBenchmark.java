@@ -0,0 +1,81 @@
+package com.example.userservice.benchmarks;
+
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.services.TokenValidationService;
+import com.example.userservice.sidecar.UdsValidationClient;
+import com.example.userservice.sidecar.UdsValidationProtocol;
+import com.example.userservice.sidecar.UdsValidationServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport overhead of the Unix domain socket listener with a constant-time validation service,
+ * so the numbers isolate framing, syscalls and worker hand-off. Compare against the HTTP endpoint
+ * by load testing POST /api/v1/auth/validate-token on a running instance with the same tokens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UdsValidationBenchmark {
+
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ0ZXN0dXNlciJ9.signature";
+
+    private Path socketDir;
+    private UdsValidationServer server;
+    private UdsValidationClient client;
+    private List<String> batch;
+
+    @Setup
+    public void setUp() throws Exception {
+        ValidatedTokenResponseDTO valid = new ValidatedTokenResponseDTO(true, "Token is valid and user is authorized");
+        valid.setUserId(42L);
+        valid.setUsername("testuser");
+        valid.setEmail("testuser@example.com");
+        valid.setExpirationTime(new Date(System.currentTimeMillis() + 86400000));
+
+        TokenValidationService stub = new TokenValidationService() {
+            @Override
+            public ValidatedTokenResponseDTO validateTokenForMicroservice(String token, String requiredRole) {
+                return valid;
+            }
+        };
+
+        socketDir = Files.createTempDirectory("uds-bench");
+        server = new UdsValidationServer();
+        ReflectionTestUtils.setField(server, "tokenValidationService", stub);
+        ReflectionTestUtils.setField(server, "socketPath", socketDir.resolve("auth.sock").toString());
+        ReflectionTestUtils.setField(server, "workerThreads", 4);
+        server.start();
+
+        client = new UdsValidationClient(socketDir.resolve("auth.sock"));
+        batch = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            batch.add(TOKEN);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        server.stop();
+        Files.deleteIfExists(socketDir);
+    }
+
+    @Benchmark
+    public UdsValidationProtocol.Response singleRoundTrip() throws Exception {
+        return client.validate(TOKEN);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(32)
+    public List<UdsValidationProtocol.Response> pipelinedBatchOf32() throws Exception {
+        return client.validateAll(batch);
+    }
+}
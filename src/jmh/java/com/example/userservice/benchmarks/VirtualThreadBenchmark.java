@@ -0,0 +1,100 @@
+package com.example.userservice.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time to serve a burst of concurrent requests that each wait on a slow database, handled by
+ * Tomcat's default 200 platform threads or by one virtual thread per request. The database is a
+ * connection pool (semaphore) with injected latency. PINNED makes the virtual threads wait inside
+ * a monitor, as a driver still using synchronized would, so only one request per carrier thread
+ * makes progress. With a pool smaller than 200 connections both modes are bound by the pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    public enum Threads { PLATFORM, VIRTUAL, PINNED }
+
+    // server.tomcat.threads.max default
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"PLATFORM", "VIRTUAL", "PINNED"})
+    public Threads threads;
+
+    @Param({"2000"})
+    public int concurrentRequests;
+
+    @Param({"50", "1000"})
+    public int connections;
+
+    @Param({"20"})
+    public long dbLatencyMillis;
+
+    private ExecutorService executor;
+    private Semaphore connectionPool;
+    // One per request, held in a field so the JIT cannot elide the lock
+    private Object[] monitors;
+    private final AtomicInteger served = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        executor = threads == Threads.PLATFORM
+                ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)
+                : Executors.newVirtualThreadPerTaskExecutor();
+        connectionPool = new Semaphore(connections);
+        monitors = new Object[concurrentRequests];
+        for (int i = 0; i < concurrentRequests; i++) {
+            monitors[i] = new Object();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            Object monitor = monitors[i];
+            executor.execute(() -> {
+                try {
+                    if (threads == Threads.PINNED) {
+                        synchronized (monitor) {
+                            query();
+                        }
+                    } else {
+                        query();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return served.get();
+    }
+
+    private void query() {
+        try {
+            connectionPool.acquire();
+            try {
+                Thread.sleep(dbLatencyMillis);
+                served.incrementAndGet();
+            } finally {
+                connectionPool.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.userservice;
 
+import com.example.userservice.configs.ValidationRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// A ConnectionFactory bean would switch off the JPA DataSource; ReactiveTokenStore builds its own
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @EnableJpaAuditing
 @EnableScheduling
+@ImportRuntimeHints(ValidationRuntimeHints.class)
 public class UserServiceApplication {
 
     public static void main(String[] args) {
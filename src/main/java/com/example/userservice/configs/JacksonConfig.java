@@ -0,0 +1,23 @@
+package com.example.userservice.configs;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+	/**
+	 * Replaces reflective property access in Jackson's bean serializers with
+	 * generated lambda accessors. Picked up by Spring Boot's ObjectMapper.
+	 * Off in the native edge build, which cannot define classes at runtime.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "auth.jackson.blackbird", havingValue = "true", matchIfMissing = true)
+	public Module blackbirdModule() {
+		return new BlackbirdModule();
+	}
+
+}
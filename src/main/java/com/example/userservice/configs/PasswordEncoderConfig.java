@@ -0,0 +1,18 @@
+package com.example.userservice.configs;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Shared by the servlet and reactive deployments; SecurityConfig only loads on the servlet stack
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+	@Bean
+	public BCryptPasswordEncoder passwordEncoder() {
+		return new BCryptPasswordEncoder(10); // Strength factor of 10
+	}
+
+}
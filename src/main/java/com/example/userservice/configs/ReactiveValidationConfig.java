@@ -0,0 +1,83 @@
+package com.example.userservice.configs;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.MatcherSecurityWebFilterChain;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.example.userservice.controllers.ReactiveTokenValidationHandler;
+import com.example.userservice.security.ReactiveServiceCredentialFilter;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Validation-only deployment on WebFlux: spring.main.web-application-type=reactive
+ * Serves /api/v1/auth/* from functional routes with R2DBC status lookups. The servlet
+ * controllers and security chains (user APIs, authorization server) are not loaded.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveValidationConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(ReactiveValidationConfig.class);
+
+	@Bean
+	public RouterFunction<ServerResponse> tokenValidationRoutes(ReactiveTokenValidationHandler handler) {
+		return route()
+				.path("/api/v1/auth", builder -> builder
+						.POST("/validate-token", handler::validateToken)
+						.GET("/validate-token", handler::validateTokenFromHeader)
+						.POST("/validate-tokens", handler::validateTokens)
+						.POST("/quick-validate", handler::quickValidateToken)
+						.GET("/quick-validate", handler::quickValidateTokenFromHeader)
+						.POST("/extract-user", handler::extractUserFromToken)
+						.GET("/extract-user", handler::extractUserFromHeader)
+						.POST("/check-authorization", handler::checkAuthorization)
+						.GET("/health", handler::healthCheck))
+				.build();
+	}
+
+	/**
+	 * Same shape as the servlet internalValidationFilterChain: the service credential check is
+	 * the only filter, with no security context, session or authorization handling
+	 */
+	@Bean
+	@Order(0)
+	public SecurityWebFilterChain internalValidationWebFilterChain(
+			@Value("${auth.internal.service-token:}") String serviceToken) {
+		ReactiveServiceCredentialFilter serviceCredentialFilter = new ReactiveServiceCredentialFilter(serviceToken);
+		if (!serviceCredentialFilter.isEnabled()) {
+			log.warn("auth.internal.service-token is not set; /api/v1/auth/** accepts unauthenticated callers");
+		}
+		return new MatcherSecurityWebFilterChain(
+				ServerWebExchangeMatchers.pathMatchers("/api/v1/auth/**"),
+				List.of(serviceCredentialFilter));
+	}
+
+	@Bean
+	@Order(1)
+	public SecurityWebFilterChain defaultWebFilterChain(ServerHttpSecurity http) {
+		return http
+				.csrf(ServerHttpSecurity.CsrfSpec::disable)
+				.httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+				.formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+				.authorizeExchange(exchanges -> exchanges
+						.pathMatchers("/actuator/**").permitAll()
+						.anyExchange().denyAll())
+				.build();
+	}
+
+}
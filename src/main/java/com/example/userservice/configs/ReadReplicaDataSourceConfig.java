@@ -0,0 +1,96 @@
+package com.example.userservice.configs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.example.userservice.repositories.ReplicaRoutingDataSource;
+
+/**
+ * Read/write split: auth.datasource.replica.urls=jdbc:mysql://replica-1:3306/productservice,...
+ * Read-only transactions (Spring Data's finders, @Transactional(readOnly = true)) take their
+ * connection from a replica pool, everything else from the primary. The LazyConnectionDataSourceProxy
+ * defers the choice until the first statement, when the read-only flag is set. Each pool reports
+ * hikaricp.* metrics tagged with its pool name (primary, replica-1, ...).
+ */
+@Configuration
+@ConditionalOnProperty(name = "auth.datasource.replica.urls")
+public class ReadReplicaDataSourceConfig {
+
+	@Value("${auth.datasource.replica.urls}")
+	private String[] replicaUrls;
+
+	@Value("${auth.datasource.replica.username:${spring.datasource.username:}}")
+	private String username;
+
+	@Value("${auth.datasource.replica.password:${spring.datasource.password:}}")
+	private String password;
+
+	@Value("${auth.datasource.replica.pool-size:20}")
+	private int poolSize;
+
+	/**
+	 * The primary pool, configured from spring.datasource.* as Spring Boot would
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		primary.setPoolName("primary");
+		return primary;
+	}
+
+	@Bean
+	public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (int i = 0; i < replicaUrls.length; i++) {
+			replicas.add(replicaPool("replica-" + (i + 1), replicaUrls[i].trim(), primaryDataSource,
+					meterRegistry.getIfAvailable()));
+		}
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+		dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+		return dataSource;
+	}
+
+	private HikariDataSource replicaPool(String name, String url, HikariDataSource primary, MeterRegistry meterRegistry) {
+		// Not started until the first connection is requested
+		HikariDataSource replica = new HikariDataSource();
+		replica.setPoolName(name);
+		replica.setJdbcUrl(url);
+		replica.setUsername(username);
+		replica.setPassword(password);
+		if (primary.getDriverClassName() != null) {
+			replica.setDriverClassName(primary.getDriverClassName());
+		}
+		replica.setMaximumPoolSize(poolSize);
+		replica.setConnectionTimeout(primary.getConnectionTimeout());
+		replica.setReadOnly(true);
+		if (meterRegistry != null) {
+			replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+		}
+		return replica;
+	}
+
+}
@@ -1,18 +1,17 @@
 package com.example.userservice.configs;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.util.UUID;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -30,6 +29,9 @@ import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.oidc.OidcScopes;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
@@ -38,21 +40,71 @@ import org.springframework.security.oauth2.server.authorization.config.annotatio
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
 import org.springframework.security.oauth2.server.authorization.settings.ClientSettings;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.DefaultSecurityFilterChain;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
 import org.springframework.security.web.util.matcher.MediaTypeRequestMatcher;
+import org.springframework.util.function.SingletonSupplier;
 
+import com.example.userservice.security.ApiTokenIntrospectionAuthenticationProvider;
+import com.example.userservice.security.JwkKeyStore;
 import com.example.userservice.security.JwtAuthenticationFilter;
+import com.example.userservice.security.ServiceCredentialFilter;
+import com.example.userservice.services.TokenIntrospectionService;
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
 public class SecurityConfig {
 
+	private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
 	@Autowired
 	@Lazy
 	private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+	@Autowired
+	@Lazy
+	private TokenIntrospectionService tokenIntrospectionService;
+
+	/**
+	 * Machine-to-machine validation traffic gets a chain with a single filter: the precomputed
+	 * service credential check. None of the HttpSecurity filters (security context, headers,
+	 * request cache, anonymous authentication, authorization) run for these requests.
+	 */
+	@Bean
+	@Order(0)
+	public SecurityFilterChain internalValidationFilterChain(
+			@Value("${auth.internal.service-token:}") String serviceToken) {
+		return internalValidationChain(serviceToken);
+	}
+
+	// Also the first chain of ValidationNodeSecurityConfig
+	static SecurityFilterChain internalValidationChain(String serviceToken) {
+		ServiceCredentialFilter serviceCredentialFilter = new ServiceCredentialFilter(serviceToken);
+		if (!serviceCredentialFilter.isEnabled()) {
+			log.warn("auth.internal.service-token is not set; /api/v1/auth/** accepts unauthenticated callers");
+		}
+		return new DefaultSecurityFilterChain(
+				PathPatternRequestMatcher.withDefaults().matcher("/api/v1/auth/**"),
+				serviceCredentialFilter);
+	}
+
+	/**
+	 * JwtAuthenticationFilter only runs inside apiSecurityFilterChain; without this the servlet
+	 * container would also run it, with its path checks, in front of every request
+	 */
+	@Bean
+	public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(
+			JwtAuthenticationFilter filter) {
+		FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.setEnabled(false);
+		return registration;
+	}
+
 	@Bean
 	@Order(1)
 	public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http)
@@ -65,6 +117,16 @@ public class SecurityConfig {
 			.with(authorizationServerConfigurer, (authorizationServer) ->
 				authorizationServer
 					.oidc(Customizer.withDefaults())	// Enable OpenID Connect 1.0
+					// Introspection also answers for API tokens issued by JwtService
+					.tokenIntrospectionEndpoint((introspection) ->
+						introspection.authenticationProviders((providers) ->
+							providers.replaceAll((provider) ->
+								provider instanceof OAuth2TokenIntrospectionAuthenticationProvider
+									? new ApiTokenIntrospectionAuthenticationProvider(provider, tokenIntrospectionService)
+									: provider
+							)
+						)
+					)
 			)
 			.authorizeHttpRequests((authorize) ->
 				authorize
@@ -92,7 +154,7 @@ public class SecurityConfig {
 				.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
 			)
 			.authorizeHttpRequests(authorize -> authorize
-				.requestMatchers("/api/v1/users/signup", "/api/v1/users/login", "/api/v1/users/logout", "/actuator/**", "/api/v1/auth/**").permitAll()
+				.requestMatchers("/api/v1/users/signup", "/api/v1/users/login", "/api/v1/users/logout", "/api/v1/users/verify-email", "/actuator/**").permitAll()
 				.requestMatchers("/error").permitAll()
 				.anyRequest().authenticated()
 			)
@@ -116,19 +178,21 @@ public class SecurityConfig {
 		return http.build();
 	}
 
+	/**
+	 * The built-in account is only needed on the first authorization server login, so the
+	 * BCrypt encoding of its password is deferred until then instead of delaying startup
+	 */
 	@Bean("authServerUserDetailsService")
-	public UserDetailsService userDetailsService() {
-		// Create a fresh BCrypt encoder and encode "password"
-		BCryptPasswordEncoder encoder = passwordEncoder();
-		String encodedPassword = encoder.encode("password");
-
-		UserDetails userDetails = User.builder()
-				.username("user")
-				.password(encodedPassword)  // Use freshly encoded password
-				.roles("USER")
-				.build();
-
-		return new InMemoryUserDetailsManager(userDetails);
+	public UserDetailsService userDetailsService(BCryptPasswordEncoder passwordEncoder) {
+		SingletonSupplier<UserDetailsService> users = SingletonSupplier.of(() -> {
+			UserDetails userDetails = User.builder()
+					.username("user")
+					.password(passwordEncoder.encode("password"))
+					.roles("USER")
+					.build();
+			return new InMemoryUserDetailsManager(userDetails);
+		});
+		return (username) -> users.obtain().loadUserByUsername(username);
 	}
 
 	@Bean
@@ -149,30 +213,22 @@ public class SecurityConfig {
 		return new InMemoryRegisteredClientRepository(oidcClient);
 	}
 
+	/**
+	 * Published keys from the persisted keystore: the signing key, the next key and
+	 * recently retired ones. Served from an in-memory snapshot that changes on rotation.
+	 */
 	@Bean
-	public JWKSource<SecurityContext> jwkSource() {
-		KeyPair keyPair = generateRsaKey();
-		RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-		RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-		RSAKey rsaKey = new RSAKey.Builder(publicKey)
-				.privateKey(privateKey)
-				.keyID(UUID.randomUUID().toString())
-				.build();
-		JWKSet jwkSet = new JWKSet(rsaKey);
-		return new ImmutableJWKSet<>(jwkSet);
+	public JWKSource<SecurityContext> jwkSource(JwkKeyStore jwkKeyStore) {
+		return jwkKeyStore.jwkSource();
 	}
 
-	private static KeyPair generateRsaKey() {
-		KeyPair keyPair;
-		try {
-			KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-			keyPairGenerator.initialize(2048);
-			keyPair = keyPairGenerator.generateKeyPair();
-		}
-		catch (Exception ex) {
-			throw new IllegalStateException(ex);
-		}
-		return keyPair;
+	/**
+	 * Signs with the current key only; the JWKS source holds several RSA keys, which
+	 * the default encoder built from it would reject as ambiguous
+	 */
+	@Bean
+	public JwtEncoder jwtEncoder(JwkKeyStore jwkKeyStore) {
+		return new NimbusJwtEncoder(jwkKeyStore.signingKeySource());
 	}
 
 	@Bean
@@ -185,9 +241,4 @@ public class SecurityConfig {
 		return AuthorizationServerSettings.builder().build();
 	}
 
-	@Bean
-	public BCryptPasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder(10); // Strength factor of 10
-	}
-
 }
@@ -0,0 +1,49 @@
+package com.example.userservice.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Security for a servlet node that only validates tokens: auth.validation-only=true
+ * Takes the place of SecurityConfig, without the authorization server, form login or the
+ * JWT-authenticated user APIs. /api/v1/auth/** keeps the single-filter service credential chain.
+ */
+@Configuration
+@EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "true")
+public class ValidationNodeSecurityConfig {
+
+	@Bean
+	@Order(0)
+	public SecurityFilterChain internalValidationFilterChain(
+			@Value("${auth.internal.service-token:}") String serviceToken) {
+		return SecurityConfig.internalValidationChain(serviceToken);
+	}
+
+	@Bean
+	@Order(1)
+	public SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
+		http
+			.csrf(csrf -> csrf.disable())
+			.httpBasic(httpBasic -> httpBasic.disable())
+			.formLogin(formLogin -> formLogin.disable())
+			.sessionManagement(session -> session
+				.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+			)
+			.authorizeHttpRequests(authorize -> authorize
+				.requestMatchers("/actuator/**", "/error").permitAll()
+				.anyRequest().denyAll()
+			);
+		return http.build();
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.example.userservice.configs;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import com.example.userservice.dtos.AuthorizationDetailsDTO;
+import com.example.userservice.dtos.AuthorizationResponseDTO;
+import com.example.userservice.dtos.BatchValidatedTokenResponseDTO;
+import com.example.userservice.dtos.HealthResponseDTO;
+import com.example.userservice.dtos.QuickValidationResponseDTO;
+import com.example.userservice.dtos.TokenInfoDTO;
+import com.example.userservice.dtos.UserInfoResponseDTO;
+import com.example.userservice.dtos.ValidateTokenRequestDTO;
+import com.example.userservice.dtos.ValidateTokensRequestDTO;
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.repositories.TokenOwner;
+import com.example.userservice.repositories.TokenStatus;
+import com.example.userservice.repositories.UserPrincipal;
+
+/**
+ * Reachability metadata for the native edge build that Spring AOT cannot infer on its own
+ * Entities, repositories and @RestController bodies are covered by AOT processing; this adds
+ * what the validation path loads reflectively: jjwt's implementation classes, which the API
+ * module instantiates by name, and the Jackson bindings of the functional WebFlux routes.
+ */
+public class ValidationRuntimeHints implements RuntimeHintsRegistrar {
+
+	// Instantiated through io.jsonwebtoken.lang.Classes by Jwts, Jwks and Keys
+	private static final String[] JJWT_IMPLEMENTATIONS = {
+			"io.jsonwebtoken.impl.DefaultJwtBuilder",
+			"io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+			"io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+			"io.jsonwebtoken.impl.DefaultClaimsBuilder",
+			"io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+			"io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+			"io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+			"io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+			"io.jsonwebtoken.impl.security.StandardKeyOperations",
+			"io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+			"io.jsonwebtoken.impl.security.StandardCurves",
+			"io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+			"io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+			"io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+			"io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+			"io.jsonwebtoken.impl.security.KeysBridge",
+			"io.jsonwebtoken.jackson.io.JacksonSerializer",
+			"io.jsonwebtoken.jackson.io.JacksonDeserializer"
+	};
+
+	@Override
+	public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+		for (String type : JJWT_IMPLEMENTATIONS) {
+			hints.reflection().registerType(TypeReference.of(type),
+					MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+		}
+		// jjwt finds its JSON serializer with ServiceLoader
+		hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.Serializer");
+		hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.Deserializer");
+
+		// Request and response bodies of ReactiveValidationConfig's routes
+		new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+				ValidateTokenRequestDTO.class, ValidateTokensRequestDTO.class,
+				ValidatedTokenResponseDTO.class, BatchValidatedTokenResponseDTO.class,
+				QuickValidationResponseDTO.class, UserInfoResponseDTO.class, TokenInfoDTO.class,
+				AuthorizationResponseDTO.class, AuthorizationDetailsDTO.class, HealthResponseDTO.class);
+
+		// Built by Hibernate from the constructor expressions of TokenRepository and UserRepository
+		for (Class<?> readModel : new Class<?>[] { TokenStatus.class, TokenOwner.class, UserPrincipal.class }) {
+			hints.reflection().registerType(readModel, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+		}
+	}
+
+}
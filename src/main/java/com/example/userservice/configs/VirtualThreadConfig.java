@@ -0,0 +1,37 @@
+package com.example.userservice.configs;
+
+import com.example.userservice.services.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * Extra setup for spring.threads.virtual.enabled=true
+ *
+ * KafkaProducer.send() waits for missing topic metadata in Object.wait() under the metadata
+ * monitor, which pins the carrier of a virtual thread for up to max.block.ms. Fetching the
+ * metadata once at startup, on a platform thread, keeps that wait off the request path.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+	@Bean
+	public ApplicationRunner kafkaMetadataWarmup(KafkaTemplate<String, String> kafkaTemplate) {
+		return args -> {
+			try {
+				kafkaTemplate.partitionsFor(UserService.EMAIL_TOPIC);
+			} catch (Exception e) {
+				log.warn("Could not prefetch metadata for {}; the first send will wait for it", UserService.EMAIL_TOPIC, e);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.example.userservice.controllers;
+
+import com.example.userservice.services.PinningReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator view of virtual-thread pinning: /actuator/pinning
+ * Only populated with spring.threads.virtual.enabled=true; otherwise reports enabled=false.
+ */
+@Component
+@Endpoint(id = "pinning")
+public class PinningEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    @Autowired(required = false)
+    private PinningReport pinningReport;
+
+    @ReadOperation
+    public Map<String, Object> pinning(@Nullable Integer limit) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", pinningReport != null);
+        if (pinningReport != null) {
+            body.put("thresholdMillis", pinningReport.thresholdMillis());
+            body.put("sites", pinningReport.topSites(limit != null && limit > 0 ? limit : DEFAULT_LIMIT));
+        }
+        return body;
+    }
+}
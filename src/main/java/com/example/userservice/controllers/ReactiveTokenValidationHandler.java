@@ -0,0 +1,180 @@
+package com.example.userservice.controllers;
+
+import com.example.userservice.dtos.AuthorizationDetailsDTO;
+import com.example.userservice.dtos.AuthorizationResponseDTO;
+import com.example.userservice.dtos.BatchValidatedTokenResponseDTO;
+import com.example.userservice.dtos.HealthResponseDTO;
+import com.example.userservice.dtos.QuickValidationResponseDTO;
+import com.example.userservice.dtos.ResponseStatus;
+import com.example.userservice.dtos.TokenInfoDTO;
+import com.example.userservice.dtos.UserInfoResponseDTO;
+import com.example.userservice.dtos.ValidateTokenRequestDTO;
+import com.example.userservice.dtos.ValidateTokensRequestDTO;
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.services.ReactiveTokenValidationService;
+import com.example.userservice.services.TokenValidationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Functional handlers for /api/v1/auth/* in the reactive validation mode
+ * Same request and response bodies, status codes and cache headers as TokenValidationController.
+ * The revocation stream is only served by servlet instances.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTokenValidationHandler {
+
+    private static final ParameterizedTypeReference<Map<String, String>> STRING_MAP =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private ReactiveTokenValidationService reactiveTokenValidationService;
+
+    @Autowired
+    private TokenValidationService tokenValidationService;
+
+    @Value("${auth.batch.max-tokens:100}")
+    private int maxBatchTokens;
+
+    @Value("${auth.cache.http.revocation-tolerance:30}") // seconds
+    private long revocationToleranceSeconds;
+
+    public Mono<ServerResponse> validateToken(ServerRequest request) {
+        return request.bodyToMono(ValidateTokenRequestDTO.class)
+                .defaultIfEmpty(new ValidateTokenRequestDTO())
+                .flatMap(body -> validate(body.getToken(), body.getRequiredRole(), false));
+    }
+
+    public Mono<ServerResponse> validateTokenFromHeader(ServerRequest request) {
+        return validate(bearerToken(request), request.queryParam("requiredRole").orElse(null), true);
+    }
+
+    private Mono<ServerResponse> validate(String token, String requiredRole, boolean fromHeader) {
+        return reactiveTokenValidationService.validateTokenForMicroservice(token, requiredRole)
+                .flatMap(response -> response.isValid()
+                        ? cacheable("validate-token", token, response.getExpirationTime(), fromHeader).bodyValue(response)
+                        : ServerResponse.status(401).cacheControl(CacheControl.noStore()).bodyValue(response));
+    }
+
+    public Mono<ServerResponse> validateTokens(ServerRequest request) {
+        return request.bodyToMono(ValidateTokensRequestDTO.class)
+                .defaultIfEmpty(new ValidateTokensRequestDTO())
+                .flatMap(body -> {
+                    if (body.getTokens() == null || body.getTokens().isEmpty()) {
+                        return ServerResponse.badRequest().bodyValue(Map.of("tokens", "At least one token is required"));
+                    }
+
+                    BatchValidatedTokenResponseDTO response = new BatchValidatedTokenResponseDTO();
+                    if (body.getTokens().size() > maxBatchTokens) {
+                        response.setMessage("A maximum of " + maxBatchTokens + " tokens can be validated per request");
+                        response.setStatus(ResponseStatus.FAILURE);
+                        return ServerResponse.badRequest().bodyValue(response);
+                    }
+
+                    return reactiveTokenValidationService.validateTokensForMicroservice(body.getTokens(), body.getRequiredRole())
+                            .flatMap(results -> {
+                                int validCount = (int) results.stream().filter(ValidatedTokenResponseDTO::isValid).count();
+                                response.setResults(results);
+                                response.setValidCount(validCount);
+                                response.setMessage(validCount + " of " + results.size() + " tokens are valid");
+                                response.setStatus(ResponseStatus.SUCCESS);
+                                return ServerResponse.ok().bodyValue(response);
+                            });
+                });
+    }
+
+    // quick-validate and extract-user never touch the database, so they answer synchronously
+
+    public Mono<ServerResponse> quickValidateToken(ServerRequest request) {
+        return request.bodyToMono(STRING_MAP)
+                .defaultIfEmpty(Map.of())
+                .flatMap(body -> quickValidate(body.get("token"), false));
+    }
+
+    public Mono<ServerResponse> quickValidateTokenFromHeader(ServerRequest request) {
+        return quickValidate(bearerToken(request), true);
+    }
+
+    private Mono<ServerResponse> quickValidate(String token, boolean fromHeader) {
+        if (token == null || token.trim().isEmpty()) {
+            return ServerResponse.badRequest().bodyValue(QuickValidationResponseDTO.MISSING_TOKEN);
+        }
+        if (!tokenValidationService.quickValidateToken(token)) {
+            return ServerResponse.ok().cacheControl(CacheControl.noStore()).bodyValue(QuickValidationResponseDTO.INVALID_TOKEN);
+        }
+        TokenInfoDTO tokenInfo = tokenValidationService.extractBasicTokenInfo(token);
+        return cacheable("quick-validate", token, tokenInfo != null ? tokenInfo.expiration() : null, fromHeader)
+                .bodyValue(QuickValidationResponseDTO.valid(tokenInfo));
+    }
+
+    public Mono<ServerResponse> extractUserFromToken(ServerRequest request) {
+        return request.bodyToMono(STRING_MAP)
+                .defaultIfEmpty(Map.of())
+                .flatMap(body -> extractUser(body.get("token"), false));
+    }
+
+    public Mono<ServerResponse> extractUserFromHeader(ServerRequest request) {
+        return extractUser(bearerToken(request), true);
+    }
+
+    private Mono<ServerResponse> extractUser(String token, boolean fromHeader) {
+        if (token == null || token.trim().isEmpty()) {
+            return ServerResponse.badRequest().bodyValue(UserInfoResponseDTO.MISSING_TOKEN);
+        }
+        TokenInfoDTO userInfo = tokenValidationService.extractUserInformation(token);
+        if (userInfo == null) {
+            return ServerResponse.status(401).cacheControl(CacheControl.noStore()).bodyValue(UserInfoResponseDTO.NOT_EXTRACTED);
+        }
+        return cacheable("extract-user", token, userInfo.expiration(), fromHeader)
+                .bodyValue(UserInfoResponseDTO.extracted(userInfo));
+    }
+
+    public Mono<ServerResponse> checkAuthorization(ServerRequest request) {
+        return request.bodyToMono(STRING_MAP)
+                .defaultIfEmpty(Map.of())
+                .flatMap(body -> {
+                    String token = body.get("token");
+                    String requiredRole = body.get("role");
+                    String requiredPermission = body.get("permission");
+
+                    if (token == null || token.trim().isEmpty()) {
+                        return ServerResponse.badRequest().bodyValue(AuthorizationResponseDTO.MISSING_TOKEN);
+                    }
+
+                    return reactiveTokenValidationService.checkAuthorization(token, requiredRole, requiredPermission)
+                            .flatMap(decision -> ServerResponse.ok().bodyValue(AuthorizationResponseDTO.decided(
+                                    decision.authorized(),
+                                    new AuthorizationDetailsDTO(decision.hasRole(), requiredRole, requiredPermission))));
+                });
+    }
+
+    public Mono<ServerResponse> healthCheck(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(HealthResponseDTO.up());
+    }
+
+    private ServerResponse.BodyBuilder cacheable(String endpoint, String token, Date expiration, boolean fromHeader) {
+        ServerResponse.BodyBuilder builder = ServerResponse.ok()
+                .cacheControl(TokenValidationController.cacheControl(expiration, revocationToleranceSeconds))
+                .eTag(TokenValidationController.eTag(endpoint, token));
+        if (fromHeader) {
+            builder.varyBy(HttpHeaders.AUTHORIZATION);
+        }
+        return builder;
+    }
+
+    private static String bearerToken(ServerRequest request) {
+        return TokenValidationController.bearerToken(request.headers().firstHeader(HttpHeaders.AUTHORIZATION));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.userservice.controllers;
+
+import com.example.userservice.services.RejectedTokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator view of the negative token cache: /actuator/rejectedtokens
+ * Lists the clients with the most rejected tokens and how many were answered from the cache.
+ */
+@Component
+@Endpoint(id = "rejectedtokens")
+public class RejectedTokensEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    @Autowired
+    private RejectedTokenCache rejectedTokenCache;
+
+    @ReadOperation
+    public Map<String, Object> rejectedTokens(@Nullable Integer limit) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("cachedRejections", rejectedTokenCache.size());
+        body.put("clients", rejectedTokenCache.topClients(limit != null && limit > 0 ? limit : DEFAULT_LIMIT));
+        return body;
+    }
+}
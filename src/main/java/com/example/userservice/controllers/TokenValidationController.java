@@ -1,51 +1,143 @@
 package com.example.userservice.controllers;
 
+import com.example.userservice.dtos.AuthorizationDetailsDTO;
+import com.example.userservice.dtos.AuthorizationResponseDTO;
+import com.example.userservice.dtos.BatchValidatedTokenResponseDTO;
+import com.example.userservice.dtos.HealthResponseDTO;
+import com.example.userservice.dtos.QuickValidationResponseDTO;
+import com.example.userservice.dtos.TokenInfoDTO;
+import com.example.userservice.dtos.UserInfoResponseDTO;
 import com.example.userservice.dtos.ValidateTokenRequestDTO;
+import com.example.userservice.dtos.ValidateTokensRequestDTO;
 import com.example.userservice.dtos.ValidatedTokenResponseDTO;
 import com.example.userservice.dtos.ResponseStatus;
+import com.example.userservice.exceptions.BulkheadFullException;
+import com.example.userservice.security.TokenDigest;
+import com.example.userservice.services.AuthorizationService;
+import com.example.userservice.services.RevocationService;
 import com.example.userservice.services.TokenValidationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Production-grade Token Validation API for inter-microservice communication
  * This controller provides secure token validation endpoints for other microservices
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/auth")
 public class TokenValidationController {
 
     @Autowired
     private TokenValidationService tokenValidationService;
 
+    @Autowired
+    private RevocationService revocationService;
+
+    @Value("${auth.batch.max-tokens:100}")
+    private int maxBatchTokens;
+
+    @Value("${auth.cache.http.revocation-tolerance:30}") // seconds
+    private long revocationToleranceSeconds;
+
     /**
      * Comprehensive token validation endpoint for microservices
      * Validates JWT structure, signature, expiration, and database status
      */
     @PostMapping("/validate-token")
     public ResponseEntity<ValidatedTokenResponseDTO> validateToken(@Valid @RequestBody ValidateTokenRequestDTO request) {
+        return validate(request.getToken(), request.getRequiredRole(), false);
+    }
+
+    /**
+     * Cacheable variant of validate-token with the token in the Authorization header
+     * Standard HTTP caches can store the response, and If-None-Match is answered with 304
+     */
+    @GetMapping("/validate-token")
+    public ResponseEntity<ValidatedTokenResponseDTO> validateTokenFromHeader(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestParam(value = "requiredRole", required = false) String requiredRole) {
+        return validate(bearerToken(authorization), requiredRole, true);
+    }
+
+    private ResponseEntity<ValidatedTokenResponseDTO> validate(String token, String requiredRole, boolean fromHeader) {
 
         try {
             ValidatedTokenResponseDTO response = tokenValidationService
-                .validateTokenForMicroservice(request.getToken(), request.getRequiredRole());
+                .validateTokenForMicroservice(token, requiredRole);
 
-            if (response.isValid()) {
-                return ResponseEntity.ok(response);
+            if (TokenValidationService.DEGRADED_MESSAGE.equals(response.getMessage())) {
+                return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
+            } else if (response.isValid()) {
+                return cacheable("validate-token", token, response.getExpirationTime(), fromHeader).body(response);
             } else {
-                return ResponseEntity.status(401).body(response);
+                return ResponseEntity.status(401).cacheControl(CacheControl.noStore()).body(response);
             }
 
+        } catch (BulkheadFullException e) {
+            // The token may well be valid; tell the caller to retry rather than log the user out
+            ValidatedTokenResponseDTO unavailableResponse = new ValidatedTokenResponseDTO(
+                false,
+                "Token status is temporarily unavailable"
+            );
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1")
+                .cacheControl(CacheControl.noStore()).body(unavailableResponse);
         } catch (Exception e) {
             ValidatedTokenResponseDTO errorResponse = new ValidatedTokenResponseDTO(
                 false,
                 "Token validation failed: " + e.getMessage()
             );
-            return ResponseEntity.status(500).body(errorResponse);
+            return ResponseEntity.status(500).cacheControl(CacheControl.noStore()).body(errorResponse);
+        }
+    }
+
+    /**
+     * Batch token validation endpoint for gateways and fan-out services
+     * Validates up to auth.batch.max-tokens tokens in one call and returns per-token results in order
+     */
+    @PostMapping("/validate-tokens")
+    public ResponseEntity<BatchValidatedTokenResponseDTO> validateTokens(@Valid @RequestBody ValidateTokensRequestDTO request) {
+
+        BatchValidatedTokenResponseDTO response = new BatchValidatedTokenResponseDTO();
+
+        if (request.getTokens().size() > maxBatchTokens) {
+            response.setMessage("A maximum of " + maxBatchTokens + " tokens can be validated per request");
+            response.setStatus(ResponseStatus.FAILURE);
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            List<ValidatedTokenResponseDTO> results = tokenValidationService
+                .validateTokensForMicroservice(request.getTokens(), request.getRequiredRole());
+
+            int validCount = (int) results.stream().filter(ValidatedTokenResponseDTO::isValid).count();
+            response.setResults(results);
+            response.setValidCount(validCount);
+            response.setMessage(validCount + " of " + results.size() + " tokens are valid");
+            response.setStatus(ResponseStatus.SUCCESS);
+            return ResponseEntity.ok(response);
+
+        } catch (BulkheadFullException e) {
+            response.setMessage("Token status is temporarily unavailable");
+            response.setStatus(ResponseStatus.FAILURE);
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+        } catch (Exception e) {
+            response.setMessage("Batch token validation failed: " + e.getMessage());
+            response.setStatus(ResponseStatus.FAILURE);
+            return ResponseEntity.status(500).body(response);
         }
     }
 
@@ -54,39 +146,41 @@ public class TokenValidationController {
      * Only validates JWT structure and signature
      */
     @PostMapping("/quick-validate")
-    public ResponseEntity<Map<String, Object>> quickValidateToken(
+    public ResponseEntity<QuickValidationResponseDTO> quickValidateToken(
             @RequestBody Map<String, String> request) {
+        return quickValidate(request.get("token"), false);
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        String token = request.get("token");
+    /**
+     * Cacheable variant of quick-validate with the token in the Authorization header
+     */
+    @GetMapping("/quick-validate")
+    public ResponseEntity<QuickValidationResponseDTO> quickValidateTokenFromHeader(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return quickValidate(bearerToken(authorization), true);
+    }
+
+    private ResponseEntity<QuickValidationResponseDTO> quickValidate(String token, boolean fromHeader) {
 
         if (token == null || token.trim().isEmpty()) {
-            response.put("valid", false);
-            response.put("message", "Token is required");
-            response.put("status", ResponseStatus.FAILURE);
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(QuickValidationResponseDTO.MISSING_TOKEN);
         }
 
         try {
             boolean isValid = tokenValidationService.quickValidateToken(token);
 
-            response.put("valid", isValid);
-            response.put("message", isValid ? "Token is valid" : "Token is invalid");
-            response.put("status", isValid ? ResponseStatus.SUCCESS : ResponseStatus.FAILURE);
-
-            if (isValid) {
-                // Add basic token info for quick validation
-                Map<String, Object> tokenInfo = tokenValidationService.extractBasicTokenInfo(token);
-                response.put("tokenInfo", tokenInfo);
+            if (!isValid) {
+                return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(QuickValidationResponseDTO.INVALID_TOKEN);
             }
 
-            return ResponseEntity.ok(response);
+            // Add basic token info for quick validation
+            TokenInfoDTO tokenInfo = tokenValidationService.extractBasicTokenInfo(token);
+            return cacheable("quick-validate", token, tokenInfo != null ? tokenInfo.expiration() : null, fromHeader)
+                .body(QuickValidationResponseDTO.valid(tokenInfo));
 
         } catch (Exception e) {
-            response.put("valid", false);
-            response.put("message", "Token validation error: " + e.getMessage());
-            response.put("status", ResponseStatus.FAILURE);
-            return ResponseEntity.status(401).body(response);
+            return ResponseEntity.status(401).cacheControl(CacheControl.noStore()).body(new QuickValidationResponseDTO(
+                false, "Token validation error: " + e.getMessage(), ResponseStatus.FAILURE, null));
         }
     }
 
@@ -95,37 +189,39 @@ public class TokenValidationController {
      * Useful for internal microservice communication where token is already validated
      */
     @PostMapping("/extract-user")
-    public ResponseEntity<Map<String, Object>> extractUserFromToken(
+    public ResponseEntity<UserInfoResponseDTO> extractUserFromToken(
             @RequestBody Map<String, String> request) {
+        return extractUser(request.get("token"), false);
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        String token = request.get("token");
+    /**
+     * Cacheable variant of extract-user with the token in the Authorization header
+     */
+    @GetMapping("/extract-user")
+    public ResponseEntity<UserInfoResponseDTO> extractUserFromHeader(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return extractUser(bearerToken(authorization), true);
+    }
+
+    private ResponseEntity<UserInfoResponseDTO> extractUser(String token, boolean fromHeader) {
 
         if (token == null || token.trim().isEmpty()) {
-            response.put("message", "Token is required");
-            response.put("status", ResponseStatus.FAILURE);
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(UserInfoResponseDTO.MISSING_TOKEN);
         }
 
         try {
-            Map<String, Object> userInfo = tokenValidationService.extractUserInformation(token);
+            TokenInfoDTO userInfo = tokenValidationService.extractUserInformation(token);
 
-            if (userInfo.isEmpty()) {
-                response.put("message", "Unable to extract user information from token");
-                response.put("status", ResponseStatus.FAILURE);
-                return ResponseEntity.status(401).body(response);
+            if (userInfo == null) {
+                return ResponseEntity.status(401).cacheControl(CacheControl.noStore()).body(UserInfoResponseDTO.NOT_EXTRACTED);
             }
 
-            response.put("userInfo", userInfo);
-            response.put("message", "User information extracted successfully");
-            response.put("status", ResponseStatus.SUCCESS);
-
-            return ResponseEntity.ok(response);
+            return cacheable("extract-user", token, userInfo.expiration(), fromHeader)
+                .body(UserInfoResponseDTO.extracted(userInfo));
 
         } catch (Exception e) {
-            response.put("message", "Error extracting user information: " + e.getMessage());
-            response.put("status", ResponseStatus.FAILURE);
-            return ResponseEntity.status(401).body(response);
+            return ResponseEntity.status(401).cacheControl(CacheControl.noStore()).body(new UserInfoResponseDTO(
+                null, "Error extracting user information: " + e.getMessage(), ResponseStatus.FAILURE));
         }
     }
 
@@ -134,56 +230,86 @@ public class TokenValidationController {
      * For authorization decisions in other microservices
      */
     @PostMapping("/check-authorization")
-    public ResponseEntity<Map<String, Object>> checkAuthorization(
+    public ResponseEntity<AuthorizationResponseDTO> checkAuthorization(
             @RequestBody Map<String, String> request) {
 
-        Map<String, Object> response = new HashMap<>();
         String token = request.get("token");
         String requiredRole = request.get("role");
         String requiredPermission = request.get("permission");
 
         if (token == null || token.trim().isEmpty()) {
-            response.put("authorized", false);
-            response.put("message", "Token is required");
-            response.put("status", ResponseStatus.FAILURE);
-            return ResponseEntity.badRequest().body(response);
+            return ResponseEntity.badRequest().body(AuthorizationResponseDTO.MISSING_TOKEN);
         }
 
         try {
-            boolean isAuthorized = tokenValidationService.checkUserAuthorization(
+            AuthorizationService.Decision decision = tokenValidationService.checkAuthorization(
                 token, requiredRole, requiredPermission);
 
-            response.put("authorized", isAuthorized);
-            response.put("message", isAuthorized ? "User is authorized" : "User is not authorized");
-            response.put("status", ResponseStatus.SUCCESS);
-
-            // Add authorization details (simplified - no role checking)
-            Map<String, Object> authDetails = new HashMap<>();
-            authDetails.put("hasRole", false); // Simplified - no role checking anymore
-            authDetails.put("checkedRole", requiredRole);
-            authDetails.put("checkedPermission", requiredPermission);
-            response.put("authorizationDetails", authDetails);
+            AuthorizationDetailsDTO authDetails = new AuthorizationDetailsDTO(
+                decision.hasRole(),
+                requiredRole,
+                requiredPermission);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(AuthorizationResponseDTO.decided(decision.authorized(), authDetails));
 
         } catch (Exception e) {
-            response.put("authorized", false);
-            response.put("message", "Authorization check failed: " + e.getMessage());
-            response.put("status", ResponseStatus.FAILURE);
-            return ResponseEntity.status(401).body(response);
+            return ResponseEntity.status(401).body(new AuthorizationResponseDTO(
+                false, "Authorization check failed: " + e.getMessage(), ResponseStatus.FAILURE, null));
         }
     }
 
+    /**
+     * Server-sent stream of token revocations for downstream local caches
+     * Reconnecting clients send Last-Event-ID (or ?since=) and only receive the events they missed;
+     * a "resync" event means the gap can't be replayed and local caches should be flushed.
+     */
+    @GetMapping(value = "/revocations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRevocations(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "since", required = false) String since) {
+        return revocationService.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
     /**
      * Health check endpoint for the token validation service
      */
     @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> healthCheck() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("service", "Token Validation Service");
-        response.put("status", "UP");
-        response.put("timestamp", System.currentTimeMillis());
-        response.put("version", "1.0.0");
-        return ResponseEntity.ok(response);
+    public ResponseEntity<HealthResponseDTO> healthCheck() {
+        return ResponseEntity.ok(HealthResponseDTO.up());
+    }
+
+    /**
+     * Successful answers only change on revocation or expiry, so they may be cached privately
+     * for the remaining token lifetime, capped at the configured revocation tolerance.
+     * The strong ETag is derived from the endpoint and the token digest, never the raw token.
+     */
+    private ResponseEntity.BodyBuilder cacheable(String endpoint, String token, Date expiration, boolean fromHeader) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+            .cacheControl(cacheControl(expiration, revocationToleranceSeconds))
+            .eTag(eTag(endpoint, token));
+        if (fromHeader) {
+            builder.varyBy(HttpHeaders.AUTHORIZATION);
+        }
+        return builder;
+    }
+
+    static CacheControl cacheControl(Date expiration, long revocationToleranceSeconds) {
+        long maxAge = revocationToleranceSeconds;
+        if (expiration != null) {
+            long remainingSeconds = (expiration.getTime() - System.currentTimeMillis()) / 1000;
+            maxAge = Math.max(0, Math.min(maxAge, remainingSeconds));
+        }
+        return CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePrivate();
+    }
+
+    static String eTag(String endpoint, String token) {
+        return "\"" + TokenDigest.sha256Hex(endpoint + ":" + token) + "\"";
+    }
+
+    static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        return authorization.substring(7);
     }
 }
@@ -2,10 +2,14 @@ package com.example.userservice.controllers;
 
 import com.example.userservice.dtos.*;
 import com.example.userservice.dtos.ResponseStatus;
+import com.example.userservice.exceptions.BulkheadFullException;
 import com.example.userservice.models.User;
 import com.example.userservice.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,6 +17,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
 @RequestMapping("/api/v1/users")
 public class UserController {
     @Autowired
@@ -31,6 +37,10 @@ public class UserController {
             response.setEmail(user.getEmail());
             response.setMessage("User signed up successfully");
             response.setStatus(ResponseStatus.SUCCESS);
+        } catch (BulkheadFullException e) {
+            response.setMessage("Sign-up is temporarily unavailable, please retry");
+            response.setStatus(ResponseStatus.FAILURE);
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(response);
         } catch (Exception e) {
             response.setMessage("Error signing up user: "+e.getMessage());
             response.setStatus(ResponseStatus.FAILURE);
@@ -55,6 +65,10 @@ public class UserController {
             response.setMessage("User logged in successfully");
             response.setStatus(ResponseStatus.SUCCESS);
             return ResponseEntity.ok(response);
+        } catch (BulkheadFullException e) {
+            response.setMessage("Login is temporarily unavailable, please retry");
+            response.setStatus(ResponseStatus.FAILURE);
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(response);
         } catch (Exception e) {
             response.setMessage("Error logging in: "+e.getMessage());
             response.setStatus(ResponseStatus.FAILURE);
@@ -62,12 +76,25 @@ public class UserController {
         }
     }
 
+    //email verification api implementation (link from the welcome email)
+    @GetMapping("/verify-email")
+    public ResponseEntity<String> verifyEmail(@RequestParam("uid") Long userId,
+                                              @RequestParam("expires") long expiresAt,
+                                              @RequestParam("signature") String signature) {
+        if (userService.verifyEmail(userId, expiresAt, signature)) {
+            return ResponseEntity.ok("Email verified successfully");
+        }
+        return ResponseEntity.badRequest().body("Invalid or expired verification link");
+    }
+
     //logout api implementation
     @PatchMapping("/logout")
     public ResponseEntity<String> logout(@RequestBody LogoutRequestDTO logoutRequestDTO){
         try{
             userService.logout(logoutRequestDTO.getToken());
             return ResponseEntity.ok("Logout successful");
+        }catch (BulkheadFullException e){
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body("Logout is temporarily unavailable, please retry");
         }catch (Exception e){
             return ResponseEntity.badRequest().body("Logout failed: "+e.getMessage());
         }
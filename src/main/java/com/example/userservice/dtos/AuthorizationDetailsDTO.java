@@ -0,0 +1,7 @@
+package com.example.userservice.dtos;
+
+public record AuthorizationDetailsDTO(
+        boolean hasRole,
+        String checkedRole,
+        String checkedPermission) {
+}
@@ -0,0 +1,23 @@
+package com.example.userservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+public record AuthorizationResponseDTO(
+        boolean authorized,
+        @JsonSerialize(using = PreEncodedMessageSerializer.class) String message,
+        ResponseStatus status,
+        @JsonInclude(JsonInclude.Include.NON_NULL) AuthorizationDetailsDTO authorizationDetails) {
+
+    public static final String TOKEN_REQUIRED = "Token is required";
+    public static final String AUTHORIZED = "User is authorized";
+    public static final String NOT_AUTHORIZED = "User is not authorized";
+
+    public static final AuthorizationResponseDTO MISSING_TOKEN =
+            new AuthorizationResponseDTO(false, TOKEN_REQUIRED, ResponseStatus.FAILURE, null);
+
+    public static AuthorizationResponseDTO decided(boolean authorized, AuthorizationDetailsDTO details) {
+        return new AuthorizationResponseDTO(authorized, authorized ? AUTHORIZED : NOT_AUTHORIZED,
+                ResponseStatus.SUCCESS, details);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.userservice.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BatchValidatedTokenResponseDTO {
+    // Per-token results, in the same order as the request
+    private List<ValidatedTokenResponseDTO> results;
+    private int validCount;
+    private String message;
+    private ResponseStatus status;
+}
@@ -0,0 +1,18 @@
+package com.example.userservice.dtos;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+public record HealthResponseDTO(
+        @JsonSerialize(using = PreEncodedMessageSerializer.class) String service,
+        @JsonSerialize(using = PreEncodedMessageSerializer.class) String status,
+        long timestamp,
+        @JsonSerialize(using = PreEncodedMessageSerializer.class) String version) {
+
+    public static final String SERVICE_NAME = "Token Validation Service";
+    public static final String STATUS_UP = "UP";
+    public static final String VERSION = "1.0.0";
+
+    public static HealthResponseDTO up() {
+        return new HealthResponseDTO(SERVICE_NAME, STATUS_UP, System.currentTimeMillis(), VERSION);
+    }
+}
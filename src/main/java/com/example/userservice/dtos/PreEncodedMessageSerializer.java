@@ -0,0 +1,50 @@
+package com.example.userservice.dtos;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes the fixed response messages from pre-encoded SerializedString instances,
+ * so their quoting and UTF-8 encoding happen once instead of on every response.
+ * Any other (dynamic) message falls back to a regular string write.
+ */
+public class PreEncodedMessageSerializer extends StdSerializer<String> {
+
+    private static final Map<String, SerializedString> PRE_ENCODED = Map.ofEntries(
+            preEncoded(QuickValidationResponseDTO.TOKEN_REQUIRED),
+            preEncoded(QuickValidationResponseDTO.TOKEN_VALID),
+            preEncoded(QuickValidationResponseDTO.TOKEN_INVALID),
+            preEncoded(UserInfoResponseDTO.EXTRACTION_FAILED),
+            preEncoded(UserInfoResponseDTO.EXTRACTED),
+            preEncoded(AuthorizationResponseDTO.AUTHORIZED),
+            preEncoded(AuthorizationResponseDTO.NOT_AUTHORIZED),
+            preEncoded(HealthResponseDTO.SERVICE_NAME),
+            preEncoded(HealthResponseDTO.STATUS_UP),
+            preEncoded(HealthResponseDTO.VERSION));
+
+    public PreEncodedMessageSerializer() {
+        super(String.class);
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        SerializedString preEncoded = PRE_ENCODED.get(value);
+        if (preEncoded != null) {
+            gen.writeString(preEncoded);
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static Map.Entry<String, SerializedString> preEncoded(String message) {
+        SerializedString serialized = new SerializedString(message);
+        // Force the quoted UTF-8 form to be computed and cached up front
+        serialized.asQuotedUTF8();
+        return Map.entry(message, serialized);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.userservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+public record QuickValidationResponseDTO(
+        boolean valid,
+        @JsonSerialize(using = PreEncodedMessageSerializer.class) String message,
+        ResponseStatus status,
+        @JsonInclude(JsonInclude.Include.NON_NULL) TokenInfoDTO tokenInfo) {
+
+    public static final String TOKEN_REQUIRED = "Token is required";
+    public static final String TOKEN_VALID = "Token is valid";
+    public static final String TOKEN_INVALID = "Token is invalid";
+
+    // Immutable, so fixed failure responses are shared instead of rebuilt per request
+    public static final QuickValidationResponseDTO MISSING_TOKEN =
+            new QuickValidationResponseDTO(false, TOKEN_REQUIRED, ResponseStatus.FAILURE, null);
+    public static final QuickValidationResponseDTO INVALID_TOKEN =
+            new QuickValidationResponseDTO(false, TOKEN_INVALID, ResponseStatus.FAILURE, null);
+
+    public static QuickValidationResponseDTO valid(TokenInfoDTO tokenInfo) {
+        return new QuickValidationResponseDTO(true, TOKEN_VALID, ResponseStatus.SUCCESS, tokenInfo);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.userservice.dtos;
+
+import java.util.Date;
+
+/**
+ * Basic claims exposed by the quick-validate and extract-user endpoints
+ */
+public record TokenInfoDTO(
+        String username,
+        Long userId,
+        String email,
+        String tokenId,
+        Date issuedAt,
+        Date expiration) {
+}
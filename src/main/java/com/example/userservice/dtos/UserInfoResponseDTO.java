@@ -0,0 +1,23 @@
+package com.example.userservice.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+public record UserInfoResponseDTO(
+        @JsonInclude(JsonInclude.Include.NON_NULL) TokenInfoDTO userInfo,
+        @JsonSerialize(using = PreEncodedMessageSerializer.class) String message,
+        ResponseStatus status) {
+
+    public static final String TOKEN_REQUIRED = "Token is required";
+    public static final String EXTRACTION_FAILED = "Unable to extract user information from token";
+    public static final String EXTRACTED = "User information extracted successfully";
+
+    public static final UserInfoResponseDTO MISSING_TOKEN =
+            new UserInfoResponseDTO(null, TOKEN_REQUIRED, ResponseStatus.FAILURE);
+    public static final UserInfoResponseDTO NOT_EXTRACTED =
+            new UserInfoResponseDTO(null, EXTRACTION_FAILED, ResponseStatus.FAILURE);
+
+    public static UserInfoResponseDTO extracted(TokenInfoDTO userInfo) {
+        return new UserInfoResponseDTO(userInfo, EXTRACTED, ResponseStatus.SUCCESS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.userservice.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ValidateTokensRequestDTO {
+    @NotEmpty(message = "At least one token is required")
+    private List<String> tokens;
+    private String requiredRole; // Optional: applied to every token in the batch
+}
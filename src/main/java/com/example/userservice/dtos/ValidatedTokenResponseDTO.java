@@ -3,6 +3,7 @@ package com.example.userservice.dtos;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -45,4 +46,27 @@ public class ValidatedTokenResponseDTO {
         this.message = message;
         this.status = valid ? ResponseStatus.SUCCESS : ResponseStatus.FAILURE;
     }
+
+    /**
+     * Copy that shares no mutable state with the original, for callers handed the same result
+     */
+    public ValidatedTokenResponseDTO(ValidatedTokenResponseDTO other) {
+        this.valid = other.valid;
+        this.message = other.message;
+        this.status = other.status;
+        this.userId = other.userId;
+        this.username = other.username;
+        this.email = other.email;
+        this.isVerified = other.isVerified;
+        this.tokenId = other.tokenId;
+        this.issuedAt = other.issuedAt != null ? new Date(other.issuedAt.getTime()) : null;
+        this.expirationTime = other.expirationTime != null ? new Date(other.expirationTime.getTime()) : null;
+        this.issuer = other.issuer;
+        this.audience = other.audience;
+        this.roles = other.roles != null ? new ArrayList<>(other.roles) : null;
+        this.permissions = other.permissions != null ? new ArrayList<>(other.permissions) : null;
+        this.tokenType = other.tokenType;
+        this.isExpired = other.isExpired;
+        this.isRevoked = other.isRevoked;
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.userservice.events;
+
+/**
+ * Revocation pushed to downstream services over the revocation stream
+ *
+ * TOKEN_REVOKED carries the token's jti and expiry so subscribers can drop it from local caches.
+ * USER_TOKENS_REVOKED is a logout-all version bump: every token of the user issued before
+ * revokedBefore (epoch millis) is revoked.
+ */
+public record RevocationEvent(
+        String id,
+        long sequence,
+        String type,
+        String jti,
+        Long userId,
+        Long expiresAt,
+        Long revokedBefore) {
+
+    public static final String TOKEN_REVOKED = "TOKEN_REVOKED";
+    public static final String USER_TOKENS_REVOKED = "USER_TOKENS_REVOKED";
+}
@@ -0,0 +1,14 @@
+package com.example.userservice.events;
+
+/**
+ * Revocation relayed between instances over Kafka; origin identifies the sending instance so it
+ * can skip its own messages
+ */
+public record RevocationRelayMessage(
+        String origin,
+        String type,
+        String jti,
+        Long userId,
+        Long expiresAt,
+        Long revokedBefore) {
+}
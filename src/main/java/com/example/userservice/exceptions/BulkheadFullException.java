@@ -0,0 +1,11 @@
+package com.example.userservice.exceptions;
+
+/**
+ * No database permit became free for a workload within its timeout
+ * Answered with 503 and Retry-After, so callers back off instead of piling onto the pool.
+ */
+public class BulkheadFullException extends RuntimeException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
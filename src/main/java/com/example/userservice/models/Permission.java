@@ -0,0 +1,13 @@
+package com.example.userservice.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity(name = "permissions")
+@Getter
+@Setter
+public class Permission extends BaseModel{
+    @Column(length = 100, nullable = false, unique = true)
+    private String permissionName; // e.g. orders:read
+}
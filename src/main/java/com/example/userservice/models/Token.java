@@ -1,5 +1,6 @@
 package com.example.userservice.models;
 
+import com.example.userservice.security.TokenDigest;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -9,10 +10,20 @@ import java.util.Date;
 @Entity
 @Getter
 @Setter
+// Mirrors db/migration; Flyway owns the schema, so these only document it
+@Table(indexes = {
+        @Index(name = "idx_token_digest_status", columnList = "token_digest, is_deleted, is_expired, expired_at"),
+        @Index(name = "idx_token_user_status", columnList = "user_id, is_deleted, is_expired"),
+        @Index(name = "idx_token_expiry", columnList = "is_expired, expired_at")
+})
 public class Token extends BaseModel{
     @Column(columnDefinition = "TEXT", nullable = false)
     private String token;
 
+    // SHA-256 of the token; the TEXT column can't be indexed in full, so status lookups use this
+    @Column(name = "token_digest", length = 64, nullable = false)
+    private String tokenDigest;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -23,4 +34,11 @@ public class Token extends BaseModel{
     @Temporal(TemporalType.TIMESTAMP)
     @Column(nullable = false)
     private Date expiredAt;
+
+    @PrePersist
+    void computeTokenDigest() {
+        if (token != null) {
+            tokenDigest = TokenDigest.sha256Hex(token);
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package com.example.userservice.repositories;
+
+import com.example.userservice.exceptions.BulkheadFullException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bulkheads in front of the connection pool, one per workload
+ * Each workload may hold at most its permits' worth of connections at a time and waits at most
+ * its timeout for one. With account + maintenance permits below the pool size, a burst of slow
+ * sign-ups or a long cleanup can never take the connections token validation needs.
+ * Validation fails fast; what happens then is up to the validation degraded mode.
+ */
+@Component
+public class ConnectionBulkheads {
+
+    public enum Workload {
+        // Token status and user lookups behind every authenticated request
+        VALIDATION,
+        // Sign-up, login and logout
+        ACCOUNT,
+        // Scheduled cleanup
+        MAINTENANCE
+    }
+
+    @Value("${auth.bulkhead.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.bulkhead.validation.permits:10}")
+    private int validationPermits;
+
+    @Value("${auth.bulkhead.validation.timeout:100}") // milliseconds
+    private long validationTimeout;
+
+    // deny: answer 503 when the status can't be checked; verified: accept tokens with a valid signature
+    @Value("${auth.bulkhead.validation.degraded-mode:deny}")
+    private String validationDegradedMode;
+
+    @Value("${auth.bulkhead.account.permits:5}")
+    private int accountPermits;
+
+    @Value("${auth.bulkhead.account.timeout:2000}") // milliseconds
+    private long accountTimeout;
+
+    @Value("${auth.bulkhead.maintenance.permits:1}")
+    private int maintenancePermits;
+
+    @Value("${auth.bulkhead.maintenance.timeout:10000}") // milliseconds
+    private long maintenanceTimeout;
+
+    private record Bulkhead(Semaphore permits, int size, long timeout, LongAdder rejected) {
+    }
+
+    private final Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+    private boolean acceptVerifiedWhenDegraded;
+
+    @PostConstruct
+    public void init() {
+        bulkheads.clear();
+        if (enabled) {
+            bulkheads.put(Workload.VALIDATION, bulkhead(validationPermits, validationTimeout));
+            bulkheads.put(Workload.ACCOUNT, bulkhead(accountPermits, accountTimeout));
+            bulkheads.put(Workload.MAINTENANCE, bulkhead(maintenancePermits, maintenanceTimeout));
+        }
+        acceptVerifiedWhenDegraded = "verified".equalsIgnoreCase(validationDegradedMode);
+    }
+
+    /**
+     * Runs the database work once the workload has a free permit
+     * Throws BulkheadFullException if none frees up within the workload's timeout.
+     * Work must not start a transaction before this point, or its connection is already taken.
+     * With spring.jpa.open-in-view on, the request's EntityManager keeps the connection after the
+     * permit is released, so the bulkheads only isolate workloads with it off.
+     */
+    public <T> T call(Workload workload, Supplier<T> work) {
+        Bulkhead bulkhead = bulkheads.get(workload);
+        if (bulkhead == null) {
+            return work.get();
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.permits().tryAcquire(bulkhead.timeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            bulkhead.rejected().increment();
+            throw new BulkheadFullException("No database capacity for " + workload.name().toLowerCase()
+                    + " within " + bulkhead.timeout() + " ms");
+        }
+
+        try {
+            return work.get();
+        } finally {
+            bulkhead.permits().release();
+        }
+    }
+
+    /**
+     * Whether a token that passed signature and claim checks is accepted when its status lookup
+     * is rejected by the validation bulkhead; revocations made since then go unnoticed meanwhile
+     */
+    public boolean acceptVerifiedWhenDegraded() {
+        return acceptVerifiedWhenDegraded;
+    }
+
+    /**
+     * Calls turned away by the workload's bulkhead
+     */
+    public long getRejected(Workload workload) {
+        Bulkhead bulkhead = bulkheads.get(workload);
+        return bulkhead != null ? bulkhead.rejected().sum() : 0;
+    }
+
+    /**
+     * Permits currently held by the workload
+     */
+    public int getInUse(Workload workload) {
+        Bulkhead bulkhead = bulkheads.get(workload);
+        return bulkhead != null ? bulkhead.size() - bulkhead.permits().availablePermits() : 0;
+    }
+
+    private static Bulkhead bulkhead(int permits, long timeout) {
+        return new Bulkhead(new Semaphore(permits, true), permits, timeout, new LongAdder());
+    }
+}
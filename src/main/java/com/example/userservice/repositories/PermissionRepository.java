@@ -0,0 +1,15 @@
+package com.example.userservice.repositories;
+
+import com.example.userservice.models.Permission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PermissionRepository extends JpaRepository<Permission, Long> {
+    Optional<Permission> findByPermissionName(String permissionName);
+
+    List<Permission> findByIsDeletedFalseOrderByPermissionNameAsc();
+}
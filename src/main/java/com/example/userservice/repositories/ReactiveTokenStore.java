@@ -0,0 +1,97 @@
+package com.example.userservice.repositories;
+
+import com.example.userservice.security.TokenDigest;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Non-blocking token status lookups over R2DBC for the reactive validation mode
+ * Same queries as TokenRepository's active-token finders. The pool is private rather than a
+ * ConnectionFactory bean, which would make Spring Boot drop the JPA DataSource.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTokenStore {
+
+    private static final String ACTIVE_BY_DIGEST = "SELECT id, token_digest, expired_at FROM token "
+            + "WHERE token_digest = :digest AND token = :token AND is_deleted = false AND is_expired = false";
+
+    @Value("${auth.reactive.r2dbc.url:}")
+    private String url;
+
+    @Value("${auth.reactive.r2dbc.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${auth.reactive.r2dbc.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${auth.reactive.r2dbc.pool-size:20}")
+    private int poolSize;
+
+    @Value("${auth.reactive.r2dbc.acquire-timeout:2000}") // milliseconds
+    private long acquireTimeout;
+
+    private ConnectionPool pool;
+
+    private DatabaseClient databaseClient;
+
+    @PostConstruct
+    public void init() {
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("auth.reactive.r2dbc.url is required for the reactive validation mode");
+        }
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isBlank()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (!password.isBlank()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .initialSize(Math.min(poolSize, 4))
+                .maxSize(poolSize)
+                .maxAcquireTime(Duration.ofMillis(acquireTimeout))
+                .build());
+        databaseClient = DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+
+    /**
+     * Status of the active token row, looked up by digest through idx_token_digest_status;
+     * empty if there is none
+     */
+    public Mono<TokenStatus> findActiveToken(String token) {
+        return databaseClient.sql(ACTIVE_BY_DIGEST)
+                .bind("digest", TokenDigest.sha256Hex(token))
+                .bind("token", token)
+                .map(ReactiveTokenStore::toStatus)
+                .first();
+    }
+
+    private static TokenStatus toStatus(Readable row) {
+        LocalDateTime expiredAt = row.get("expired_at", LocalDateTime.class);
+        return new TokenStatus(row.get("id", Long.class), row.get("token_digest", String.class),
+                expiredAt != null ? Date.from(expiredAt.atZone(ZoneId.systemDefault()).toInstant()) : null);
+    }
+}
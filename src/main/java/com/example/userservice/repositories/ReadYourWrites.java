@@ -0,0 +1,99 @@
+package com.example.userservice.repositories;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes for replica routing: a key written on the primary (a token at login or
+ * logout, a username at sign-up) is read from the primary for a short window afterwards, so
+ * replication lag never makes a fresh token look unknown
+ * A no-op unless read replicas are configured.
+ */
+@Component
+public class ReadYourWrites {
+
+    @Value("${auth.datasource.replica.urls:}")
+    private String replicaUrls;
+
+    @Value("${auth.datasource.read-your-writes-window:5000}") // milliseconds
+    private long window;
+
+    @Value("${auth.datasource.read-your-writes-max-size:100000}")
+    private long maximumSize;
+
+    private boolean enabled;
+
+    private Cache<String, Boolean> recentWrites;
+
+    @PostConstruct
+    public void init() {
+        enabled = replicaUrls != null && !replicaUrls.isBlank();
+        if (enabled) {
+            recentWrites = Caffeine.newBuilder()
+                    .expireAfterWrite(Duration.ofMillis(window))
+                    .maximumSize(maximumSize)
+                    .build();
+        }
+    }
+
+    /**
+     * Records a write of the key on the primary; call after it has been saved
+     */
+    public void written(String key) {
+        if (enabled && key != null) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Runs the lookup for the key on the primary if the key was written within the window,
+     * otherwise wherever the transaction's read-only flag sends it
+     */
+    public <T> T read(String key, Supplier<T> lookup) {
+        return isRecent(key) ? ReplicaRoutingDataSource.onPrimary(lookup) : lookup.get();
+    }
+
+    /**
+     * Same as read, for a lookup of several keys at once
+     */
+    public <T> T readAll(Collection<String> keys, Supplier<T> lookup) {
+        if (enabled) {
+            for (String key : keys) {
+                if (isRecent(key)) {
+                    return ReplicaRoutingDataSource.onPrimary(lookup);
+                }
+            }
+        }
+        return lookup.get();
+    }
+
+    /**
+     * Reads that decide a write (e.g. uniqueness checks before sign-up) always go to the primary
+     */
+    public <T> T onPrimary(Supplier<T> lookup) {
+        return enabled ? ReplicaRoutingDataSource.onPrimary(lookup) : lookup.get();
+    }
+
+    /**
+     * Whether a replica miss for the key, created at createdAt, may only be replication lag: it
+     * was created within the window, possibly on another instance, and not read on the primary
+     * already. Callers look it up again on the primary before treating it as gone.
+     */
+    public boolean mayLag(String key, Date createdAt) {
+        // createdAt may be truncated to the second, like a token's iat
+        return enabled && createdAt != null && !isRecent(key)
+                && System.currentTimeMillis() - createdAt.getTime() < window + 1000;
+    }
+
+    private boolean isRecent(String key) {
+        return enabled && key != null && recentWrites.getIfPresent(key) != null;
+    }
+}
@@ -2,12 +2,18 @@ package com.example.userservice.repositories;
 
 import com.example.userservice.models.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByRoleName(String roleName);
     boolean existsByRoleName(String roleName);
+
+    // Every (role, permission) grant in one query, for the permission dictionary
+    @Query("SELECT r.roleName, p.permissionName FROM roles r JOIN r.permissions p WHERE r.isDeleted = false AND p.isDeleted = false")
+    List<Object[]> findAllRolePermissionNames();
 }
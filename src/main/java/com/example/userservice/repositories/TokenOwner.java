@@ -0,0 +1,9 @@
+package com.example.userservice.repositories;
+
+import java.util.Date;
+
+/**
+ * An active token with its owner's identity, read with one join instead of a lazy User load
+ */
+public record TokenOwner(Long tokenId, Date expiredAt, Long userId, String username, String email) {
+}
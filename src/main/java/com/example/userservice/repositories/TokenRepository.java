@@ -2,30 +2,86 @@ package com.example.userservice.repositories;
 
 import com.example.userservice.models.Token;
 import com.example.userservice.models.User;
+import com.example.userservice.security.TokenDigest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Finders run read-only, so with replicas configured they are served by a replica pool
+@Transactional(readOnly = true)
 public interface TokenRepository extends JpaRepository<Token, Long> {
 
+    // Every lookup by token value goes through token_digest (NOT NULL since migration V2), and compares the
+    // value in the query as well, which guards against digest collisions
+
+    @Query("SELECT t FROM Token t WHERE t.tokenDigest = :digest AND t.token = :token AND t.isDeleted = false")
+    Optional<Token> findByDigestAndIsDeletedFalse(@Param("digest") String digest, @Param("token") String token);
+
+    @Query("SELECT t FROM Token t "
+            + "WHERE t.tokenDigest = :digest AND t.token = :token AND t.isDeleted = false AND t.isExpired = false")
+    Optional<Token> findByDigestAndIsDeletedFalseAndIsExpiredFalse(@Param("digest") String digest,
+                                                                   @Param("token") String token);
+
     // Find token regardless of status (for logout)
-    Optional<Token> findByTokenAndIsDeletedFalse(String token);
+    default Optional<Token> findByTokenAndIsDeletedFalse(String token) {
+        return findByDigestAndIsDeletedFalse(TokenDigest.sha256Hex(token), token);
+    }
 
     // Find active tokens (not deleted and not expired)
-    Optional<Token> findByTokenAndIsDeletedFalseAndIsExpiredFalse(String token);
+    default Optional<Token> findByTokenAndIsDeletedFalseAndIsExpiredFalse(String token) {
+        return findByDigestAndIsDeletedFalseAndIsExpiredFalse(TokenDigest.sha256Hex(token), token);
+    }
+
+    // Read models for the hot paths: none of them loads the TEXT token value
+
+    @Query("SELECT new com.example.userservice.repositories.TokenStatus(t.id, t.tokenDigest, t.expiredAt) FROM Token t "
+            + "WHERE t.tokenDigest = :digest AND t.token = :token AND t.isDeleted = false AND t.isExpired = false")
+    Optional<TokenStatus> findActiveStatusByDigest(@Param("digest") String digest, @Param("token") String token);
+
+    @Query("SELECT new com.example.userservice.repositories.TokenStatus(t.id, t.tokenDigest, t.expiredAt) FROM Token t "
+            + "WHERE t.tokenDigest IN :digests AND t.token IN :tokens AND t.isDeleted = false AND t.isExpired = false")
+    List<TokenStatus> findActiveStatusesByDigest(@Param("digests") Collection<String> digests,
+                                                 @Param("tokens") Collection<String> tokens);
+
+    @Query("SELECT new com.example.userservice.repositories.TokenOwner(t.id, t.expiredAt, u.id, u.name, u.email) "
+            + "FROM Token t JOIN t.user u "
+            + "WHERE t.tokenDigest = :digest AND t.token = :token AND t.isDeleted = false AND t.isExpired = false")
+    Optional<TokenOwner> findActiveOwnerByDigest(@Param("digest") String digest, @Param("token") String token);
+
+    /**
+     * Status of an active token, through idx_token_digest_status
+     */
+    default Optional<TokenStatus> findActiveStatus(String token) {
+        return findActiveStatusByDigest(TokenDigest.sha256Hex(token), token);
+    }
+
+    /**
+     * Active token with its owner's id, name and email, looked up the same way
+     */
+    default Optional<TokenOwner> findActiveOwner(String token) {
+        return findActiveOwnerByDigest(TokenDigest.sha256Hex(token), token);
+    }
 
     // Find all active tokens for a user
     List<Token> findByUserAndIsDeletedFalseAndIsExpiredFalse(User user);
 
     @Modifying
     @Transactional
-    @Query("UPDATE Token t SET t.isDeleted = true WHERE t.token = :token AND t.isDeleted = false")
-    int markTokenAsDeleted(@Param("token") String token);
+    @Query("UPDATE Token t SET t.isDeleted = true "
+            + "WHERE t.tokenDigest = :digest AND t.token = :token AND t.isDeleted = false")
+    int markTokenAsDeletedByDigest(@Param("digest") String digest, @Param("token") String token);
+
+    // Read-write here too, or the interface's read-only transaction would already be open
+    @Transactional
+    default int markTokenAsDeleted(String token) {
+        return markTokenAsDeletedByDigest(TokenDigest.sha256Hex(token), token);
+    }
 
     @Modifying
     @Transactional
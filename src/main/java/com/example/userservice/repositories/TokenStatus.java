@@ -0,0 +1,10 @@
+package com.example.userservice.repositories;
+
+import java.util.Date;
+
+/**
+ * Status read model of an active token row: what validation needs, without the TEXT token
+ * value or the owning user
+ */
+public record TokenStatus(Long id, String tokenDigest, Date expiredAt) {
+}
@@ -0,0 +1,7 @@
+package com.example.userservice.repositories;
+
+/**
+ * The fields an authenticated request needs about its user; the password hash is never loaded
+ */
+public record UserPrincipal(Long id, String name, String email, boolean verified) {
+}
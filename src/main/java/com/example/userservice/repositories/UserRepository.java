@@ -3,11 +3,35 @@ package com.example.userservice.repositories;
 
 import com.example.userservice.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+
+// Finders run read-only, so with replicas configured they are served by a replica pool
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Transactional
     User save(User user);
+
     boolean existsByName(String name);
     boolean existsByEmail(String email);
 
     User findByName(String username);
+
+    // Authenticated requests only need these; the password hash stays in the database
+    @Query("SELECT new com.example.userservice.repositories.UserPrincipal(u.id, u.name, u.email, u.isVerified) "
+            + "FROM users u WHERE u.name = :name")
+    UserPrincipal findPrincipalByName(@Param("name") String name);
+
+    @Query("SELECT r.roleName FROM users u JOIN u.roles r WHERE u.id = :userId AND r.isDeleted = false")
+    List<String> findRoleNamesByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE users u SET u.isVerified = true WHERE u.id IN :ids AND u.isVerified = false")
+    int markUsersVerified(@Param("ids") Collection<Long> ids);
 }
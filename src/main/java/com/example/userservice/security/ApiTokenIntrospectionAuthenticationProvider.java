@@ -0,0 +1,47 @@
+package com.example.userservice.security;
+
+import com.example.userservice.services.TokenIntrospectionService;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2TokenIntrospectionAuthenticationToken;
+
+/**
+ * Extends /oauth2/introspect to the API tokens issued by JwtService
+ *
+ * Authorization server tokens are introspected by the wrapped provider as before. Only when
+ * it reports a token as inactive is the token checked as an API token.
+ */
+public class ApiTokenIntrospectionAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final TokenIntrospectionService tokenIntrospectionService;
+
+    public ApiTokenIntrospectionAuthenticationProvider(AuthenticationProvider delegate,
+                                                       TokenIntrospectionService tokenIntrospectionService) {
+        this.delegate = delegate;
+        this.tokenIntrospectionService = tokenIntrospectionService;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        OAuth2TokenIntrospectionAuthenticationToken result =
+                (OAuth2TokenIntrospectionAuthenticationToken) delegate.authenticate(authentication);
+        if (result == null || result.getTokenClaims().isActive()) {
+            return result;
+        }
+
+        OAuth2TokenIntrospection apiTokenClaims = tokenIntrospectionService.introspect(result.getToken());
+        if (!apiTokenClaims.isActive()) {
+            return result;
+        }
+        return new OAuth2TokenIntrospectionAuthenticationToken(
+                result.getToken(), (Authentication) result.getPrincipal(), apiTokenClaims);
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.userservice.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persisted RSA signing keys for the authorization server, shared by every instance
+ *
+ * The keystore is a JWK set file holding the current signing key, the next key and recently
+ * retired keys. Each key carries its activation (nbf) and expiry (exp) time, so every instance
+ * picks the same signing key from the clock alone: the latest key whose nbf has passed.
+ * A scheduled job publishes the next key publish-ahead before it activates, so clients
+ * refresh their JWKS cache before any token is signed with it. Keys stay published for the
+ * retention period after they stop signing, so tokens signed before a rotation still verify.
+ * Only the first start of a deployment generates a key; later starts just load the file.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
+public class JwkKeyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JwkKeyStore.class);
+
+    private static final int KEY_SIZE = 2048;
+
+    @Value("${auth.jwk.keystore-path:data/authorization-server-jwks.json}")
+    private String keystorePath;
+
+    @Value("${auth.jwk.rotation-interval:2592000000}") // 30 days in milliseconds
+    private long rotationInterval;
+
+    @Value("${auth.jwk.publish-ahead:86400000}") // 1 day in milliseconds
+    private long publishAhead;
+
+    @Value("${auth.jwk.retention:86400000}") // 1 day in milliseconds
+    private long retention;
+
+    private Clock clock = Clock.systemUTC();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Immutable view of the keystore; the version changes whenever the key set does
+     */
+    public record Snapshot(long version, FileTime modified, JWKSet published, List<RSAKey> byActivation) {
+
+        /**
+         * Latest key whose activation time has passed; the earliest key if none has yet
+         */
+        public RSAKey signingKey(Instant now) {
+            return JwkKeyStore.signingKey(byActivation, now);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            Path path = Path.of(keystorePath);
+            if (Files.exists(path)) {
+                install(read(path), Files.getLastModifiedTime(path));
+            }
+            if (snapshot == null || snapshot.byActivation().isEmpty()) {
+                log.warn("No signing keys in {}, creating the keystore", path.toAbsolutePath());
+            }
+            rotateIfDue();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load the JWK keystore " + keystorePath, e);
+        }
+    }
+
+    /**
+     * Every key currently published on /oauth2/jwks and accepted for verification
+     */
+    public JWKSource<SecurityContext> jwkSource() {
+        return (selector, context) -> selector.select(snapshot.published());
+    }
+
+    /**
+     * Only the current signing key, for the JwtEncoder; answered from the in-memory snapshot
+     */
+    public JWKSource<SecurityContext> signingKeySource() {
+        return (selector, context) -> selector.select(new JWKSet(snapshot.signingKey(clock.instant())));
+    }
+
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Picks up keys written by other instances, publishes the next key when the current one is
+     * within publish-ahead of its rotation, and drops keys past their expiry
+     */
+    @Scheduled(fixedDelayString = "${auth.jwk.check-interval:3600000}",
+               initialDelayString = "${auth.jwk.check-interval:3600000}")
+    public void refresh() {
+        try {
+            Path path = Path.of(keystorePath);
+            if (Files.exists(path) && !Files.getLastModifiedTime(path).equals(snapshot.modified())) {
+                install(read(path), Files.getLastModifiedTime(path));
+            }
+            rotateIfDue();
+        } catch (Exception e) {
+            log.warn("JWK keystore refresh failed, keeping version {}", snapshot != null ? snapshot.version() : 0, e);
+        }
+    }
+
+    private void rotateIfDue() throws IOException {
+        if (snapshot != null && !changesDue(snapshot.byActivation(), clock.instant())) {
+            return;
+        }
+
+        // Only one instance writes; the others see the new file on their next refresh
+        Path path = Path.of(keystorePath).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        Path lockPath = path.resolveSibling(path.getFileName() + ".lock");
+        try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = lockChannel.lock()) {
+
+            List<RSAKey> keys = Files.exists(path) ? read(path) : new ArrayList<>();
+            Instant now = clock.instant();
+            if (changesDue(keys, now)) {
+                write(path, rotate(keys, now));
+                // Re-read: the file keeps times in whole seconds, as every other instance sees them
+                keys = read(path);
+            }
+            install(keys, Files.getLastModifiedTime(path));
+        }
+    }
+
+    private boolean changesDue(List<RSAKey> keys, Instant now) {
+        return keys.isEmpty() || nextActivationDue(keys, now) != null
+                || keys.stream().anyMatch(key -> isExpired(key, now));
+    }
+
+    /**
+     * Activation time for the next key once the latest one is within publish-ahead of its
+     * rotation, or null while the latest key is still pending or has time left
+     */
+    private Instant nextActivationDue(List<RSAKey> keys, Instant now) {
+        Instant latestActivation = activation(keys.get(keys.size() - 1));
+        if (latestActivation.isAfter(now)) {
+            return null; // the next key is already published
+        }
+        Instant due = latestActivation.plusMillis(rotationInterval);
+        if (due.minusMillis(publishAhead).isAfter(now)) {
+            return null;
+        }
+        // Late (e.g. every instance was down): activate no earlier than now
+        return due.isAfter(now) ? due : now;
+    }
+
+    private List<RSAKey> rotate(List<RSAKey> keys, Instant now) {
+        if (keys.isEmpty()) {
+            return List.of(generate(now));
+        }
+
+        List<RSAKey> rotated = new ArrayList<>(keys);
+        RSAKey signing = signingKey(keys, now);
+        Instant activation = nextActivationDue(keys, now);
+        if (activation != null) {
+            rotated.add(generate(activation));
+            log.info("Published JWK signing key activating at {}", activation);
+        }
+
+        // Drop expired keys, but never the one still signing
+        rotated.removeIf(key -> key != signing && isExpired(key, now));
+        return rotated;
+    }
+
+    private static boolean isExpired(RSAKey key, Instant now) {
+        return key.getExpirationTime() != null && key.getExpirationTime().toInstant().isBefore(now);
+    }
+
+    private RSAKey generate(Instant activation) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(KEY_SIZE);
+            KeyPair keyPair = generator.generateKeyPair();
+            return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                    .privateKey((RSAPrivateKey) keyPair.getPrivate())
+                    .keyID(UUID.randomUUID().toString())
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.RS256)
+                    .issueTime(Date.from(clock.instant()))
+                    .notBeforeTime(Date.from(activation))
+                    .expirationTime(Date.from(activation.plusMillis(rotationInterval).plusMillis(retention)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot generate an RSA signing key", e);
+        }
+    }
+
+    private void install(List<RSAKey> keys, FileTime modified) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Snapshot previous = snapshot;
+        if (previous != null && previous.byActivation().equals(keys)) {
+            snapshot = new Snapshot(previous.version(), modified, previous.published(), previous.byActivation());
+            return;
+        }
+        long version = previous == null ? 1 : previous.version() + 1;
+        snapshot = new Snapshot(version, modified, new JWKSet(new ArrayList<JWK>(keys)), List.copyOf(keys));
+        log.info("JWK keystore version {}: {} keys, signing with {}", version, keys.size(),
+                snapshot.signingKey(clock.instant()).getKeyID());
+    }
+
+    private static List<RSAKey> read(Path path) throws IOException {
+        try {
+            List<RSAKey> keys = new ArrayList<>();
+            for (JWK key : JWKSet.parse(Files.readString(path, StandardCharsets.UTF_8)).getKeys()) {
+                if (key instanceof RSAKey rsaKey && rsaKey.isPrivate()) {
+                    keys.add(rsaKey);
+                }
+            }
+            keys.sort(Comparator.comparing(JwkKeyStore::activation));
+            return keys;
+        } catch (ParseException e) {
+            throw new IOException("Malformed JWK keystore " + path, e);
+        }
+    }
+
+    /**
+     * Writes the private key set to a temporary file readable only by the owner and moves it
+     * into place, so readers never see a partial file
+     */
+    private static void write(Path path, List<RSAKey> keys) throws IOException {
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system; rely on the directory's permissions
+            }
+            Files.writeString(temp, new JWKSet(new ArrayList<JWK>(keys)).toString(false), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static RSAKey signingKey(List<RSAKey> byActivation, Instant now) {
+        for (int i = byActivation.size() - 1; i >= 0; i--) {
+            if (!activation(byActivation.get(i)).isAfter(now)) {
+                return byActivation.get(i);
+            }
+        }
+        return byActivation.get(0);
+    }
+
+    private static Instant activation(RSAKey key) {
+        return key.getNotBeforeTime() != null ? key.getNotBeforeTime().toInstant() : Instant.EPOCH;
+    }
+}
@@ -1,13 +1,23 @@
 package com.example.userservice.security;
 
+import com.example.userservice.exceptions.BulkheadFullException;
+import com.example.userservice.repositories.ConnectionBulkheads;
+import com.example.userservice.repositories.ConnectionBulkheads.Workload;
+import com.example.userservice.repositories.ReadYourWrites;
 import com.example.userservice.repositories.TokenRepository;
-import com.example.userservice.services.JwtService;
+import com.example.userservice.services.AuthorizationService;
+import com.example.userservice.services.TokenVerificationCache;
 import com.example.userservice.services.UserService;
+import com.example.userservice.services.ValidationOutcome;
+import com.example.userservice.services.ValidationResult;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,16 +28,34 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Simplified JWT Authentication Filter without role-based authorization
+ * JWT Authentication Filter
+ * Authorities come from the role and permission claims compiled into the token at login.
+ * Bad tokens are rejected from the verification outcome, with a constant error body per outcome.
+ * Recently rejected tokens are answered from the negative cache before any parsing or DB work.
+ * Database lookups go through the validation bulkhead; when it is full the request gets a 503,
+ * or with auth.bulkhead.validation.degraded-mode=verified is authenticated from the claims alone.
  */
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Map<ValidationOutcome, String> ERROR_BODIES = new EnumMap<>(ValidationOutcome.class);
+
+    static {
+        for (ValidationOutcome outcome : ValidationOutcome.values()) {
+            ERROR_BODIES.put(outcome, "{\"error\": \"" + outcome.getMessage() + "\"}");
+        }
+    }
+
     @Autowired
-    private JwtService jwtService;
+    private TokenVerificationCache tokenVerificationCache;
 
     @Autowired
     @Lazy
@@ -36,6 +64,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private TokenRepository tokenRepository;
 
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private ConnectionBulkheads connectionBulkheads;
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -62,62 +99,90 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extract JWT token
         jwt = authHeader.substring(7);
 
-        try {
-            // Extract username from JWT
-            username = jwtService.extractUsername(jwt);
+        // Verify signature and claims (or answer from the verification caches); bad tokens don't throw
+        ValidationResult result = tokenVerificationCache.verify(jwt);
+        if (!result.isValid()) {
+            writeUnauthorized(response, ERROR_BODIES.get(result.outcome()));
+            return;
+        }
+
+        Claims claims = result.claims();
+        username = claims.getSubject();
 
-            // If username is present and no authentication is set in security context
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        // If username is present and no authentication is set in security context
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
+            UserDetails userDetails;
+            try {
                 // Verify token exists in database and is not deleted/expired
-                boolean tokenExistsInDb = tokenRepository
-                    .findByTokenAndIsDeletedFalseAndIsExpiredFalse(jwt)
-                    .isPresent();
+                boolean tokenExistsInDb = connectionBulkheads.call(Workload.VALIDATION, () -> readYourWrites
+                    .read(jwt, () -> tokenRepository.findActiveStatus(jwt))
+                    .isPresent());
+                if (!tokenExistsInDb && readYourWrites.mayLag(jwt, claims.getIssuedAt())) {
+                    // Possibly issued on another instance moments ago and not on this replica yet
+                    tokenExistsInDb = connectionBulkheads.call(Workload.VALIDATION, () -> readYourWrites
+                        .onPrimary(() -> tokenRepository.findActiveStatus(jwt))
+                        .isPresent());
+                }
 
                 if (!tokenExistsInDb) {
-                    // Token doesn't exist in DB or is deleted/expired
-                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    response.getWriter().write("{\"error\": \"Token is invalid or expired\"}");
-                    response.setContentType("application/json");
+                    // Token doesn't exist in DB or is deleted/expired; retries skip the lookup
+                    tokenVerificationCache.reject(jwt, ValidationOutcome.NOT_ACTIVE);
+                    writeUnauthorized(response, ERROR_BODIES.get(ValidationOutcome.NOT_ACTIVE));
                     return;
                 }
 
-                // Load user details without role complexity
-                UserDetails userDetails = loadUserDetails(username);
+                userDetails = loadUserDetails(username, claims);
+            } catch (BulkheadFullException e) {
+                if (!connectionBulkheads.acceptVerifiedWhenDegraded()) {
+                    writeUnavailable(response);
+                    return;
+                }
+                // Degraded mode: the verified claims stand in for the status and user lookups
+                userDetails = userDetails(username, claims);
+            }
+            if (userDetails == null) {
+                writeUnauthorized(response, "{\"error\": \"User not found\"}");
+                return;
+            }
 
-                // Validate JWT token
-                if (jwtService.validateToken(jwt, username)) {
-                    // Create authentication token
-                    UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                        );
+            // Create authentication token
+            UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities()
+                );
 
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // Set authentication in security context
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
-            }
-        } catch (Exception e) {
-            // Token is invalid
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.getWriter().write("{\"error\": \"Invalid token: " + e.getMessage() + "\"}");
-            response.setContentType("application/json");
-            return;
+            // Set authentication in security context
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private void writeUnauthorized(HttpServletResponse response, String body) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json");
+        response.getWriter().write(body);
+    }
+
+    private void writeUnavailable(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\": \"Token status is temporarily unavailable\"}");
+    }
+
     /**
      * Define public endpoints that don't require authentication
      */
     private boolean isPublicEndpoint(String requestPath) {
         return requestPath.equals("/api/v1/users/signup") ||
                requestPath.equals("/api/v1/users/login") ||
+               requestPath.equals("/api/v1/users/verify-email") ||
                requestPath.equals("/error") ||
                requestPath.startsWith("/actuator/") ||
                requestPath.startsWith("/api/v1/demo/") ||
@@ -125,20 +190,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Simplified user details loading without role complexity
+     * User details with authorities taken from the token's claims, without role/permission joins
+     * Returns null if the user no longer exists. Only the principal fields are read, not the
+     * password hash: the verified token is the credential.
      */
-    private UserDetails loadUserDetails(String username) {
-        var user = userService.getUserByUsername(username);
+    private UserDetails loadUserDetails(String username, Claims claims) {
+        var user = connectionBulkheads.call(Workload.VALIDATION, () -> userService.getUserPrincipal(username));
         if (user == null) {
-            throw new RuntimeException("User not found");
+            return null;
         }
+        return userDetails(user.name(), claims);
+    }
 
-        // Simple authority - just give basic USER authority to all authenticated users
-        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    private UserDetails userDetails(String username, Claims claims) {
+        // Every authenticated user keeps the basic USER authority
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        for (String role : authorizationService.roles(claims)) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+        }
+        for (String permission : authorizationService.permissionNames(claims)) {
+            authorities.add(new SimpleGrantedAuthority(permission));
+        }
 
         return org.springframework.security.core.userdetails.User.builder()
-            .username(user.getName())
-            .password(user.getPassword())
+            .username(username)
+            .password("")
             .authorities(authorities)
             .build();
     }
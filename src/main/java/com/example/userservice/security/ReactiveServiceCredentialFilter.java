@@ -0,0 +1,40 @@
+package com.example.userservice.security;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * ServiceCredentialFilter for the reactive validation mode
+ * The only filter in the internal web filter chain; the credential check itself is shared.
+ */
+public class ReactiveServiceCredentialFilter implements WebFilter {
+
+    private final ServiceCredentialFilter credential;
+
+    public ReactiveServiceCredentialFilter(String serviceToken) {
+        this.credential = new ServiceCredentialFilter(serviceToken);
+    }
+
+    public boolean isEnabled() {
+        return credential.isEnabled();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (ServiceCredentialFilter.HEALTH_PATH.equals(exchange.getRequest().getPath().value())
+                || credential.accepts(exchange.getRequest().getHeaders().getFirst(ServiceCredentialFilter.HEADER))) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(ServiceCredentialFilter.UNAUTHORIZED_BODY);
+        return response.writeWith(Mono.just(body));
+    }
+}
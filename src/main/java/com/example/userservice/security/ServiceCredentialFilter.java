@@ -0,0 +1,74 @@
+package com.example.userservice.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Service credential check for internal validation traffic
+ * The only filter in the internal chain: no security context, authentication details or
+ * session handling. The expected credential is hashed once at startup and each presented
+ * credential is hashed and compared in constant time, so neither its content nor its length
+ * leaks through timing. A blank credential disables the check.
+ */
+public class ServiceCredentialFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Service-Token";
+
+    static final String HEALTH_PATH = "/api/v1/auth/health";
+    static final byte[] UNAUTHORIZED_BODY =
+            "{\"error\": \"Service credential required\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] expectedDigest;
+
+    public ServiceCredentialFilter(String serviceToken) {
+        this.expectedDigest = serviceToken == null || serviceToken.isBlank() ? null : sha256(serviceToken);
+    }
+
+    public boolean isEnabled() {
+        return expectedDigest != null;
+    }
+
+    /**
+     * True if the check is disabled or the presented credential matches
+     */
+    public boolean accepts(String presented) {
+        return expectedDigest == null
+                || (presented != null && MessageDigest.isEqual(expectedDigest, sha256(presented)));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return expectedDigest == null || HEALTH_PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        if (!accepts(request.getHeader(HEADER))) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType("application/json");
+            response.getOutputStream().write(UNAUTHORIZED_BODY);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
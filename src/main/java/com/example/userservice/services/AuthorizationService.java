@@ -0,0 +1,137 @@
+package com.example.userservice.services;
+
+import com.example.userservice.models.User;
+import com.example.userservice.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Role and permission checks answered from token claims
+ *
+ * At login the user's roles are resolved once and their effective permissions are compiled
+ * into a bitset against the current PermissionDictionary. A check is then a single bit test.
+ * Tokens compiled against an older dictionary version are re-evaluated from their roles.
+ * Permissions outside the dictionary, or granted through wildcards, go to the compiled
+ * PermissionMatcher, whose (role-set, permission) decisions are cached per dictionary version.
+ */
+@Service
+public class AuthorizationService {
+
+    public static final String ROLES_CLAIM = "roles";
+    public static final String PERMISSIONS_CLAIM = "perms";
+    public static final String DICTIONARY_VERSION_CLAIM = "pdv";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PermissionDictionary permissionDictionary;
+
+    @Value("${auth.permissions.decision-cache.max-size:100000}")
+    private long decisionCacheSize;
+
+    private Cache<DecisionKey, Boolean> matcherDecisions;
+
+    public record Decision(boolean authorized, boolean hasRole) {
+    }
+
+    // The version keeps decisions from an older dictionary from being served after a change
+    private record DecisionKey(String version, List<String> roles, String permission) {
+    }
+
+    @PostConstruct
+    public void init() {
+        matcherDecisions = Caffeine.newBuilder()
+                .maximumSize(decisionCacheSize)
+                .build();
+    }
+
+    /**
+     * Authorization claims embedded in the user's token at login
+     */
+    public Map<String, Object> compileClaims(User user) {
+        List<String> roles = user.getId() != null
+                ? new ArrayList<>(userRepository.findRoleNamesByUserId(user.getId()))
+                : new ArrayList<>();
+        Collections.sort(roles);
+
+        PermissionDictionary.Snapshot dictionary = permissionDictionary.current();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, roles);
+        claims.put(PERMISSIONS_CLAIM, PermissionDictionary.Snapshot.encode(dictionary.permissionsFor(roles)));
+        claims.put(DICTIONARY_VERSION_CLAIM, dictionary.version());
+        return claims;
+    }
+
+    /**
+     * A null role or permission is not checked; with neither, any valid token is authorized
+     */
+    public Decision authorize(Claims claims, String requiredRole, String requiredPermission) {
+        boolean hasRole = requiredRole == null || requiredRole.isBlank() || hasRole(claims, requiredRole);
+        boolean hasPermission = requiredPermission == null || requiredPermission.isBlank()
+                || hasPermission(claims, requiredPermission);
+        return new Decision(hasRole && hasPermission, hasRole && requiredRole != null && !requiredRole.isBlank());
+    }
+
+    public boolean hasRole(Claims claims, String role) {
+        for (String granted : roles(claims)) {
+            if (granted.equalsIgnoreCase(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasPermission(Claims claims, String permission) {
+        PermissionDictionary.Snapshot dictionary = permissionDictionary.current();
+        Integer bit = dictionary.index().get(permission);
+        if (bit != null) {
+            Object encoded = claims.get(PERMISSIONS_CLAIM);
+            boolean granted = encoded instanceof String && dictionary.version().equals(claims.get(DICTIONARY_VERSION_CLAIM))
+                    ? PermissionDictionary.Snapshot.testBit((String) encoded, bit)
+                    // Compiled against another dictionary version: re-evaluate from the token's roles
+                    : dictionary.permissionsFor(roles(claims)).get(bit);
+            if (granted) {
+                return true;
+            }
+        }
+
+        // Wildcard requests, or permissions only covered by wildcard grants
+        List<String> roles = roles(claims);
+        if (roles.isEmpty()) {
+            return false;
+        }
+        return matcherDecisions.get(new DecisionKey(dictionary.version(), roles, permission),
+                key -> dictionary.matcher().matches(key.roles(), key.permission()));
+    }
+
+    /**
+     * Effective permission names of the token, for responses and security authorities
+     */
+    public List<String> permissionNames(Claims claims) {
+        PermissionDictionary.Snapshot dictionary = permissionDictionary.current();
+        Object encoded = claims.get(PERMISSIONS_CLAIM);
+        BitSet bits = encoded instanceof String && dictionary.version().equals(claims.get(DICTIONARY_VERSION_CLAIM))
+                ? PermissionDictionary.Snapshot.decode((String) encoded)
+                : dictionary.permissionsFor(roles(claims));
+        return dictionary.namesOf(bits);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> roles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        return roles instanceof List ? (List<String>) roles : List.of();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.userservice.services;
+
+import com.example.userservice.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coalesces verified users and applies them to the users table in batches
+ * Clicks are queued on a Kafka topic, so they survive restarts and are applied once across
+ * instances; the broker holds each fetch for up to the flush interval to gather a batch.
+ * Repeated clicks for the same user collapse into a single id per batch.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
+public class EmailVerificationBatchUpdater {
+
+    public static final String VERIFIED_TOPIC = "email-verified-topic";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${verification.batch.max-size:500}")
+    private int maxBatchSize;
+
+    /**
+     * Applies one fetched batch of verified user ids
+     * Each chunk commits on its own; if one fails the listener throws, offsets are not committed
+     * and the batch is redelivered. Re-applying a chunk is harmless.
+     */
+    @KafkaListener(topics = VERIFIED_TOPIC, groupId = "email-verifications", batch = "true",
+            properties = {
+                    "fetch.min.bytes=65536",
+                    "fetch.max.wait.ms=${verification.batch.flush-interval:2000}",
+                    "max.poll.records=${verification.batch.max-size:500}"
+            })
+    public void flush(List<String> userIds) {
+        Set<Long> pending = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            try {
+                pending.add(Long.valueOf(userId));
+            } catch (NumberFormatException e) {
+                // Not ours; skipping it keeps the rest of the batch moving
+            }
+        }
+
+        List<Long> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+        for (Long userId : pending) {
+            batch.add(userId);
+            if (batch.size() == maxBatchSize) {
+                userRepository.markUsersVerified(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            userRepository.markUsersVerified(batch);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.userservice.services;
+
+import com.example.userservice.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Stateless email verification using HMAC-signed, expiring links
+ * The link carries everything needed to verify it, so no verification table lookup is required
+ */
+@Service
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
+public class EmailVerificationService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    // Domain separation so a verification signature can never be replayed as anything else
+    private static final String SIGNATURE_PREFIX = "email-verification:";
+
+    @Value("${verification.secret:${jwt.secret:a-string-secret-at-least-256-bits-long}}")
+    private String verificationSecret;
+
+    @Value("${verification.link-expiration:172800000}") // 48 hours in milliseconds
+    private Long linkExpiration;
+
+    @Value("${verification.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Value("${verification.recent.ttl:60000}") // milliseconds
+    private long recentTtl;
+
+    @Value("${verification.recent.max-size:100000}")
+    private long recentMaxSize;
+
+    // Users verified on this instance lately: repeated clicks aren't queued again, and logins
+    // don't wait for the batch flush or a lagging replica
+    private Cache<Long, Boolean> recentlyVerified;
+
+    @PostConstruct
+    public void init() {
+        recentlyVerified = Caffeine.newBuilder()
+                .maximumSize(recentMaxSize)
+                .expireAfterWrite(Duration.ofMillis(recentTtl))
+                .build();
+    }
+
+    /**
+     * Builds the verification link sent in the welcome email
+     */
+    public String generateVerificationLink(User user) {
+        long expiresAt = System.currentTimeMillis() + linkExpiration;
+        return baseUrl + "/api/v1/users/verify-email"
+                + "?uid=" + user.getId()
+                + "&expires=" + expiresAt
+                + "&signature=" + sign(user.getId(), expiresAt);
+    }
+
+    /**
+     * Checks a link's signature and expiry; the caller records the verification
+     */
+    public boolean verifyEmail(Long userId, long expiresAt, String signature) {
+        if (userId == null || signature == null || signature.isEmpty()) {
+            return false;
+        }
+        if (expiresAt < System.currentTimeMillis()) {
+            return false;
+        }
+
+        byte[] expected = sign(userId, expiresAt).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = signature.getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * Records a verification that has been queued for, or committed to, the users table
+     */
+    public void verified(Long userId) {
+        recentlyVerified.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * True when the user's verification was committed by this instance within verification.recent.ttl
+     */
+    public boolean isRecentlyVerified(Long userId) {
+        return userId != null && recentlyVerified.getIfPresent(userId) != null;
+    }
+
+    private String sign(Long userId, long expiresAt) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(verificationSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            byte[] signature = mac.doFinal((SIGNATURE_PREFIX + userId + ":" + expiresAt).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign verification link", e);
+        }
+    }
+}
@@ -1,24 +1,39 @@
 package com.example.userservice.services;
 
 import com.example.userservice.models.User;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    // Far above any token we issue; longer input is rejected before decoding
+    private static final int MAX_TOKEN_LENGTH = 8192;
+
+    private static final ObjectMapper PAYLOAD_READER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
     @Value("${jwt.secret:a-string-secret-at-least-256-bits-long}")
     private String secretKey;
 
@@ -31,6 +46,26 @@ public class JwtService {
     @Value("${jwt.audience:user-service-clients}")
     private String audience;
 
+    @Value("${jwt.clock-skew-seconds:0}")
+    private long clockSkewSeconds;
+
+    // Header and MAC algorithm of the tokens we sign, resolved on first verification
+    private volatile SigningProfile signingProfile;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+        SigningProfile profile = signingProfile();
+        try {
+            Mac mac = Mac.getInstance(profile.key().getAlgorithm());
+            mac.init(profile.key());
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC is not available for the signing key", e);
+        }
+    });
+
+    private record SigningProfile(SecretKey key, String header) {
+    }
+
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(secretKey.getBytes());
     }
@@ -44,8 +79,23 @@ public class JwtService {
      * Signature: HMAC SHA256 signature using the configured secret key.
      */
     public String generateToken(User user) {
+        return generateToken(user, user.isVerified());
+    }
 
-        Map<String, Object> claims = new HashMap<>();
+    /**
+     * Generates a token with an explicit verification status, used when a verification
+     * has been accepted but not yet flushed to the users table.
+     */
+    public String generateToken(User user, boolean isVerified) {
+        return generateToken(user, isVerified, Map.of());
+    }
+
+    /**
+     * Generates a token with additional custom claims, e.g. the compiled authorization claims.
+     */
+    public String generateToken(User user, boolean isVerified, Map<String, Object> additionalClaims) {
+
+        Map<String, Object> claims = new HashMap<>(additionalClaims);
         Date now = new Date();
         Date expirationTime = new Date(now.getTime() + jwtExpiration);
 
@@ -53,7 +103,7 @@ public class JwtService {
         claims.put("userId", user.getId());
         claims.put("email", user.getEmail());
         claims.put("username", user.getName());
-        claims.put("isVerified", user.isVerified());
+        claims.put("isVerified", isVerified);
 
 
         return Jwts.builder()
@@ -122,39 +172,133 @@ public class JwtService {
                 .getPayload();
     }
 
+    /**
+     * Verifies signature, expiration, issuer and audience without throwing for bad tokens.
+     * Unlike validateToken, the subject is not pinned, and the verified claims are returned
+     * so callers don't have to parse the token again for every claim they need.
+     *
+     * Input that isn't shaped like one of our tokens is rejected by structural checks before
+     * any crypto, and claims are only decoded once the HMAC matches.
+     */
+    public ValidationResult verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return ValidationResult.failed(ValidationOutcome.MISSING);
+        }
+
+        if (!isWellFormed(token)) {
+            return ValidationResult.failed(ValidationOutcome.MALFORMED);
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = token.indexOf('.', firstDot + 1);
+
+        // Anything not signed the way we sign can't carry a valid signature
+        SigningProfile profile = signingProfile();
+        if (firstDot != profile.header().length() || !token.startsWith(profile.header())) {
+            return ValidationResult.failed(ValidationOutcome.BAD_SIGNATURE);
+        }
+
+        Mac mac = macs.get();
+        byte[] expected = Base64.getUrlEncoder().withoutPadding()
+                .encode(mac.doFinal(token.substring(0, secondDot).getBytes(StandardCharsets.US_ASCII)));
+        byte[] actual = token.substring(secondDot + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return ValidationResult.failed(ValidationOutcome.BAD_SIGNATURE);
+        }
+
+        Claims claims;
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(firstDot + 1, secondDot));
+            claims = Jwts.claims().add(PAYLOAD_READER.readValue(payload, PAYLOAD_TYPE)).build();
+        } catch (IOException | RuntimeException e) {
+            // Only reachable for a payload we signed ourselves, so this is genuinely unexpected
+            return ValidationResult.failed(ValidationOutcome.MALFORMED);
+        }
+
+        long now = System.currentTimeMillis();
+        long skew = clockSkewSeconds * 1000;
+        Date expiration = claims.getExpiration();
+        if (expiration != null && now - skew > expiration.getTime()) {
+            return ValidationResult.failed(ValidationOutcome.EXPIRED);
+        }
+        Date notBefore = claims.getNotBefore();
+        Set<String> audiences = claims.getAudience();
+        if ((notBefore != null && now + skew < notBefore.getTime())
+                || !issuer.equals(claims.getIssuer())
+                || audiences == null || !audiences.contains(audience)) {
+            return ValidationResult.failed(ValidationOutcome.INVALID_CLAIMS);
+        }
+        return ValidationResult.valid(claims);
+    }
+
+    /**
+     * Extracts verified claims even when the token has already expired,
+     * e.g. to publish the jti and expiry of a token that is being revoked.
+     */
+    public Claims extractClaimsAllowExpired(String token) {
+        try {
+            return extractAllClaims(token);
+        } catch (ExpiredJwtException e) {
+            return e.getClaims();
+        }
+    }
+
+    /**
+     * Cheap structural check: header.payload.signature, base64url segments, within a sane length.
+     * No decoding or crypto, so it can gate any work done on behalf of a token.
+     */
+    public boolean isWellFormed(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        return secondDot >= 0 && token.indexOf('.', secondDot + 1) < 0
+                && isBase64Url(token, 0, firstDot)
+                && isBase64Url(token, firstDot + 1, secondDot)
+                && isBase64Url(token, secondDot + 1, token.length());
+    }
+
+    private SigningProfile signingProfile() {
+        SigningProfile profile = signingProfile;
+        if (profile == null) {
+            SecretKey key = getSigningKey();
+            // jjwt picks the HMAC variant from the key length; sign once to learn the header it writes
+            String sample = Jwts.builder().subject("profile").signWith(key).compact();
+            profile = new SigningProfile(key, sample.substring(0, sample.indexOf('.')));
+            signingProfile = profile;
+        }
+        return profile;
+    }
+
+    private static boolean isBase64Url(String value, int from, int to) {
+        // An unpadded base64url segment is never empty and never one character past a full quantum
+        if (to <= from || (to - from) % 4 == 1) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
     /**
-     * BUG FIX: Rewritten for efficiency and security.
      * Validates the token's signature, expiration, issuer, audience, and subject in a single pass.
-     * This is the recommended approach as it's more robust and performant.
+     * Bad tokens are reported through verify's outcome rather than exceptions.
      *
      * @param token The JWT token string.
      * @param username The username we expect to be the token's subject.
      * @return true if the token is valid for the given user, false otherwise.
      */
     public Boolean validateToken(String token, String username) {
-        try {
-            JwtParser parser = Jwts.parser()
-                    .verifyWith(getSigningKey())        // 1. Verifies signature
-                    .requireIssuer(issuer)              // 2. Verifies 'iss' claim
-                    .requireAudience(audience)          // 3. Verifies 'aud' claim
-                    .requireSubject(username)           // 4. Verifies 'sub' claim
-                    .build();
-
-            // The parser automatically checks the 'exp' (expiration) claim.
-            // If any of the checks fail, a JwtException is thrown.
-            parser.parseSignedClaims(token);
-
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            // Catches all JWT-related exceptions: expired, malformed, incorrect signature, etc.
-            // It's good practice to log this for debugging purposes.
-            // log.warn("JWT validation failed: {}", e.getMessage());
-            return false;
-        }
+        ValidationResult result = verify(token);
+        return result.isValid() && username != null && username.equals(result.claims().getSubject());
     }
 
     /**
@@ -0,0 +1,187 @@
+package com.example.userservice.services;
+
+import com.example.userservice.models.Permission;
+import com.example.userservice.repositories.PermissionRepository;
+import com.example.userservice.repositories.RoleRepository;
+import com.example.userservice.security.TokenDigest;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Versioned dictionary that maps every permission to a bit position
+ *
+ * Permissions are numbered in name order, and each role's grants are precompiled into a
+ * bitset and a wildcard matcher. The version is a digest of the permissions and grants, so
+ * any change to either produces a new version and tokens carrying an older one are re-evaluated.
+ */
+@Component
+public class PermissionDictionary {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionDictionary.class);
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * Reloads permissions and role grants; the snapshot is only replaced when the version changes
+     */
+    @Scheduled(fixedDelayString = "${auth.permissions.refresh-interval:60000}",
+               initialDelayString = "${auth.permissions.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            List<String> permissions = new ArrayList<>();
+            for (Permission permission : permissionRepository.findByIsDeletedFalseOrderByPermissionNameAsc()) {
+                permissions.add(permission.getPermissionName());
+            }
+            Map<String, Collection<String>> grants = new TreeMap<>();
+            for (Object[] grant : roleRepository.findAllRolePermissionNames()) {
+                grants.computeIfAbsent((String) grant[0], role -> new TreeSet<>()).add((String) grant[1]);
+            }
+
+            Snapshot loaded = Snapshot.build(permissions, grants);
+            if (!loaded.version().equals(snapshot.version())) {
+                snapshot = loaded;
+                log.info("Permission dictionary version {} ({} permissions, {} roles)",
+                        loaded.version(), permissions.size(), grants.size());
+            }
+        } catch (Exception e) {
+            log.warn("Permission dictionary refresh failed, keeping version {}", snapshot.version(), e);
+        }
+    }
+
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Immutable view of the dictionary; bitsets are encoded as unpadded base64url of BitSet.toByteArray()
+     */
+    public record Snapshot(String version,
+                           List<String> permissions,
+                           Map<String, Integer> index,
+                           Map<String, BitSet> rolePermissions,
+                           PermissionMatcher matcher) {
+
+        static final Snapshot EMPTY = build(List.of(), Map.of());
+
+        static Snapshot build(List<String> permissions, Map<String, Collection<String>> grants) {
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < permissions.size(); i++) {
+                index.put(permissions.get(i), i);
+            }
+
+            Map<String, BitSet> rolePermissions = new HashMap<>();
+            StringBuilder digest = new StringBuilder(String.join("\n", permissions)).append('\u0000');
+            for (Map.Entry<String, Collection<String>> grant : grants.entrySet()) {
+                BitSet bits = new BitSet(permissions.size());
+                for (String permission : grant.getValue()) {
+                    Integer bit = index.get(permission);
+                    if (bit != null) {
+                        bits.set(bit);
+                    }
+                }
+                rolePermissions.put(grant.getKey(), bits);
+                digest.append(grant.getKey()).append('=').append(String.join(",", grant.getValue())).append('\n');
+            }
+
+            String version = TokenDigest.sha256Hex(digest.toString()).substring(0, 16);
+            return new Snapshot(version, List.copyOf(permissions), Map.copyOf(index), Map.copyOf(rolePermissions),
+                    PermissionMatcher.compile(grants));
+        }
+
+        /**
+         * Union of the permissions granted to the given roles
+         */
+        public BitSet permissionsFor(Collection<String> roles) {
+            BitSet bits = new BitSet(permissions.size());
+            if (roles != null) {
+                for (String role : roles) {
+                    BitSet granted = rolePermissions.get(role);
+                    if (granted != null) {
+                        bits.or(granted);
+                    }
+                }
+            }
+            return bits;
+        }
+
+        public List<String> namesOf(BitSet bits) {
+            List<String> names = new ArrayList<>(bits.cardinality());
+            for (int bit = bits.nextSetBit(0); bit >= 0 && bit < permissions.size(); bit = bits.nextSetBit(bit + 1)) {
+                names.add(permissions.get(bit));
+            }
+            return names;
+        }
+
+        public static String encode(BitSet bits) {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+        }
+
+        public static BitSet decode(String encoded) {
+            return BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+        }
+
+        /**
+         * Tests one bit of an encoded bitset by decoding only the base64 quantum that holds it
+         */
+        public static boolean testBit(String encoded, int bit) {
+            int byteIndex = bit >>> 3;
+            int start = (byteIndex / 3) * 4;
+            if (start >= encoded.length()) {
+                return false;
+            }
+
+            int v0 = sextet(encoded, start);
+            int v1 = sextet(encoded, start + 1);
+            int v2 = sextet(encoded, start + 2);
+            int v3 = sextet(encoded, start + 3);
+            int value = switch (byteIndex % 3) {
+                case 0 -> (v0 << 2) | (v1 >>> 4);
+                case 1 -> start + 2 < encoded.length() ? ((v1 & 0x0F) << 4) | (v2 >>> 2) : 0;
+                default -> start + 3 < encoded.length() ? ((v2 & 0x03) << 6) | v3 : 0;
+            };
+            return (value & (1 << (bit & 7))) != 0;
+        }
+
+        private static int sextet(String encoded, int position) {
+            if (position >= encoded.length()) {
+                return 0;
+            }
+            char c = encoded.charAt(position);
+            if (c >= 'A' && c <= 'Z') {
+                return c - 'A';
+            }
+            if (c >= 'a' && c <= 'z') {
+                return c - 'a' + 26;
+            }
+            if (c >= '0' && c <= '9') {
+                return c - '0' + 52;
+            }
+            return c == '-' ? 62 : c == '_' ? 63 : 0;
+        }
+    }
+}
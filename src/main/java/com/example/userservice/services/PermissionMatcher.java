@@ -0,0 +1,103 @@
+package com.example.userservice.services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wildcard permission grants compiled into one segment trie per role
+ *
+ * Permissions are ':'-separated segments. In a grant, "*" matches any single segment and a
+ * trailing "*" also matches any number of further segments, so "orders:*" grants
+ * "orders:read" and "orders:read:42". A "*" in a requested permission is literal: asking
+ * for "orders:read:*" needs a grant that covers every order, such as "orders:read:*" or "orders:*".
+ */
+public final class PermissionMatcher {
+
+    public static final String SEPARATOR = ":";
+    public static final String WILDCARD = "*";
+
+    static final PermissionMatcher EMPTY = compile(Map.of());
+
+    private final Map<String, Node> roleTries;
+
+    private PermissionMatcher(Map<String, Node> roleTries) {
+        this.roleTries = roleTries;
+    }
+
+    public static PermissionMatcher compile(Map<String, ? extends Collection<String>> grants) {
+        Map<String, Node> roleTries = new HashMap<>();
+        for (Map.Entry<String, ? extends Collection<String>> grant : grants.entrySet()) {
+            Node root = new Node();
+            for (String permission : grant.getValue()) {
+                root.insert(permission.split(SEPARATOR, -1));
+            }
+            roleTries.put(grant.getKey(), root);
+        }
+        return new PermissionMatcher(Map.copyOf(roleTries));
+    }
+
+    /**
+     * True if any of the roles is granted the permission
+     */
+    public boolean matches(Collection<String> roles, String permission) {
+        if (roles == null || roles.isEmpty() || permission == null || permission.isEmpty()) {
+            return false;
+        }
+        String[] segments = permission.split(SEPARATOR, -1);
+        for (String role : roles) {
+            Node root = roleTries.get(role);
+            if (root != null && root.matches(segments, 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> children;
+        private Node wildcard;
+        private boolean terminal;
+        private boolean matchesRest;
+
+        private void insert(String[] segments) {
+            Node node = this;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (WILDCARD.equals(segment)) {
+                    if (i == segments.length - 1) {
+                        node.matchesRest = true;
+                        return;
+                    }
+                    if (node.wildcard == null) {
+                        node.wildcard = new Node();
+                    }
+                    node = node.wildcard;
+                } else {
+                    if (node.children == null) {
+                        node.children = new HashMap<>();
+                    }
+                    node = node.children.computeIfAbsent(segment, key -> new Node());
+                }
+            }
+            node.terminal = true;
+        }
+
+        private boolean matches(String[] segments, int index) {
+            if (matchesRest) {
+                return true;
+            }
+            if (index == segments.length) {
+                return terminal;
+            }
+            if (children != null) {
+                Node child = children.get(segments[index]);
+                if (child != null && child.matches(segments, index + 1)) {
+                    return true;
+                }
+            }
+            return wildcard != null && wildcard.matches(segments, index + 1);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.userservice.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process JFR report of virtual threads pinned to their carrier
+ *
+ * Streams jdk.VirtualThreadPinned events longer than the threshold and groups them by the
+ * blocking site (topmost frame outside the JDK) and our own calling frame, so a driver or
+ * cache that blocks inside a monitor shows up on the pinning actuator endpoint. Each new
+ * site is logged once.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "auth.virtual-threads.pinning-report", havingValue = "true", matchIfMissing = true)
+public class PinningReport {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningReport.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String APPLICATION_PACKAGE = "com.example.userservice.";
+    // Sites past max-sites are folded into one entry so the map stays bounded
+    static final String OTHER_SITES = "(other sites)";
+
+    @Value("${auth.virtual-threads.pinning-threshold:20}") // milliseconds
+    private long thresholdMillis;
+
+    @Value("${auth.virtual-threads.pinning-max-sites:200}")
+    private int maxSites;
+
+    private final Map<String, SiteCounters> sites = new ConcurrentHashMap<>();
+
+    private RecordingStream stream;
+
+    public record SiteStats(String site, long pinned, double totalMillis, double maxMillis) {
+    }
+
+    private static final class SiteCounters {
+        private final LongAdder pinned = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    @PostConstruct
+    public void init() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned longer than {} ms", thresholdMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> frames = new ArrayList<>();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber());
+            }
+        }
+        record(siteOf(frames), event.getDuration());
+    }
+
+    void record(String site, Duration duration) {
+        if (!sites.containsKey(site) && sites.size() >= maxSites) {
+            site = OTHER_SITES;
+        }
+        SiteCounters counters = sites.get(site);
+        if (counters == null) {
+            SiteCounters created = new SiteCounters();
+            counters = sites.putIfAbsent(site, created);
+            if (counters == null) {
+                counters = created;
+                log.warn("Virtual thread pinned for {} ms at {}", duration.toMillis(), site);
+            }
+        }
+        long nanos = duration.toNanos();
+        counters.pinned.increment();
+        counters.totalNanos.add(nanos);
+        counters.maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * "blocking frame <- application frame", from frames formatted as Type.method:line, top first
+     */
+    static String siteOf(List<String> frames) {
+        String blocking = null;
+        String caller = null;
+        for (String frame : frames) {
+            if (blocking == null && !isJdkFrame(frame)) {
+                blocking = frame;
+            }
+            if (frame.startsWith(APPLICATION_PACKAGE)) {
+                caller = frame;
+                break;
+            }
+        }
+        if (blocking == null) {
+            blocking = frames.isEmpty() ? "(no stack trace)" : frames.get(0);
+        }
+        return caller == null || caller.equals(blocking) ? blocking : blocking + " <- " + caller;
+    }
+
+    private static boolean isJdkFrame(String frame) {
+        return frame.startsWith("java.") || frame.startsWith("jdk.") || frame.startsWith("sun.");
+    }
+
+    /**
+     * Sites with the most pinning events, most first
+     */
+    public List<SiteStats> topSites(int limit) {
+        List<SiteStats> stats = new ArrayList<>();
+        for (Map.Entry<String, SiteCounters> entry : sites.entrySet()) {
+            SiteCounters counters = entry.getValue();
+            stats.add(new SiteStats(entry.getKey(), counters.pinned.sum(),
+                    counters.totalNanos.sum() / 1_000_000.0, counters.maxNanos.get() / 1_000_000.0));
+        }
+        stats.sort(Comparator.comparingLong(SiteStats::pinned).reversed());
+        return stats.size() > limit ? stats.subList(0, limit) : stats;
+    }
+
+    public long thresholdMillis() {
+        return thresholdMillis;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.userservice.services;
+
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.repositories.ReactiveTokenStore;
+import com.example.userservice.repositories.TokenStatus;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of TokenValidationService for the reactive validation mode
+ * Verification (signature, claims, revocations, negative cache) and response shaping are
+ * TokenValidationService's own; only the token status lookup goes through R2DBC, so no thread
+ * waits on the database. Verification is cheap and cached, so it runs on the event loop.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTokenValidationService {
+
+    @Autowired
+    private TokenValidationService tokenValidationService;
+
+    @Autowired
+    private TokenVerificationCache tokenVerificationCache;
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
+    @Autowired
+    private ReactiveTokenStore reactiveTokenStore;
+
+    @Value("${auth.reactive.batch-concurrency:16}")
+    private int batchConcurrency;
+
+    /**
+     * Same checks and responses as TokenValidationService.validateTokenForMicroservice
+     */
+    public Mono<ValidatedTokenResponseDTO> validateTokenForMicroservice(String token, String requiredRole) {
+        if (token == null || token.trim().isEmpty()) {
+            return Mono.just(TokenValidationService.failure(ValidationOutcome.MISSING));
+        }
+        return Mono.fromCallable(() -> tokenValidationService.verifyToken(token))
+                .flatMap(verification -> verification.failure() != null
+                        ? Mono.just(verification.failure())
+                        : findActiveToken(token).map(dbToken ->
+                                tokenValidationService.buildValidationResponse(token, verification.claims(), dbToken.orElse(null))))
+                .onErrorResume(e -> Mono.just(new ValidatedTokenResponseDTO(false, "Token validation error")));
+    }
+
+    /**
+     * Per-token results in the order of the given tokens; lookups run concurrently up to
+     * auth.reactive.batch-concurrency
+     */
+    public Mono<List<ValidatedTokenResponseDTO>> validateTokensForMicroservice(List<String> tokens, String requiredRole) {
+        return Flux.fromIterable(tokens)
+                .flatMapSequential(token -> validateTokenForMicroservice(token, requiredRole), batchConcurrency)
+                .collectList();
+    }
+
+    /**
+     * Verified claims of an active API token; empty if it is invalid, revoked or expired
+     */
+    public Mono<Claims> resolveActiveClaims(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> tokenValidationService.verifyToken(token))
+                .filter(verification -> verification.failure() == null)
+                .flatMap(verification -> findActiveToken(token).flatMap(dbToken -> {
+                    TokenStatus active = dbToken.orElse(null);
+                    if (active == null || (active.expiredAt() != null && active.expiredAt().before(new Date()))) {
+                        tokenVerificationCache.reject(token, ValidationOutcome.NOT_ACTIVE);
+                        return Mono.<Claims>empty();
+                    }
+                    return Mono.just(verification.claims());
+                }))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * Role and permission decision for an active token; unauthorized if the token isn't active
+     */
+    public Mono<AuthorizationService.Decision> checkAuthorization(String token, String requiredRole, String requiredPermission) {
+        return resolveActiveClaims(token)
+                .map(claims -> authorizationService.authorize(claims, requiredRole, requiredPermission))
+                .defaultIfEmpty(new AuthorizationService.Decision(false, false));
+    }
+
+    private Mono<Optional<TokenStatus>> findActiveToken(String token) {
+        return reactiveTokenStore.findActiveToken(token)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
+}
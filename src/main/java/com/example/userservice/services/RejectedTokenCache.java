@@ -0,0 +1,132 @@
+package com.example.userservice.services;
+
+import com.example.userservice.security.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded negative cache of recently rejected tokens, keyed by token digest
+ * A client retrying the same expired, revoked or forged token is answered from here for a
+ * short TTL, before any parsing or database work. Rejections are also counted per client
+ * (remote address) so the clients hammering us show up on the rejectedtokens actuator endpoint.
+ */
+@Component
+public class RejectedTokenCache {
+
+    // Requests outside an HTTP request, e.g. over the Unix domain socket listener
+    static final String LOCAL_CLIENT = "local";
+
+    @Value("${auth.cache.rejections.max-size:100000}")
+    private long maximumSize;
+
+    @Value("${auth.cache.rejections.ttl:30000}") // 30 seconds in milliseconds
+    private long ttl;
+
+    @Value("${auth.cache.rejections.max-clients:10000}")
+    private long maximumClients;
+
+    private Cache<String, ValidationOutcome> rejections;
+
+    private Cache<String, ClientCounters> clients;
+
+    public record ClientStats(String client, long rejected, long servedFromCache) {
+    }
+
+    private static final class ClientCounters {
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder servedFromCache = new LongAdder();
+    }
+
+    @PostConstruct
+    public void init() {
+        rejections = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .build();
+        clients = Caffeine.newBuilder()
+                .maximumSize(maximumClients)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+    }
+
+    /**
+     * Digest under which a token's rejection is cached; callers checking and recording
+     * the same token compute it once
+     */
+    public String keyOf(String token) {
+        return TokenDigest.sha256Hex(token);
+    }
+
+    /**
+     * The remembered rejection for the token, or null if it hasn't been rejected recently
+     */
+    public ValidationOutcome lookup(String key) {
+        ValidationOutcome outcome = rejections.getIfPresent(key);
+        if (outcome != null) {
+            ClientCounters counters = counters();
+            counters.rejected.increment();
+            counters.servedFromCache.increment();
+        }
+        return outcome;
+    }
+
+    /**
+     * Whether a rejection is remembered for the key; unlike lookup, not counted as served
+     */
+    public boolean contains(String key) {
+        return rejections.getIfPresent(key) != null;
+    }
+
+    /**
+     * Remembers a rejection; VALID and MISSING are never cached
+     */
+    public void reject(String key, ValidationOutcome outcome) {
+        if (outcome == ValidationOutcome.VALID || outcome == ValidationOutcome.MISSING) {
+            return;
+        }
+        rejections.put(key, outcome);
+        counters().rejected.increment();
+    }
+
+    public long size() {
+        return rejections.estimatedSize();
+    }
+
+    /**
+     * Clients with the most rejections, most first
+     */
+    public List<ClientStats> topClients(int limit) {
+        List<ClientStats> stats = new ArrayList<>();
+        for (Map.Entry<String, ClientCounters> entry : clients.asMap().entrySet()) {
+            stats.add(new ClientStats(entry.getKey(),
+                    entry.getValue().rejected.sum(), entry.getValue().servedFromCache.sum()));
+        }
+        stats.sort(Comparator.comparingLong(ClientStats::rejected).reversed());
+        return stats.size() > limit ? stats.subList(0, limit) : stats;
+    }
+
+    private ClientCounters counters() {
+        return clients.get(currentClient(), client -> new ClientCounters());
+    }
+
+    private static String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getRemoteAddr();
+        }
+        return LOCAL_CLIENT;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.userservice.services;
+
+import com.example.userservice.events.RevocationRelayMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Shares revocations between instances, so every instance's revocation cache and stream see
+ * logouts made on any of them
+ *
+ * Each instance listens in a consumer group of its own and gets every message; its own messages
+ * are skipped, they were applied when published.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.revocations.kafka.enabled", havingValue = "true")
+public class RevocationRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationRelay.class);
+
+    public static final String REVOCATION_TOPIC = "revocation-topic";
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private RevocationService revocationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String origin = UUID.randomUUID().toString();
+
+    public void relay(String type, String jti, Long userId, Long expiresAt, Long revokedBefore) {
+        RevocationRelayMessage message = new RevocationRelayMessage(origin, type, jti, userId, expiresAt, revokedBefore);
+        try {
+            // Keyed by user, so a user's revocations stay in order
+            kafkaTemplate.send(REVOCATION_TOPIC, String.valueOf(userId), objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not relay {} for user {}", type, userId, e);
+        }
+    }
+
+    @KafkaListener(topics = REVOCATION_TOPIC, groupId = "revocations-${random.uuid}")
+    public void onMessage(String payload) {
+        RevocationRelayMessage message;
+        try {
+            message = objectMapper.readValue(payload, RevocationRelayMessage.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable revocation message", e);
+            return;
+        }
+        if (origin.equals(message.origin())) {
+            return;
+        }
+        revocationService.revokedElsewhere(message.type(), message.jti(), message.userId(),
+                message.expiresAt(), message.revokedBefore());
+    }
+}
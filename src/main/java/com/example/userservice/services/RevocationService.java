@@ -0,0 +1,444 @@
+package com.example.userservice.services;
+
+import com.example.userservice.events.RevocationEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Publishes token revocations to downstream subscribers and keeps a local revocation cache
+ *
+ * Events get a monotonically increasing sequence and are kept in a bounded history, so a
+ * reconnecting subscriber resumes from its last event id instead of doing a full resync.
+ * Event ids are prefixed with this instance's boot id; an id from another boot (or one that
+ * fell out of the history) is answered with a "resync" event.
+ *
+ * Every subscriber has its own bounded queue, drained by a fixed pool of auth.revocations.sender-threads
+ * threads, so thousands of subscribers share a few threads and a slow client only holds up its
+ * own delivery. A subscriber whose queue fills up, or whose send is stuck for
+ * auth.revocations.send-timeout, is dropped and reconnects with Last-Event-ID. A stuck send
+ * keeps its sender thread until the connector's write timeout (server.tomcat.connection-timeout)
+ * fails it, so the heartbeat drops stuck subscribers before they can take up the whole pool.
+ * With auth.revocations.kafka.enabled, revocations are relayed between instances
+ * (RevocationRelay); otherwise the stream and isRevoked only cover revocations made here.
+ */
+@Service
+public class RevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationService.class);
+
+    public static final String RESYNC_EVENT = "resync";
+
+    // A drain sends at most this many events per turn, so a busy subscriber can't monopolise a sender
+    private static final int EVENTS_PER_TURN = 64;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Value("${auth.revocations.history-size:10000}")
+    private int historySize;
+
+    @Value("${auth.revocations.cache-size:1000000}")
+    private long cacheSize;
+
+    @Value("${auth.revocations.stream-timeout:1800000}") // 30 minutes in milliseconds
+    private long streamTimeout;
+
+    @Value("${jwt.expiration:86400000}")
+    private long jwtExpiration;
+
+    @Value("${auth.revocations.subscriber-queue:1000}")
+    private int subscriberQueueSize;
+
+    @Value("${auth.revocations.send-timeout:10000}") // milliseconds
+    private long sendTimeout;
+
+    @Value("${auth.revocations.sender-threads:4}")
+    private int senderThreads;
+
+    // Present with auth.revocations.kafka.enabled; resolved on use, since the relay calls back in here
+    @Autowired
+    private ObjectProvider<RevocationRelay> revocationRelay;
+
+    private final long bootId = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Deque<RevocationEvent> history = new ArrayDeque<>();
+    private final ReentrantLock historyLock = new ReentrantLock();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Sends happen off the request thread, one drain per subscriber at a time
+    private ExecutorService senders;
+
+    // jti -> token expiry; entries expire together with the token they revoke
+    private Cache<String, Long> revokedTokenIds;
+
+    // userId -> logout-all cutoff; older tokens are expired once jwt.expiration has passed
+    private Cache<Long, Long> userRevokedBefore;
+
+    @PostConstruct
+    public void init() {
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "revocation-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        revokedTokenIds = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(Expiry.creating((String jti, Long expiresAt) ->
+                        Duration.ofMillis(Math.max(0, expiresAt - System.currentTimeMillis()))))
+                .build();
+        userRevokedBefore = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Publish a single revoked token (logout or admin revocation)
+     */
+    public void tokenRevoked(String token, Long userId) {
+        Long expiresAt = null;
+        String jti = null;
+        try {
+            Claims claims = jwtService.extractClaimsAllowExpired(token);
+            jti = claims.getId();
+            expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : null;
+        } catch (Exception e) {
+            // Not a token we can parse; nothing downstream could have cached it
+            return;
+        }
+        if (jti == null) {
+            return;
+        }
+        String revokedJti = jti;
+        Long revokedExpiresAt = expiresAt;
+        afterCommit(() -> publish(RevocationEvent.TOKEN_REVOKED, revokedJti, userId, revokedExpiresAt, null, true));
+    }
+
+    /**
+     * Publish a logout-all: every token of the user issued up to now is revoked
+     */
+    public void userTokensRevoked(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long revokedBefore = System.currentTimeMillis();
+        afterCommit(() -> publish(RevocationEvent.USER_TOKENS_REVOKED, null, userId, null, revokedBefore, true));
+    }
+
+    /**
+     * A revocation made on another instance, relayed by RevocationRelay: applied to the local
+     * cache and streamed to this instance's subscribers, but not relayed again
+     */
+    public void revokedElsewhere(String type, String jti, Long userId, Long expiresAt, Long revokedBefore) {
+        publish(type, jti, userId, expiresAt, revokedBefore, false);
+    }
+
+    /**
+     * Fast local check against revocations seen by this instance
+     * The database stays authoritative; a miss here only means "not known to be revoked".
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && revokedTokenIds.getIfPresent(jti) != null) {
+            return true;
+        }
+
+        Object userId = claims.get("userId");
+        if (userId instanceof Number && claims.getIssuedAt() != null) {
+            Long cutoff = userRevokedBefore.getIfPresent(((Number) userId).longValue());
+            // iat has second precision, so only tokens issued in an earlier second are known to be revoked
+            return cutoff != null && claims.getIssuedAt().getTime() < (cutoff / 1000) * 1000;
+        }
+        return false;
+    }
+
+    /**
+     * Subscribe to the revocation stream, replaying events after lastEventId when possible
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(streamTimeout));
+    }
+
+    SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // Registered and replayed under the history lock, so replayed and live events reach the
+        // subscriber exactly once and in order; the replay may exceed the queue bound
+        historyLock.lock();
+        try {
+            List<RevocationEvent> replay = lastEventId == null || lastEventId.isBlank()
+                    ? List.of()
+                    : eventsAfter(lastEventId);
+            if (replay == null) {
+                String resyncId = currentEventId();
+                subscriber.enqueue(() -> SseEmitter.event().name(RESYNC_EVENT).id(resyncId)
+                        .data("{}", MediaType.APPLICATION_JSON), false);
+            } else {
+                for (RevocationEvent event : replay) {
+                    subscriber.enqueue(() -> toSseEvent(event), false);
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            historyLock.unlock();
+        }
+        return emitter;
+    }
+
+    /**
+     * Keeps idle connections open through proxies and drops subscribers that stopped reading
+     */
+    @Scheduled(fixedRateString = "${auth.revocations.heartbeat-interval:15000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        int stalled = 0;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now)) {
+                stalled++;
+                subscriber.drop("send stalled for over " + sendTimeout + " ms");
+            } else {
+                subscriber.enqueue(() -> SseEmitter.event().comment("heartbeat"), true);
+            }
+        }
+        if (stalled > 0 && stalled * 2 >= senderThreads) {
+            log.warn("{} of {} revocation sender threads are stuck in sends to dropped subscribers",
+                    stalled, senderThreads);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void publish(String type, String jti, Long userId, Long expiresAt, Long revokedBefore, boolean relay) {
+        if (jti != null && expiresAt != null) {
+            revokedTokenIds.put(jti, expiresAt);
+        }
+        if (revokedBefore != null) {
+            userRevokedBefore.put(userId, revokedBefore);
+        }
+
+        historyLock.lock();
+        try {
+            long seq = sequence.incrementAndGet();
+            RevocationEvent event = new RevocationEvent(bootId + "-" + seq, seq, type, jti, userId, expiresAt, revokedBefore);
+            history.addLast(event);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            // Queued under the lock so every subscriber gets events in sequence order
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(() -> toSseEvent(event), true);
+            }
+        } finally {
+            historyLock.unlock();
+        }
+
+        if (relay && revocationRelay != null) {
+            revocationRelay.ifAvailable(r -> r.relay(type, jti, userId, expiresAt, revokedBefore));
+        }
+    }
+
+    /**
+     * Events after the given id, or null when the id is from another boot or older than the history
+     */
+    private List<RevocationEvent> eventsAfter(String lastEventId) {
+        long lastSequence;
+        try {
+            int separator = lastEventId.indexOf('-');
+            if (separator < 0 || Long.parseLong(lastEventId.substring(0, separator)) != bootId) {
+                return null;
+            }
+            lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        historyLock.lock();
+        try {
+            if (lastSequence > sequence.get()) {
+                return null;
+            }
+            RevocationEvent oldest = history.peekFirst();
+            if (oldest != null && lastSequence < oldest.sequence() - 1) {
+                return null;
+            }
+            List<RevocationEvent> events = new ArrayList<>();
+            for (RevocationEvent event : history) {
+                if (event.sequence() > lastSequence) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    private String currentEventId() {
+        return bootId + "-" + sequence.get();
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(RevocationEvent event) {
+        return SseEmitter.event()
+                .id(event.id())
+                .name(event.type())
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * A stream subscriber and its queue; events are built per send, since an SseEventBuilder
+     * can only be sent once
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        // nanoTime when the send in progress started, 0 while idle
+        private volatile long sendingSince;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Supplier<SseEmitter.SseEventBuilder> event, boolean bounded) {
+            if (closed) {
+                return;
+            }
+            if (bounded && queued.get() >= subscriberQueueSize) {
+                drop("more than " + subscriberQueueSize + " events queued");
+                return;
+            }
+            queue.add(event);
+            queued.incrementAndGet();
+            scheduleDrain();
+        }
+
+        boolean isStalled(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(sendTimeout);
+        }
+
+        /**
+         * Stops delivery and ends the response, so the client reconnects with its last event id
+         * Completing waits for a send in progress, so the drain completes the emitter once that
+         * send returns, instead of another sender thread waiting on it.
+         */
+        void drop(String reason) {
+            if (closed) {
+                return;
+            }
+            log.debug("Dropping revocation subscriber: {}", reason);
+            close();
+            scheduleDrain();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                int sent = 0;
+                while (!closed && sent++ < EVENTS_PER_TURN && (event = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    sendingSince = System.nanoTime();
+                    emitter.send(event.get());
+                    sendingSince = 0;
+                }
+            } catch (Exception e) {
+                sendingSince = 0;
+                log.debug("Dropping revocation subscriber: {}", e.getMessage());
+                close();
+                if (completed.compareAndSet(false, true)) {
+                    emitter.completeWithError(e);
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (closed) {
+                // Dropped, possibly while a send was stuck; nothing is being sent now
+                if (completed.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+            } else if (!queue.isEmpty()) {
+                // Queued after the last poll, or left for the next turn
+                scheduleDrain();
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.userservice.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * RFC 7662 introspection of the API tokens issued by JwtService
+ *
+ * Activity is decided per request by TokenValidationService (verification cache, revocation
+ * cache and database status), so answers match /api/v1/auth/validate-token. The shaped
+ * payload of an active token is cached; every inactive token gets the same constant answer,
+ * which per RFC 7662 doesn't reveal why the token was rejected.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
+public class TokenIntrospectionService {
+
+    public static final OAuth2TokenIntrospection INACTIVE = OAuth2TokenIntrospection.builder().build();
+
+    @Autowired
+    private TokenValidationService tokenValidationService;
+
+    @Value("${auth.cache.verification.max-size:100000}")
+    private long maximumSize;
+
+    @Value("${auth.cache.verification.ttl:300000}") // 5 minutes in milliseconds
+    private long ttl;
+
+    private Cache<String, OAuth2TokenIntrospection> activePayloads;
+
+    @PostConstruct
+    public void init() {
+        activePayloads = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .build();
+    }
+
+    public OAuth2TokenIntrospection introspect(String token) {
+        Claims claims = tokenValidationService.resolveActiveClaims(token);
+        if (claims == null) {
+            activePayloads.invalidate(token);
+            return INACTIVE;
+        }
+        return activePayloads.get(token, key -> toIntrospection(claims));
+    }
+
+    private static OAuth2TokenIntrospection toIntrospection(Claims claims) {
+        OAuth2TokenIntrospection.Builder builder = OAuth2TokenIntrospection.builder(true)
+                .tokenType(OAuth2AccessToken.TokenType.BEARER.getValue())
+                .subject(claims.getSubject())
+                .username(claims.getSubject());
+
+        // iss is left out: introspection requires it to be a URL, our issuer is a plain name
+        if (claims.getId() != null) {
+            builder.id(claims.getId());
+        }
+        if (claims.getIssuedAt() != null) {
+            builder.issuedAt(claims.getIssuedAt().toInstant());
+        }
+        if (claims.getExpiration() != null) {
+            builder.expiresAt(claims.getExpiration().toInstant());
+        }
+        if (claims.getAudience() != null && !claims.getAudience().isEmpty()) {
+            builder.audiences(audiences -> audiences.addAll(claims.getAudience()));
+        }
+        if (claims.get("userId") != null) {
+            builder.claim("userId", claims.get("userId"));
+        }
+        if (claims.get("email") != null) {
+            builder.claim("email", claims.get("email"));
+        }
+        return builder.build();
+    }
+}
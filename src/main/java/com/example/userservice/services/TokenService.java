@@ -2,8 +2,12 @@ package com.example.userservice.services;
 
 import com.example.userservice.models.Token;
 import com.example.userservice.models.User;
+import com.example.userservice.repositories.ConnectionBulkheads;
+import com.example.userservice.repositories.ConnectionBulkheads.Workload;
+import com.example.userservice.repositories.TokenOwner;
 import com.example.userservice.repositories.TokenRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +21,7 @@ import java.util.Optional;
  * Handles token validation, cleanup, and security operations
  */
 @Service
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
 public class TokenService {
 
     @Autowired
@@ -25,6 +30,12 @@ public class TokenService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private RevocationService revocationService;
+
+    @Autowired
+    private ConnectionBulkheads connectionBulkheads;
+
     /**
      * Validates if a token is active and valid
      */
@@ -59,11 +70,10 @@ public class TokenService {
     }
 
     /**
-     * Get user from token
+     * Get the owner of an active token (id, name and email), read with one join
      */
-    public User getUserFromToken(String tokenString) {
-        Optional<Token> tokenOpt = tokenRepository.findByTokenAndIsDeletedFalseAndIsExpiredFalse(tokenString);
-        return tokenOpt.map(Token::getUser).orElse(null);
+    public TokenOwner getUserFromToken(String tokenString) {
+        return tokenRepository.findActiveOwner(tokenString).orElse(null);
     }
 
     /**
@@ -76,6 +86,7 @@ public class TokenService {
             Token token = tokenOpt.get();
             token.setDeleted(true);
             tokenRepository.save(token);
+            revocationService.tokenRevoked(tokenString, token.getUser() != null ? token.getUser().getId() : null);
             return true;
         }
         return false;
@@ -86,7 +97,9 @@ public class TokenService {
      */
     @Transactional
     public int logoutAllUserTokens(User user) {
-        return tokenRepository.markAllUserTokensAsDeleted(user);
+        int revoked = tokenRepository.markAllUserTokensAsDeleted(user);
+        revocationService.userTokensRevoked(user.getId());
+        return revoked;
     }
 
     /**
@@ -98,12 +111,12 @@ public class TokenService {
 
     /**
      * Scheduled task to clean up expired tokens
-     * Runs every hour to mark expired tokens
+     * Runs every hour to mark expired tokens, in the maintenance bulkhead. The update runs in the
+     * repository's own transaction, so its connection is only taken once a permit is held.
      */
     @Scheduled(fixedRate = 3600000) // 1 hour = 3600000 milliseconds
-    @Transactional
     public void cleanupExpiredTokens() {
-        int markedExpired = tokenRepository.markExpiredTokens();
+        int markedExpired = connectionBulkheads.call(Workload.MAINTENANCE, () -> tokenRepository.markExpiredTokens());
         if (markedExpired > 0) {
             System.out.println("Marked " + markedExpired + " tokens as expired");
         }
@@ -120,6 +133,7 @@ public class TokenService {
             token.setDeleted(true);
             // You could add a reason field to the Token model if needed
             tokenRepository.save(token);
+            revocationService.tokenRevoked(tokenString, token.getUser() != null ? token.getUser().getId() : null);
             return true;
         }
         return false;
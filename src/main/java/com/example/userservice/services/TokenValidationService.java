@@ -1,15 +1,38 @@
 package com.example.userservice.services;
 
+import com.example.userservice.dtos.TokenInfoDTO;
 import com.example.userservice.dtos.ValidatedTokenResponseDTO;
 import com.example.userservice.dtos.ResponseStatus;
+import com.example.userservice.exceptions.BulkheadFullException;
 import com.example.userservice.models.Token;
-import com.example.userservice.models.User;
+import com.example.userservice.repositories.ConnectionBulkheads;
+import com.example.userservice.repositories.ConnectionBulkheads.Workload;
+import com.example.userservice.repositories.ReadYourWrites;
+import com.example.userservice.repositories.TokenOwner;
 import com.example.userservice.repositories.TokenRepository;
+import com.example.userservice.repositories.TokenStatus;
+import com.example.userservice.security.TokenDigest;
 import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * Production-grade Token Validation Service for microservices
@@ -18,66 +41,195 @@ import java.util.*;
 @Service
 public class TokenValidationService {
 
+    // Validations answered from the claims alone while the validation bulkhead was full
+    public static final String DEGRADED_MESSAGE = "Token is valid; database status check skipped under load";
+
     @Autowired
     private JwtService jwtService;
 
     @Autowired
     private TokenRepository tokenRepository;
 
+    @Autowired
+    private TokenVerificationCache tokenVerificationCache;
+
+    @Autowired
+    private RevocationService revocationService;
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private ConnectionBulkheads connectionBulkheads;
+
+    @Value("${auth.validation.coalesce:true}")
+    private boolean coalesceValidations;
+
+    // Single-flight: concurrent validations of the same token share the leader's computation
+    private final ConcurrentMap<String, CompletableFuture<ValidatedTokenResponseDTO>> inFlightValidations =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Optional<Claims>>> inFlightResolutions =
+        new ConcurrentHashMap<>();
+    private final LongAdder coalescedValidations = new LongAdder();
+
+    @Value("${auth.validation.pipelined:false}")
+    private boolean pipelined;
+
+    @Value("${auth.validation.lookup-threads:8}")
+    private int lookupThreads;
+
+    @Value("${auth.validation.lookup-queue:1000}")
+    private int lookupQueue;
+
+    // Runs token status lookups alongside verification in pipelined mode
+    private ThreadPoolExecutor lookupExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (pipelined) {
+            // When saturated the caller runs the lookup itself, which is just the sequential path
+            lookupExecutor = new ThreadPoolExecutor(lookupThreads, lookupThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(lookupQueue), runnable -> {
+                    Thread thread = new Thread(runnable, "token-status-lookup");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (lookupExecutor != null) {
+            lookupExecutor.shutdownNow();
+        }
+    }
+
     /**
      * Comprehensive token validation for microservices
      * Validates JWT structure, signature, expiration, database status, and optional role checking
+     * Concurrent calls for the same token (a fan-out of one user action) share a single
+     * verification and database lookup.
+     * Throws BulkheadFullException if the status lookup gets no database capacity in time, unless
+     * the degraded mode accepts verified tokens.
      */
     public ValidatedTokenResponseDTO validateTokenForMicroservice(String token, String requiredRole) {
-        ValidatedTokenResponseDTO response = new ValidatedTokenResponseDTO();
+        // Step 1: Basic token validation
+        if (token == null || token.trim().isEmpty()) {
+            return failure(ValidationOutcome.MISSING);
+        }
+        return coalesce(inFlightValidations, token, () -> computeValidation(token), ValidatedTokenResponseDTO::new);
+    }
 
+    private ValidatedTokenResponseDTO computeValidation(String token) {
         try {
-            // Step 1: Basic token validation
-            if (token == null || token.trim().isEmpty()) {
-                return new ValidatedTokenResponseDTO(false, "Token is required");
+            // In pipelined mode the status lookup (step 3) starts now and overlaps with step 2
+            Future<Optional<TokenStatus>> pendingLookup = startLookup(token);
+
+            // Step 2: Validate JWT structure, signature and claims (cached after the first verification)
+            TokenVerification verification = verifyToken(token);
+            if (verification.failure() != null) {
+                cancelLookup(pendingLookup);
+                return verification.failure();
             }
 
-            // Step 2: Extract username from token (this also validates JWT structure)
-            String username;
+            // Step 3: Check if token exists in database and is active
+            Optional<TokenStatus> tokenStatus;
             try {
-                username = jwtService.extractUsername(token);
-                if (username == null || username.trim().isEmpty()) {
-                    return new ValidatedTokenResponseDTO(false, "Invalid token: unable to extract username");
+                tokenStatus = finishLookup(pendingLookup, token);
+                if (tokenStatus.isEmpty()) {
+                    tokenStatus = confirmMissing(token, verification.claims());
                 }
-            } catch (Exception e) {
-                return new ValidatedTokenResponseDTO(false, "Invalid token structure: " + e.getMessage());
+            } catch (BulkheadFullException e) {
+                if (!connectionBulkheads.acceptVerifiedWhenDegraded()) {
+                    throw e;
+                }
+                return degradedResponse(verification.claims());
             }
 
-            // Step 3: Validate JWT signature and claims
-            if (!jwtService.validateToken(token, username)) {
-                return new ValidatedTokenResponseDTO(false, "Token signature or claims validation failed");
-            }
+            return buildValidationResponse(token, verification.claims(), tokenStatus.orElse(null));
 
-            // Step 4: Check if token exists in database and is active
-            Optional<Token> tokenEntity = tokenRepository.findByTokenAndIsDeletedFalseAndIsExpiredFalse(token);
-            if (tokenEntity.isEmpty()) {
-                return new ValidatedTokenResponseDTO(false, "Token not found in database or has been revoked/expired");
-            }
+        } catch (BulkheadFullException e) {
+            throw e;
+        } catch (Exception e) {
+            return new ValidatedTokenResponseDTO(false, "Token validation error");
+        }
+    }
 
-            // Step 5: Check token expiration in database
-            Token dbToken = tokenEntity.get();
-            if (dbToken.getExpiredAt() != null && dbToken.getExpiredAt().before(new Date())) {
-                return new ValidatedTokenResponseDTO(false, "Token has expired");
+    /**
+     * Batch token validation for gateways validating many queued requests at once
+     * Signatures are verified in parallel and database status is resolved with a single query.
+     * Results are returned in the same order as the given tokens.
+     */
+    public List<ValidatedTokenResponseDTO> validateTokensForMicroservice(List<String> tokens, String requiredRole) {
+        int count = tokens.size();
+        ValidatedTokenResponseDTO[] results = new ValidatedTokenResponseDTO[count];
+        Claims[] verifiedClaims = new Claims[count];
+
+        // Step 1: Verify signatures and claims in parallel
+        IntStream.range(0, count).parallel().forEach(i -> {
+            String token = tokens.get(i);
+            if (token == null || token.trim().isEmpty()) {
+                results[i] = failure(ValidationOutcome.MISSING);
+                return;
             }
+            try {
+                TokenVerification verification = verifyToken(token);
+                if (verification.failure() != null) {
+                    results[i] = verification.failure();
+                } else {
+                    verifiedClaims[i] = verification.claims();
+                }
+            } catch (Exception e) {
+                results[i] = new ValidatedTokenResponseDTO(false, "Token validation error");
+            }
+        });
+
+        // Step 2: Resolve database status for every verified token with one IN query on the digests
+        Set<String> verifiedTokens = new HashSet<>();
+        Set<String> digests = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            if (verifiedClaims[i] != null) {
+                verifiedTokens.add(tokens.get(i));
+                digests.add(TokenDigest.sha256Hex(tokens.get(i)));
+            }
+        }
+        Map<String, TokenStatus> activeTokens = new HashMap<>();
+        boolean degraded = false;
+        if (!verifiedTokens.isEmpty()) {
+            try {
+                for (TokenStatus status : connectionBulkheads.call(Workload.VALIDATION, () -> readYourWrites.readAll(verifiedTokens,
+                        () -> tokenRepository.findActiveStatusesByDigest(digests, verifiedTokens)))) {
+                    activeTokens.putIfAbsent(status.tokenDigest(), status);
+                }
+            } catch (BulkheadFullException e) {
+                if (!connectionBulkheads.acceptVerifiedWhenDegraded()) {
+                    throw e;
+                }
+                degraded = true;
+            }
+        }
 
-            // Step 6: Extract all token information
-            populateTokenInformation(response, token, dbToken);
-
-            // Step 7: Success response
-            response.setValid(true);
-            response.setMessage("Token is valid and user is authorized");
-            response.setStatus(ResponseStatus.SUCCESS);
-
-            return response;
-
-        } catch (Exception e) {
-            return new ValidatedTokenResponseDTO(false, "Token validation error: " + e.getMessage());
+        // Step 3: Build per-token responses in request order
+        for (int i = 0; i < count; i++) {
+            if (results[i] == null) {
+                try {
+                    String token = tokens.get(i);
+                    TokenStatus status = activeTokens.get(TokenDigest.sha256Hex(token));
+                    if (!degraded && status == null) {
+                        status = confirmMissing(token, verifiedClaims[i]).orElse(null);
+                    }
+                    results[i] = degraded
+                        ? degradedResponse(verifiedClaims[i])
+                        : buildValidationResponse(token, verifiedClaims[i], status);
+                } catch (Exception e) {
+                    results[i] = new ValidatedTokenResponseDTO(false, "Token validation error");
+                }
+            }
         }
+        return Arrays.asList(results);
     }
 
     /**
@@ -90,8 +242,7 @@ public class TokenValidationService {
                 return false;
             }
 
-            String username = jwtService.extractUsername(token);
-            return jwtService.validateToken(token, username);
+            return verifyToken(token).failure() == null;
 
         } catch (Exception e) {
             return false;
@@ -99,52 +250,199 @@ public class TokenValidationService {
     }
 
     /**
-     * Extract basic token information without full validation
+     * Verified claims of an active API token, or null if it is invalid, revoked or expired
+     * Runs the same checks as validateTokenForMicroservice, without shaping a response, and is
+     * coalesced per token the same way.
+     */
+    public Claims resolveActiveClaims(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        // Parsed claims are immutable, so every caller can share them
+        return coalesce(inFlightResolutions, token, () -> Optional.ofNullable(computeActiveClaims(token)),
+            UnaryOperator.identity()).orElse(null);
+    }
+
+    /**
+     * Validations answered by joining another caller's in-flight computation
      */
-    public Map<String, Object> extractBasicTokenInfo(String token) {
-        Map<String, Object> tokenInfo = new HashMap<>();
+    public long getCoalescedValidations() {
+        return coalescedValidations.sum();
+    }
+
+    private Claims computeActiveClaims(String token) {
         try {
-            tokenInfo.put("username", jwtService.extractUsername(token));
-            tokenInfo.put("userId", jwtService.extractUserId(token));
-            tokenInfo.put("email", jwtService.extractEmail(token));
-            tokenInfo.put("tokenId", jwtService.extractTokenId(token));
-            tokenInfo.put("issuedAt", jwtService.extractClaim(token, Claims::getIssuedAt));
-            tokenInfo.put("expiration", jwtService.extractExpiration(token));
+            Future<Optional<TokenStatus>> pendingLookup = startLookup(token);
+
+            TokenVerification verification = verifyToken(token);
+            if (verification.failure() != null) {
+                cancelLookup(pendingLookup);
+                return null;
+            }
+
+            TokenStatus status;
+            try {
+                status = finishLookup(pendingLookup, token)
+                    .or(() -> confirmMissing(token, verification.claims()))
+                    .orElse(null);
+            } catch (BulkheadFullException e) {
+                return connectionBulkheads.acceptVerifiedWhenDegraded() ? verification.claims() : null;
+            }
+            if (status == null || (status.expiredAt() != null && status.expiredAt().before(new Date()))) {
+                tokenVerificationCache.reject(token, ValidationOutcome.NOT_ACTIVE);
+                return null;
+            }
+            return verification.claims();
+
         } catch (Exception e) {
-            // Return empty map if token is invalid
-            return new HashMap<>();
+            return null;
         }
-        return tokenInfo;
+    }
+
+    /**
+     * Status of the active token row, looked up by digest through idx_token_digest_status
+     * Tokens issued or revoked within the read-your-writes window are looked up on the primary.
+     * The lookup holds one validation bulkhead permit.
+     */
+    private Optional<TokenStatus> findActiveToken(String token) {
+        return connectionBulkheads.call(Workload.VALIDATION,
+            () -> readYourWrites.read(token, () -> tokenRepository.findActiveStatus(token)));
+    }
+
+    /**
+     * Status of a token the lookup didn't find, rechecked on the primary if it was issued within
+     * the read-your-writes window: a token issued on another instance moments ago may not have
+     * reached this replica yet, and must not be negative-cached as NOT_ACTIVE
+     */
+    private Optional<TokenStatus> confirmMissing(String token, Claims claims) {
+        if (!readYourWrites.mayLag(token, claims.getIssuedAt())) {
+            return Optional.empty();
+        }
+        return connectionBulkheads.call(Workload.VALIDATION,
+            () -> readYourWrites.onPrimary(() -> tokenRepository.findActiveStatus(token)));
+    }
+
+    /**
+     * Starts the status lookup on the lookup executor in pipelined mode, or returns null so it runs
+     * after verification. Malformed tokens never start one, so garbage can't drive database load.
+     * Neither do cached tokens: a verified one has no verification left to overlap, and a rejected
+     * one needs no lookup at all.
+     */
+    private Future<Optional<TokenStatus>> startLookup(String token) {
+        if (lookupExecutor == null || !jwtService.isWellFormed(token) || tokenVerificationCache.isCached(token)) {
+            return null;
+        }
+        return lookupExecutor.submit(() -> findActiveToken(token));
+    }
+
+    private Optional<TokenStatus> finishLookup(Future<Optional<TokenStatus>> pendingLookup, String token) {
+        if (pendingLookup == null) {
+            return findActiveToken(token);
+        }
+        try {
+            return pendingLookup.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the token status lookup", e);
+        }
+    }
+
+    private static void cancelLookup(Future<Optional<TokenStatus>> pendingLookup) {
+        // Not interrupted: interrupting a thread inside JDBC can break its pooled connection
+        if (pendingLookup != null) {
+            pendingLookup.cancel(false);
+        }
+    }
+
+    /**
+     * Runs work once per token at a time: the first caller computes, and callers arriving while
+     * it is in flight wait for and share its result. The entry is removed as soon as it completes,
+     * so results are never reused after the fact. Each caller gets its own copy of the result.
+     */
+    private <T> T coalesce(ConcurrentMap<String, CompletableFuture<T>> inFlight, String token, Supplier<T> work,
+                           UnaryOperator<T> copy) {
+        if (!coalesceValidations) {
+            return work.get();
+        }
+
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> leader = inFlight.putIfAbsent(token, mine);
+        if (leader != null) {
+            coalescedValidations.increment();
+            try {
+                return copy.apply(leader.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T result = work.get();
+            mine.complete(result);
+            return copy.apply(result);
+        } catch (Throwable e) {
+            // Errors too: followers already waiting in join() would otherwise never return
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(token, mine);
+        }
+    }
+
+    /**
+     * Extract basic token information without full validation
+     * Reuses the verified claims cache; returns null if the token is invalid
+     */
+    public TokenInfoDTO extractBasicTokenInfo(String token) {
+        if (token == null) {
+            return null;
+        }
+        ValidationResult result = tokenVerificationCache.verify(token);
+        return result.isValid() ? toTokenInfo(result.claims()) : null;
     }
 
     /**
      * Extract comprehensive user information from token
+     * Returns null if user information cannot be extracted
      */
-    public Map<String, Object> extractUserInformation(String token) {
-        return jwtService.extractSecurityClaims(token);
+    public TokenInfoDTO extractUserInformation(String token) {
+        return extractBasicTokenInfo(token);
     }
 
     /**
-     * Check user authorization (simplified - no role checking)
+     * Check user authorization against the role and permission claims compiled at login
      */
     public boolean checkUserAuthorization(String token, String requiredRole, String requiredPermission) {
-        try {
-            // Simplified validation - no role checking for now
-            // Since we removed role functionality, just return true if token is valid
-            return true;
+        return checkAuthorization(token, requiredRole, requiredPermission).authorized();
+    }
 
-        } catch (Exception e) {
-            return false;
+    /**
+     * Role and permission decision for an active token; unauthorized if the token isn't active
+     * The decision itself is a bit test on the verified claims, with no joins.
+     */
+    public AuthorizationService.Decision checkAuthorization(String token, String requiredRole, String requiredPermission) {
+        Claims claims = resolveActiveClaims(token);
+        if (claims == null) {
+            return new AuthorizationService.Decision(false, false);
         }
+        return authorizationService.authorize(claims, requiredRole, requiredPermission);
     }
 
     /**
-     * Get user entity from token
+     * Owner of an active token (id, name and email), read with one join
      */
-    public User getUserFromToken(String token) {
+    public TokenOwner getUserFromToken(String token) {
         try {
-            Optional<Token> tokenEntity = tokenRepository.findByTokenAndIsDeletedFalseAndIsExpiredFalse(token);
-            return tokenEntity.map(Token::getUser).orElse(null);
+            return connectionBulkheads.call(Workload.VALIDATION,
+                () -> readYourWrites.read(token, () -> tokenRepository.findActiveOwner(token))).orElse(null);
         } catch (Exception e) {
             return null;
         }
@@ -155,7 +453,8 @@ public class TokenValidationService {
      */
     public boolean isTokenRevokedOrExpired(String token) {
         try {
-            Optional<Token> tokenEntity = tokenRepository.findByTokenAndIsDeletedFalse(token);
+            Optional<Token> tokenEntity = connectionBulkheads.call(Workload.VALIDATION,
+                () -> readYourWrites.read(token, () -> tokenRepository.findByTokenAndIsDeletedFalse(token)));
             if (tokenEntity.isEmpty()) {
                 return true; // Token not found means it's revoked
             }
@@ -170,34 +469,112 @@ public class TokenValidationService {
 
     // Private helper methods
 
-    private void populateTokenInformation(ValidatedTokenResponseDTO response, String token, Token dbToken) {
+    private TokenInfoDTO toTokenInfo(Claims claims) {
+        Object userId = claims.get("userId");
+        return new TokenInfoDTO(
+            claims.getSubject(),
+            userId instanceof Number ? ((Number) userId).longValue() : null,
+            (String) claims.get("email"),
+            claims.getId(),
+            claims.getIssuedAt(),
+            claims.getExpiration());
+    }
+
+    // Verification and response shaping are shared with ReactiveTokenValidationService
+    record TokenVerification(Claims claims, ValidatedTokenResponseDTO failure) {
+    }
+
+    TokenVerification verifyToken(String token) {
+        ValidationResult result = tokenVerificationCache.verify(token);
+        if (!result.isValid()) {
+            return new TokenVerification(null, failure(result.outcome()));
+        }
+
+        Claims claims = result.claims();
+        String username = claims.getSubject();
+        if (username == null || username.trim().isEmpty()) {
+            return new TokenVerification(null,
+                new ValidatedTokenResponseDTO(false, "Invalid token: unable to extract username"));
+        }
+
+        // Revocations published by this instance are rejected without waiting for the database
+        if (revocationService.isRevoked(claims)) {
+            tokenVerificationCache.reject(token, ValidationOutcome.REVOKED);
+            return new TokenVerification(null, failure(ValidationOutcome.REVOKED));
+        }
+        return new TokenVerification(claims, null);
+    }
+
+    static ValidatedTokenResponseDTO failure(ValidationOutcome outcome) {
+        return new ValidatedTokenResponseDTO(false, outcome.getMessage());
+    }
+
+    ValidatedTokenResponseDTO buildValidationResponse(String token, Claims claims, TokenStatus status) {
+        // Retries with a token whose row is gone are answered from the negative cache
+        if (status == null) {
+            tokenVerificationCache.reject(token, ValidationOutcome.NOT_ACTIVE);
+            return failure(ValidationOutcome.NOT_ACTIVE);
+        }
+
+        // Check token expiration in database
+        if (status.expiredAt() != null && status.expiredAt().before(new Date())) {
+            tokenVerificationCache.reject(token, ValidationOutcome.EXPIRED);
+            return failure(ValidationOutcome.EXPIRED);
+        }
+
+        ValidatedTokenResponseDTO response = new ValidatedTokenResponseDTO();
+
+        // Success response, populated from the already verified claims
+        response.setValid(true);
+        response.setMessage("Token is valid and user is authorized");
+        response.setStatus(ResponseStatus.SUCCESS);
+        populateTokenInformation(response, claims);
+
+        return response;
+    }
+
+    /**
+     * Response for a verified token whose database status could not be checked
+     * Never cached: a revocation must take effect as soon as the status can be checked again.
+     */
+    private ValidatedTokenResponseDTO degradedResponse(Claims claims) {
+        ValidatedTokenResponseDTO response = new ValidatedTokenResponseDTO();
+        response.setValid(true);
+        response.setMessage(DEGRADED_MESSAGE);
+        response.setStatus(ResponseStatus.SUCCESS);
+        populateTokenInformation(response, claims);
+        return response;
+    }
+
+    private void populateTokenInformation(ValidatedTokenResponseDTO response, Claims claims) {
         try {
             // Extract user information
-            response.setUserId(jwtService.extractUserId(token));
-            response.setUsername(jwtService.extractUsername(token));
-            response.setEmail(jwtService.extractEmail(token));
+            Object userId = claims.get("userId");
+            response.setUserId(userId instanceof Number ? ((Number) userId).longValue() : null);
+            response.setUsername(claims.getSubject());
+            response.setEmail((String) claims.get("email"));
 
             // Extract token metadata
-            response.setTokenId(jwtService.extractTokenId(token));
-            response.setIssuedAt(jwtService.extractClaim(token, Claims::getIssuedAt));
-            response.setExpirationTime(jwtService.extractExpiration(token));
-            response.setIssuer(jwtService.extractIssuer(token));
-            response.setAudience(jwtService.extractAudience(token));
-
-            // Extract roles using the public getAllClaims method
-            Map<String, Object> allClaims = jwtService.getAllClaims(token);
-            @SuppressWarnings("unchecked")
-            List<String> roles = (List<String>) allClaims.get("roles");
-            response.setRoles(roles != null ? roles : new ArrayList<>());
+            response.setTokenId(claims.getId());
+            response.setIssuedAt(claims.getIssuedAt());
+            response.setExpirationTime(claims.getExpiration());
+            response.setIssuer(claims.getIssuer());
+            response.setAudience(claims.getAudience() != null && !claims.getAudience().isEmpty()
+                ? claims.getAudience().iterator().next()
+                : null);
+
+            // Extract roles and the effective permissions compiled at login
+            response.setRoles(new ArrayList<>(authorizationService.roles(claims)));
+            response.setPermissions(authorizationService.permissionNames(claims));
 
             // Set verification status
-            Boolean isVerified = (Boolean) allClaims.get("isVerified");
+            Boolean isVerified = (Boolean) claims.get("isVerified");
             response.setVerified(isVerified != null ? isVerified : false);
 
-            // Set token status
+            // Set token status; only active rows get this far
             response.setTokenType("Bearer");
-            response.setExpired(dbToken.isExpired());
-            response.setRevoked(dbToken.isDeleted());
+            response.setExpired(false);
+            response.setRevoked(false);
 
         } catch (Exception e) {
             // If we can't extract some information, it's still valid but with limited info
@@ -0,0 +1,95 @@
+package com.example.userservice.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Bounded cache of signature-verified token claims
+ * Shared by every validation path so a token is only parsed and verified once per TTL.
+ * Only successful verifications are cached here; database status is still checked per request.
+ * Rejections go to the RejectedTokenCache, which is consulted on a miss before any parsing.
+ */
+@Component
+public class TokenVerificationCache {
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RejectedTokenCache rejectedTokenCache;
+
+    @Value("${auth.cache.verification.max-size:100000}")
+    private long maximumSize;
+
+    @Value("${auth.cache.verification.ttl:300000}") // 5 minutes in milliseconds
+    private long ttl;
+
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    public void init() {
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .build();
+    }
+
+    /**
+     * Verifies the token, parsing it only on a cache miss; bad tokens are reported, not thrown
+     */
+    public ValidationResult verify(String token) {
+        Claims claims = verifiedClaims.getIfPresent(token);
+        if (claims != null) {
+            if (claims.getExpiration() == null || claims.getExpiration().after(new Date())) {
+                return ValidationResult.valid(claims);
+            }
+            verifiedClaims.invalidate(token);
+            reject(token, ValidationOutcome.EXPIRED);
+            return ValidationResult.failed(ValidationOutcome.EXPIRED);
+        }
+
+        // Digest only off the hot path: valid tokens are answered above without it
+        String rejectionKey = rejectedTokenCache.keyOf(token);
+        ValidationOutcome rejected = rejectedTokenCache.lookup(rejectionKey);
+        if (rejected != null) {
+            return ValidationResult.failed(rejected);
+        }
+
+        ValidationResult result = jwtService.verify(token);
+        if (result.isValid()) {
+            verifiedClaims.put(token, result.claims());
+        } else {
+            rejectedTokenCache.reject(rejectionKey, result.outcome());
+        }
+        return result;
+    }
+
+    /**
+     * Whether verify would be answered from either cache, without parsing the token
+     */
+    public boolean isCached(String token) {
+        return verifiedClaims.getIfPresent(token) != null
+                || rejectedTokenCache.contains(rejectedTokenCache.keyOf(token));
+    }
+
+    /**
+     * Records a rejection made after verification, e.g. a revoked token or one whose database
+     * row is gone, so retries are answered from the negative cache instead of the database
+     */
+    public void reject(String token, ValidationOutcome outcome) {
+        verifiedClaims.invalidate(token);
+        rejectedTokenCache.reject(rejectedTokenCache.keyOf(token), outcome);
+    }
+
+    public void invalidate(String token) {
+        verifiedClaims.invalidate(token);
+    }
+}
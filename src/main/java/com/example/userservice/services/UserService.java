@@ -5,23 +5,38 @@ import com.example.userservice.exceptions.InvalidCredentialsException;
 import com.example.userservice.exceptions.UserAlreadyExistsException;
 import com.example.userservice.models.Token;
 import com.example.userservice.models.User;
+import com.example.userservice.repositories.ConnectionBulkheads;
+import com.example.userservice.repositories.ConnectionBulkheads.Workload;
+import com.example.userservice.repositories.ReadYourWrites;
 import com.example.userservice.repositories.TokenRepository;
+import com.example.userservice.repositories.UserPrincipal;
 import com.example.userservice.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
+@ConditionalOnProperty(name = "auth.validation-only", havingValue = "false", matchIfMissing = true)
 public class UserService {
 
+    public static final String EMAIL_TOPIC = "email-topic";
+
     private final UserRepository userRepository;
     private final TokenRepository tokenRepository;
     private final BCryptPasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final EmailVerificationService emailVerificationService;
+    private final RevocationService revocationService;
+    private final AuthorizationService authorizationService;
+    private final ReadYourWrites readYourWrites;
+    private final ConnectionBulkheads connectionBulkheads;
 
     private KafkaTemplate<String, String> kafkaTemplate;
 
@@ -30,19 +45,30 @@ public class UserService {
 
     public UserService(UserRepository userRepository, TokenRepository tokenRepository,
                       BCryptPasswordEncoder passwordEncoder, JwtService jwtService,
-                       KafkaTemplate<String, String> kafkaTemplate) {
+                       KafkaTemplate<String, String> kafkaTemplate,
+                       EmailVerificationService emailVerificationService,
+                       RevocationService revocationService,
+                       AuthorizationService authorizationService,
+                       ReadYourWrites readYourWrites,
+                       ConnectionBulkheads connectionBulkheads) {
         this.userRepository = userRepository;
         this.tokenRepository = tokenRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.kafkaTemplate = kafkaTemplate;
+        this.emailVerificationService = emailVerificationService;
+        this.revocationService = revocationService;
+        this.authorizationService = authorizationService;
+        this.readYourWrites = readYourWrites;
+        this.connectionBulkheads = connectionBulkheads;
     }
 
     public User signupUser(String username, String email, String password) {
-        if (userRepository.existsByName(username)) {
+        // Uniqueness decides the insert, so it is checked on the primary
+        if (account(() -> readYourWrites.onPrimary(() -> userRepository.existsByName(username)))) {
             throw new UserAlreadyExistsException("Username '" + username + "' already exists. Please choose a different username.");
         }
-        if (userRepository.existsByEmail(email)) {
+        if (account(() -> readYourWrites.onPrimary(() -> userRepository.existsByEmail(email)))) {
             throw new UserAlreadyExistsException("Email '" + email + "' is already registered. Please use a different email address.");
         }
 
@@ -62,19 +88,25 @@ public class UserService {
         user.setEmail(email.trim().toLowerCase());
         user.setPassword(passwordEncoder.encode(password));
         user.setVerified(false); // Set default verification status
+        User savedUser = account(() -> userRepository.save(user));
+        readYourWrites.written(username);
+
         //publish this user to kafka
         //email- from,to,subject,body
+        //the signed link needs the generated user id, so the email is sent after saving
+        String verificationLink = emailVerificationService.generateVerificationLink(savedUser);
         SendEmail sendEmail = new SendEmail();
         sendEmail.setFrom("admin@userservice.com");
         sendEmail.setTo(email);
         sendEmail.setSubject("Welcome to User Service");
-        sendEmail.setBody("Hello " + username + ",\n\nThank you for signing up! Please verify your email address to complete the registration process.\n\nBest regards,\nUser Service Team");
-        kafkaTemplate.send("email-topic", sendEmail.toString());
-        return userRepository.save(user);
+        sendEmail.setBody("Hello " + username + ",\n\nThank you for signing up! Please verify your email address to complete the registration process:\n" + verificationLink + "\n\nBest regards,\nUser Service Team");
+        kafkaTemplate.send(EMAIL_TOPIC, sendEmail.toString());
+        return savedUser;
     }
 
     public String login(String username, String password) {
-        User user = userRepository.findByName(username);
+        // A user who just signed up may not have reached the replicas yet
+        User user = account(() -> readYourWrites.read(username, () -> userRepository.findByName(username)));
         if (user == null) {
             throw new InvalidCredentialsException("Invalid username");
         }
@@ -82,8 +114,10 @@ public class UserService {
             throw new InvalidCredentialsException("Invalid password");
         }
 
-        // Generate JWT token
-        String jwtToken = jwtService.generateToken(user);
+        // Generate JWT token, honouring a verification the replica read may not have seen yet
+        boolean isVerified = user.isVerified() || emailVerificationService.isRecentlyVerified(user.getId());
+        // Roles and effective permissions are compiled into the token once, here
+        String jwtToken = jwtService.generateToken(user, isVerified, account(() -> authorizationService.compileClaims(user)));
 
         // Save token to database for tracking
         Token token = new Token();
@@ -96,13 +130,44 @@ public class UserService {
         token.setExpiredAt(expirationDate);
 
         // Actually save the token to database
-        tokenRepository.save(token);
+        account(() -> tokenRepository.save(token));
+        readYourWrites.written(jwtToken);
 
         return jwtToken;
     }
 
+    /**
+     * Verify email address from a signed verification link
+     */
+    public boolean verifyEmail(Long userId, long expiresAt, String signature) {
+        if (!emailVerificationService.verifyEmail(userId, expiresAt, signature)) {
+            return false;
+        }
+        // Queued durably before the click is answered, and applied with other clicks in one update
+        // by EmailVerificationBatchUpdater; this instance's logins see it straight away
+        if (!emailVerificationService.isRecentlyVerified(userId)) {
+            try {
+                kafkaTemplate.send(EmailVerificationBatchUpdater.VERIFIED_TOPIC, String.valueOf(userId),
+                        String.valueOf(userId)).join();
+            } catch (RuntimeException e) {
+                // Kafka unreachable: a direct update is slower under a burst, but never loses the click
+                account(() -> userRepository.markUsersVerified(List.of(userId)));
+            }
+            emailVerificationService.verified(userId);
+        }
+        return true;
+    }
+
     public User getUserByUsername(String username) {
-        return userRepository.findByName(username);
+        return account(() -> readYourWrites.read(username, () -> userRepository.findByName(username)));
+    }
+
+    /**
+     * Id, name, email and verification status of a user, without loading the password hash
+     */
+    public UserPrincipal getUserPrincipal(String username) {
+        // A user who just signed up may not have reached the replicas yet
+        return readYourWrites.read(username, () -> userRepository.findPrincipalByName(username));
     }
 
     public void logout(String tokenString) {
@@ -111,12 +176,24 @@ public class UserService {
         }
 
         // Find the token in database
-        Token token = tokenRepository.findByTokenAndIsDeletedFalse(tokenString.trim())
+        String tokenValue = tokenString.trim();
+        Token token = account(() -> readYourWrites.read(tokenValue, () -> tokenRepository.findByTokenAndIsDeletedFalse(tokenValue)))
                 .orElseThrow(() -> new IllegalArgumentException("Invalid or already logged out token"));
 
         // Mark token as deleted (soft delete)
         token.setDeleted(true);
-        tokenRepository.save(token);
+        account(() -> tokenRepository.save(token));
+        readYourWrites.written(tokenValue);
+
+        revocationService.tokenRevoked(token.getToken(), token.getUser() != null ? token.getUser().getId() : null);
+    }
+
+    /**
+     * Runs account database work in the account bulkhead; password hashing stays outside it
+     * Each call's connection is returned when its transaction ends, which needs open-in-view off.
+     */
+    private <T> T account(Supplier<T> work) {
+        return connectionBulkheads.call(Workload.ACCOUNT, work);
     }
 
     /**
@@ -0,0 +1,28 @@
+package com.example.userservice.services;
+
+/**
+ * Why a token was accepted or rejected
+ * Validation reports these instead of throwing, and the messages are constant so they can be
+ * returned to callers without echoing anything from the token.
+ */
+public enum ValidationOutcome {
+
+    VALID("Token is valid"),
+    MISSING("Token is required"),
+    MALFORMED("Invalid token structure"),
+    BAD_SIGNATURE("Token signature validation failed"),
+    EXPIRED("Token has expired"),
+    INVALID_CLAIMS("Token claims validation failed"),
+    REVOKED("Token has been revoked"),
+    NOT_ACTIVE("Token not found in database or has been revoked/expired");
+
+    private final String message;
+
+    ValidationOutcome(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
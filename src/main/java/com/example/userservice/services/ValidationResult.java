@@ -0,0 +1,35 @@
+package com.example.userservice.services;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Outcome of a token validation, with the verified claims when it is VALID
+ * Failures are shared constants, so rejecting a token allocates nothing.
+ */
+public record ValidationResult(ValidationOutcome outcome, Claims claims) {
+
+    private static final Map<ValidationOutcome, ValidationResult> FAILURES = new EnumMap<>(ValidationOutcome.class);
+
+    static {
+        for (ValidationOutcome outcome : ValidationOutcome.values()) {
+            if (outcome != ValidationOutcome.VALID) {
+                FAILURES.put(outcome, new ValidationResult(outcome, null));
+            }
+        }
+    }
+
+    public static ValidationResult valid(Claims claims) {
+        return new ValidationResult(ValidationOutcome.VALID, claims);
+    }
+
+    public static ValidationResult failed(ValidationOutcome outcome) {
+        return FAILURES.get(outcome);
+    }
+
+    public boolean isValid() {
+        return outcome == ValidationOutcome.VALID;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.userservice.sidecar;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small blocking client for the Unix domain socket validation listener
+ * Not thread-safe: use one client per thread, or guard it externally.
+ */
+public class UdsValidationClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer lengthBuffer = ByteBuffer.allocate(UdsValidationProtocol.LENGTH_PREFIX_BYTES);
+    private int nextRequestId;
+
+    public UdsValidationClient(Path socketPath) throws IOException {
+        this.channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        this.channel.connect(UnixDomainSocketAddress.of(socketPath));
+    }
+
+    /**
+     * Full validation (signature, claims and database status)
+     */
+    public UdsValidationProtocol.Response validate(String token) throws IOException {
+        return pipeline(List.of(token), UdsValidationProtocol.OP_VALIDATE).get(0);
+    }
+
+    /**
+     * Signature and claims only, no database lookup
+     */
+    public UdsValidationProtocol.Response quickValidate(String token) throws IOException {
+        return pipeline(List.of(token), UdsValidationProtocol.OP_QUICK_VALIDATE).get(0);
+    }
+
+    /**
+     * Writes every request before reading any response, paying one round trip for the whole batch
+     */
+    public List<UdsValidationProtocol.Response> validateAll(List<String> tokens) throws IOException {
+        return pipeline(tokens, UdsValidationProtocol.OP_VALIDATE);
+    }
+
+    private List<UdsValidationProtocol.Response> pipeline(List<String> tokens, byte opcode) throws IOException {
+        int firstRequestId = nextRequestId;
+        for (String token : tokens) {
+            ByteBuffer request = UdsValidationProtocol.encodeRequest(nextRequestId++, opcode, token);
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+        }
+
+        List<UdsValidationProtocol.Response> responses = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            UdsValidationProtocol.Response response = readResponse();
+            if (response.requestId() != firstRequestId + i) {
+                throw new IOException("Out of order response " + response.requestId());
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    private UdsValidationProtocol.Response readResponse() throws IOException {
+        lengthBuffer.clear();
+        readFully(lengthBuffer);
+        int length = lengthBuffer.flip().getInt();
+        if (length <= 0 || length > UdsValidationProtocol.MAX_RESPONSE_BYTES) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(body);
+        return UdsValidationProtocol.decodeResponse(body.flip());
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Validation socket closed");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.userservice.sidecar;
+
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed binary protocol spoken over the local Unix domain socket
+ *
+ * Request frame:  int32 length | int32 requestId | byte opcode | UTF-8 token
+ * Response frame: int32 length | int32 requestId | byte valid | int64 userId | int64 expiresAt
+ *                 | string username | string email | string message
+ *
+ * Strings are an unsigned 16-bit byte length followed by UTF-8 bytes; absent values are
+ * written as length 0, and absent numbers as -1. The length prefix never includes itself.
+ * Responses carry the requestId of their request and are written in request order,
+ * so clients can pipeline any number of requests on one connection.
+ */
+public final class UdsValidationProtocol {
+
+    public static final byte OP_VALIDATE = 1;
+    public static final byte OP_QUICK_VALIDATE = 2;
+
+    public static final int LENGTH_PREFIX_BYTES = 4;
+    public static final int REQUEST_HEADER_BYTES = 5; // requestId + opcode
+    public static final int MAX_FRAME_BYTES = 16 * 1024;
+    public static final int MAX_RESPONSE_BYTES = 4 + 1 + 8 + 8 + 3 * (2 + 0xFFFF);
+
+    private UdsValidationProtocol() {
+    }
+
+    public record Request(int requestId, byte opcode, String token) {
+    }
+
+    public record Response(int requestId, boolean valid, long userId, long expiresAt,
+                           String username, String email, String message) {
+
+        public static Response from(int requestId, ValidatedTokenResponseDTO dto) {
+            return new Response(
+                    requestId,
+                    dto.isValid(),
+                    dto.getUserId() != null ? dto.getUserId() : -1L,
+                    dto.getExpirationTime() != null ? dto.getExpirationTime().getTime() : -1L,
+                    dto.getUsername(),
+                    dto.getEmail(),
+                    dto.getMessage());
+        }
+    }
+
+    public static ByteBuffer encodeRequest(int requestId, byte opcode, String token) {
+        byte[] tokenBytes = token.getBytes(StandardCharsets.UTF_8);
+        int length = REQUEST_HEADER_BYTES + tokenBytes.length;
+        if (length > MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("Token exceeds the maximum frame size");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_PREFIX_BYTES + length);
+        buffer.putInt(length).putInt(requestId).put(opcode).put(tokenBytes);
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes one request from a frame body (the bytes after the length prefix)
+     */
+    public static Request decodeRequest(ByteBuffer body, int length) {
+        int requestId = body.getInt();
+        byte opcode = body.get();
+        byte[] tokenBytes = new byte[length - REQUEST_HEADER_BYTES];
+        body.get(tokenBytes);
+        return new Request(requestId, opcode, new String(tokenBytes, StandardCharsets.UTF_8));
+    }
+
+    public static ByteBuffer encodeResponse(Response response) {
+        byte[] username = utf8(response.username());
+        byte[] email = utf8(response.email());
+        byte[] message = utf8(response.message());
+        int length = 4 + 1 + 8 + 8 + 2 + username.length + 2 + email.length + 2 + message.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_PREFIX_BYTES + length);
+        buffer.putInt(length)
+                .putInt(response.requestId())
+                .put((byte) (response.valid() ? 1 : 0))
+                .putLong(response.userId())
+                .putLong(response.expiresAt());
+        putString(buffer, username);
+        putString(buffer, email);
+        putString(buffer, message);
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes one response from a frame body (the bytes after the length prefix)
+     */
+    public static Response decodeResponse(ByteBuffer body) {
+        int requestId = body.getInt();
+        boolean valid = body.get() == 1;
+        long userId = body.getLong();
+        long expiresAt = body.getLong();
+        return new Response(requestId, valid, userId, expiresAt, getString(body), getString(body), getString(body));
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            // Only ever hit by pathological messages; truncating keeps the frame well-formed
+            byte[] truncated = new byte[0xFFFF];
+            System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+            return truncated;
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
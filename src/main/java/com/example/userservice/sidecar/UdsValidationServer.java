@@ -0,0 +1,357 @@
+package com.example.userservice.sidecar;
+
+import com.example.userservice.dtos.TokenInfoDTO;
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.services.TokenValidationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional NIO listener on a Unix domain socket for sidecars co-located with this instance
+ * Skips HTTP, JSON, the servlet container and the Spring Security filter chain entirely.
+ *
+ * A single selector thread does all socket I/O. Decoded requests are handed to a small worker
+ * pool because validation can block on the database; each connection is drained by at most
+ * one worker at a time, so pipelined responses are always written in request order.
+ *
+ * Each connection holds at most auth.uds.max-in-flight requests that have been decoded but not
+ * yet answered, and at most auth.uds.max-pending-response-bytes of unwritten responses. Past
+ * either limit the selector stops reading from it until the client reads its responses, so a
+ * sidecar that pipelines without reading is held back by the socket instead of the heap. With one
+ * queued drain per connection at most, the worker queue is bounded by the number of connections.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.uds.enabled", havingValue = "true")
+public class UdsValidationServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UdsValidationServer.class);
+
+    @Autowired
+    private TokenValidationService tokenValidationService;
+
+    @Value("${auth.uds.path:/tmp/userservice-auth.sock}")
+    private String socketPath;
+
+    @Value("${auth.uds.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${auth.uds.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${auth.uds.max-pending-response-bytes:1048576}")
+    private long maxPendingResponseBytes;
+
+    private volatile boolean running;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private Thread selectorThread;
+
+    // Connections whose workers queued responses; the selector thread turns on OP_WRITE for them
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong decodedRequests = new AtomicLong();
+
+    @Override
+    public void start() {
+        try {
+            Path path = Path.of(socketPath);
+            Files.deleteIfExists(path); // stale socket file from a previous run
+
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            serverChannel.bind(UnixDomainSocketAddress.of(path));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to bind validation socket " + socketPath, e);
+        }
+
+        AtomicInteger workerCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "uds-validation-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        running = true;
+        selectorThread = new Thread(this::selectLoop, "uds-validation-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        log.info("Token validation listening on unix socket {}", socketPath);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+            Files.deleteIfExists(Path.of(socketPath));
+        } catch (IOException e) {
+            log.warn("Error closing validation socket {}", socketPath, e);
+        }
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Requests decoded on all connections since start
+     */
+    public long getDecodedRequests() {
+        return decodedRequests.get();
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select();
+
+                Connection writable;
+                while ((writable = pendingWrites.poll()) != null) {
+                    if (writable.key.isValid()) {
+                        writable.updateInterest();
+                    }
+                }
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            ((Connection) key.attachment()).read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            ((Connection) key.attachment()).write();
+                        }
+                    } catch (IOException e) {
+                        closeQuietly(key);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (ClosedSelectorException e) {
+            // stopped
+        } catch (IOException e) {
+            log.error("Validation socket selector failed", e);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    private UdsValidationProtocol.Response handle(UdsValidationProtocol.Request request) {
+        try {
+            if (request.opcode() == UdsValidationProtocol.OP_QUICK_VALIDATE) {
+                return quickValidate(request);
+            }
+            if (request.opcode() != UdsValidationProtocol.OP_VALIDATE) {
+                return new UdsValidationProtocol.Response(request.requestId(), false, -1L, -1L,
+                        null, null, "Unknown opcode " + request.opcode());
+            }
+            ValidatedTokenResponseDTO dto = tokenValidationService.validateTokenForMicroservice(request.token(), null);
+            return UdsValidationProtocol.Response.from(request.requestId(), dto);
+        } catch (Exception e) {
+            return new UdsValidationProtocol.Response(request.requestId(), false, -1L, -1L,
+                    null, null, "Token validation error");
+        }
+    }
+
+    private UdsValidationProtocol.Response quickValidate(UdsValidationProtocol.Request request) {
+        if (!tokenValidationService.quickValidateToken(request.token())) {
+            return new UdsValidationProtocol.Response(request.requestId(), false, -1L, -1L,
+                    null, null, "Token is invalid");
+        }
+        TokenInfoDTO info = tokenValidationService.extractBasicTokenInfo(request.token());
+        return new UdsValidationProtocol.Response(
+                request.requestId(),
+                true,
+                info != null && info.userId() != null ? info.userId() : -1L,
+                info != null && info.expiration() != null ? info.expiration().getTime() : -1L,
+                info != null ? info.username() : null,
+                info != null ? info.email() : null,
+                "Token is valid");
+    }
+
+    /**
+     * Per-connection state; read/write buffers are only touched by the selector thread
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+        private final Queue<UdsValidationProtocol.Request> requests = new ConcurrentLinkedQueue<>();
+        private final Deque<ByteBuffer> responses = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Decoded requests whose responses haven't been fully written yet, and those responses' bytes
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong pendingResponseBytes = new AtomicLong();
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                closeQuietly(key);
+                return;
+            }
+            decode();
+            updateInterest();
+        }
+
+        /**
+         * Decodes buffered frames up to the in-flight limit; the rest stay buffered until
+         * responses have been written
+         */
+        private void decode() throws IOException {
+            readBuffer.flip();
+            while (!isSaturated() && readBuffer.remaining() >= UdsValidationProtocol.LENGTH_PREFIX_BYTES) {
+                int length = readBuffer.getInt(readBuffer.position());
+                if (length < UdsValidationProtocol.REQUEST_HEADER_BYTES || length > UdsValidationProtocol.MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (readBuffer.remaining() < UdsValidationProtocol.LENGTH_PREFIX_BYTES + length) {
+                    break;
+                }
+                readBuffer.position(readBuffer.position() + UdsValidationProtocol.LENGTH_PREFIX_BYTES);
+                requests.add(UdsValidationProtocol.decodeRequest(readBuffer, length));
+                inFlight.incrementAndGet();
+                decodedRequests.incrementAndGet();
+            }
+            readBuffer.compact();
+
+            // Grow so that a full frame always fits
+            if (!readBuffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(UdsValidationProtocol.LENGTH_PREFIX_BYTES + UdsValidationProtocol.MAX_FRAME_BYTES);
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+
+            scheduleDrain();
+        }
+
+        private boolean isSaturated() {
+            return inFlight.get() >= maxInFlight || pendingResponseBytes.get() >= maxPendingResponseBytes;
+        }
+
+        /**
+         * Reads only while under the limits and writes while responses are queued; selector thread only
+         */
+        private void updateInterest() {
+            int ops = isSaturated() ? 0 : SelectionKey.OP_READ;
+            synchronized (responses) {
+                if (!responses.isEmpty()) {
+                    ops |= SelectionKey.OP_WRITE;
+                }
+            }
+            key.interestOps(ops);
+        }
+
+        private void scheduleDrain() {
+            if (!requests.isEmpty() && draining.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            UdsValidationProtocol.Request request;
+            while ((request = requests.poll()) != null) {
+                ByteBuffer encoded = UdsValidationProtocol.encodeResponse(handle(request));
+                pendingResponseBytes.addAndGet(encoded.remaining());
+                synchronized (responses) {
+                    responses.add(encoded);
+                }
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+            draining.set(false);
+            // A request may have arrived between the last poll and releasing the flag
+            scheduleDrain();
+        }
+
+        private void write() throws IOException {
+            synchronized (responses) {
+                while (!responses.isEmpty()) {
+                    ByteBuffer head = responses.peekFirst();
+                    channel.write(head);
+                    if (head.hasRemaining()) {
+                        return; // socket buffer full, wait for the next OP_WRITE
+                    }
+                    responses.pollFirst();
+                    pendingResponseBytes.addAndGet(-head.limit());
+                    inFlight.decrementAndGet();
+                }
+            }
+            // Back under the limits: frames left buffered while reading was off go first
+            decode();
+            updateInterest();
+        }
+    }
+}
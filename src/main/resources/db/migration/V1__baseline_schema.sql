@@ -0,0 +1,38 @@
+-- Schema as Hibernate's ddl-auto=update created it for the entities before migrations existed.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE users (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at  DATETIME(6),
+    updated_at  DATETIME(6),
+    is_deleted  BIT          NOT NULL,
+    name        VARCHAR(100) NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    is_verified BIT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE roles (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    is_deleted BIT         NOT NULL,
+    role_name  VARCHAR(50) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_roles_role_name UNIQUE (role_name)
+) ENGINE = InnoDB;
+
+CREATE TABLE token (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    is_deleted BIT         NOT NULL,
+    token      TEXT        NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    is_expired BIT         NOT NULL,
+    expired_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_token_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
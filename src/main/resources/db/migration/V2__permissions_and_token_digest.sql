@@ -0,0 +1,44 @@
+-- Tables and columns the entities gained since the baseline: permissions, role and permission
+-- grants, and the token digest. A database that already got some of them from ddl-auto=update
+-- keeps what it has, so every statement here checks first.
+
+CREATE TABLE IF NOT EXISTS permissions (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    is_deleted      BIT          NOT NULL,
+    permission_name VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_permissions_permission_name UNIQUE (permission_name)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS role_permissions (
+    role_id       BIGINT NOT NULL,
+    permission_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, permission_id),
+    CONSTRAINT fk_role_permissions_role FOREIGN KEY (role_id) REFERENCES roles (id),
+    CONSTRAINT fk_role_permissions_permission FOREIGN KEY (permission_id) REFERENCES permissions (id)
+) ENGINE = InnoDB;
+
+-- MySQL has no ADD COLUMN IF NOT EXISTS
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'token' AND COLUMN_NAME = 'token_digest') = 0,
+              'ALTER TABLE token ADD COLUMN token_digest VARCHAR(64)',
+              'DO 0');
+PREPARE add_token_digest FROM @ddl;
+EXECUTE add_token_digest;
+DEALLOCATE PREPARE add_token_digest;
+
+-- Rows written before token_digest existed get their digest (same value as TokenDigest.sha256Hex),
+-- so every token lookup can go through the digest and none has to compare the TEXT column unindexed
+UPDATE token SET token_digest = SHA2(token, 256) WHERE token_digest IS NULL;
+
+ALTER TABLE token MODIFY token_digest VARCHAR(64) NOT NULL;
@@ -0,0 +1,38 @@
+-- Indexes for the repository finders. Each comment names the queries an index serves;
+-- QueryPlanTest checks their plans on a seeded dataset.
+
+-- ddl-auto=update created idx_token_digest on databases that ran an earlier build; MySQL has no
+-- DROP INDEX IF EXISTS
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'token' AND INDEX_NAME = 'idx_token_digest') > 0,
+              'ALTER TABLE token DROP INDEX idx_token_digest',
+              'DO 0');
+PREPARE drop_token_digest_index FROM @ddl;
+EXECUTE drop_token_digest_index;
+DEALLOCATE PREPARE drop_token_digest_index;
+
+ALTER TABLE token
+    -- TokenRepository: findActiveStatus, findActiveStatusesByDigest, findActiveOwner,
+    -- findByTokenAndIsDeletedFalse(AndIsExpiredFalse), markTokenAsDeleted
+    ADD INDEX idx_token_digest_status (token_digest, is_deleted, is_expired, expired_at),
+    -- TokenRepository: findByUserAndIsDeletedFalseAndIsExpiredFalse, markAllUserTokensAsDeleted
+    ADD INDEX idx_token_user_status (user_id, is_deleted, is_expired),
+    -- TokenRepository: markExpiredTokens (a range over expired_at among the unexpired rows)
+    ADD INDEX idx_token_expiry (is_expired, expired_at);
+
+-- UserRepository: existsByName, findByName, and findPrincipalByName from the index alone
+-- (InnoDB secondary indexes carry the primary key)
+-- existsByEmail uses the unique index on email; findRoleNamesByUserId the user_roles primary key
+-- and the roles primary key; markUsersVerified the users primary key
+ALTER TABLE users
+    ADD INDEX idx_users_name_principal (name, email, is_verified);
+
+-- RoleRepository: findByRoleName and existsByRoleName use the unique index on role_name;
+-- findAllRolePermissionNames reads the active roles from this index, their grants from the
+-- role_permissions primary key and each permission by its primary key
+ALTER TABLE roles
+    ADD INDEX idx_roles_active (is_deleted, role_name);
+
+-- PermissionRepository: findByIsDeletedFalseOrderByPermissionNameAsc in index order, without a sort
+ALTER TABLE permissions
+    ADD INDEX idx_permissions_active (is_deleted, permission_name);
@@ -0,0 +1,146 @@
+package com.example.userservice;
+
+import com.example.userservice.models.User;
+import com.example.userservice.services.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Smoke test of the native edge binary: ./gradlew nativeSmokeTest
+ * Starts the binary with no database, Kafka or Eureka reachable and checks the time to the first
+ * successful quick validation and the resident memory after a burst of validations. Only the
+ * JWT path (JwtService, TokenValidationService verification, revocation and rejection caches)
+ * runs without a database. Limits: -Pedge.max-startup-ms and -Pedge.max-rss-mb.
+ */
+@EnabledIfSystemProperty(named = "edge.binary", matches = ".+")
+public class EdgeNativeSmokeTest {
+
+    private static final String SECRET = "edge-smoke-test-secret-at-least-256-bits-long";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    private Process process;
+    private int port;
+    private long started;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Path binary = Path.of(System.getProperty("edge.binary"));
+        assertTrue(Files.isExecutable(binary), "Build the binary first: " + binary);
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        started = System.nanoTime();
+        process = new ProcessBuilder(binary.toString(),
+                "--spring.profiles.active=edge",
+                "--server.port=" + port,
+                "--jwt.secret=" + SECRET,
+                // Nothing listens here; the pools only connect on first use
+                "--auth.reactive.r2dbc.url=r2dbc:mysql://127.0.0.1:1/none",
+                "--spring.datasource.url=jdbc:mysql://127.0.0.1:1/none")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    @Test
+    public void testStartsFastAndSmall() throws Exception {
+        String token = jwtService().generateToken(user());
+        long maxStartupMs = Long.getLong("edge.max-startup-ms", 1000);
+        long maxRssMb = Long.getLong("edge.max-rss-mb", 128);
+
+        long startupMs = timeToFirstValidation(token, Duration.ofSeconds(30));
+        assertTrue(startupMs <= maxStartupMs,
+                "First successful validation after " + startupMs + " ms, limit " + maxStartupMs + " ms");
+
+        // Valid, forged and malformed tokens: signature checks, revocation and rejection caches
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(quickValidate(token).body().contains("\"valid\":true"));
+            assertTrue(quickValidate(forged).body().contains("\"valid\":false"));
+            assertEquals(200, quickValidate("not-a-jwt").statusCode());
+        }
+
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (Files.exists(status)) {
+            long rssMb = Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) / 1024)
+                    .findFirst()
+                    .orElseThrow();
+            assertTrue(rssMb <= maxRssMb,
+                    "RSS after 3000 validations is " + rssMb + " MB, limit " + maxRssMb + " MB");
+        }
+    }
+
+    private long timeToFirstValidation(String token, Duration timeout) throws Exception {
+        long deadline = started + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            assertTrue(process.isAlive(), "The edge binary exited with " + (process.isAlive() ? "" : process.exitValue()));
+            try {
+                HttpResponse<String> response = quickValidate(token);
+                if (response.statusCode() == 200 && response.body().contains("\"valid\":true")) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        return fail("No successful validation within " + timeout);
+    }
+
+    private HttpResponse<String> quickValidate(String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/v1/auth/quick-validate"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtService, "issuer", "user-service");
+        ReflectionTestUtils.setField(jwtService, "audience", "user-service-clients");
+        return jwtService;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("edgeuser");
+        user.setEmail("edgeuser@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.userservice.client;
+
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.events.RevocationEvent;
+import com.example.userservice.models.User;
+import com.example.userservice.services.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that userservice-client understands what this service produces:
+ * API tokens from JwtService, validate-token responses and revocation events.
+ */
+public class UserServiceClientContractTest {
+
+    private static final String SECRET = "a-string-secret-at-least-256-bits-long";
+
+    private JwtService jwtService;
+    private ObjectMapper objectMapper;
+    private HttpServer server;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtService, "issuer", "user-service");
+        ReflectionTestUtils.setField(jwtService, "audience", "user-service-clients");
+
+        // Same date handling as Spring Boot's auto-configured ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testLocalVerification_acceptsApiTokens() {
+        String token = jwtService.generateToken(user());
+
+        try (TokenVerifier verifier = verifier(SECRET)) {
+            VerificationResult result = verifier.verify(token);
+
+            assertTrue(result.valid());
+            assertEquals(VerificationResult.Source.LOCAL, result.source());
+            assertEquals("alice", result.subject());
+            assertEquals(7L, result.userId());
+            assertEquals("alice@example.com", result.email());
+            assertEquals(jwtService.extractTokenId(token), result.tokenId());
+            assertEquals(jwtService.extractExpiration(token).toInstant(), result.expiresAt());
+        }
+    }
+
+    @Test
+    public void testRemoteFallback_readsValidateTokenResponse() {
+        String token = jwtService.generateToken(user());
+        Date expiration = jwtService.extractExpiration(token);
+
+        ValidatedTokenResponseDTO response = new ValidatedTokenResponseDTO(true, "Token is valid and user is authorized");
+        response.setUsername("alice");
+        response.setUserId(7L);
+        response.setEmail("alice@example.com");
+        response.setTokenId(jwtService.extractTokenId(token));
+        response.setIssuedAt(new Date(expiration.getTime() - 3600000L));
+        response.setExpirationTime(expiration);
+        server.createContext("/api/v1/auth/validate-token", exchange -> {
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+
+        try (TokenVerifier verifier = verifier(null)) {
+            VerificationResult result = verifier.verify(token);
+
+            assertTrue(result.valid());
+            assertEquals(VerificationResult.Source.REMOTE, result.source());
+            assertEquals("alice", result.subject());
+            assertEquals(7L, result.userId());
+            assertEquals(response.getTokenId(), result.tokenId());
+            assertEquals(expiration.toInstant(), result.expiresAt());
+        }
+    }
+
+    @Test
+    public void testRevocationEvents() throws Exception {
+        LocalRevocations revocations = new LocalRevocations(1000, Duration.ofHours(1));
+        long now = System.currentTimeMillis();
+
+        revocations.apply(RevocationEvent.TOKEN_REVOKED, objectMapper.writeValueAsString(
+                new RevocationEvent("1-1", 1, RevocationEvent.TOKEN_REVOKED, "jti-1", 7L, now + 60000, null)));
+        revocations.apply(RevocationEvent.USER_TOKENS_REVOKED, objectMapper.writeValueAsString(
+                new RevocationEvent("1-2", 2, RevocationEvent.USER_TOKENS_REVOKED, null, 8L, null, now)));
+
+        assertTrue(revocations.isRevoked("jti-1", 7L, new Date(now).toInstant()));
+        assertFalse(revocations.isRevoked("jti-2", 7L, new Date(now).toInstant()));
+        assertTrue(revocations.isRevoked("jti-3", 8L, new Date(now - 60000).toInstant()));
+    }
+
+    private TokenVerifier verifier(String secret) {
+        return TokenVerifier.builder(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .hmacSecret(secret)
+                .revocationStream(false)
+                .build();
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(7L);
+        user.setName("alice");
+        user.setEmail("alice@example.com");
+        return user;
+    }
+}
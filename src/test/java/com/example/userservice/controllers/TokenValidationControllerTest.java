@@ -1,6 +1,8 @@
 package com.example.userservice.controllers;
 
+import com.example.userservice.dtos.BatchValidatedTokenResponseDTO;
 import com.example.userservice.dtos.ValidateTokenRequestDTO;
+import com.example.userservice.dtos.ValidateTokensRequestDTO;
 import com.example.userservice.dtos.ValidatedTokenResponseDTO;
 import com.example.userservice.services.TokenValidationService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,9 +11,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TokenValidationControllerTest {
@@ -25,6 +37,8 @@ public class TokenValidationControllerTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(tokenValidationController, "maxBatchTokens", 2);
+        ReflectionTestUtils.setField(tokenValidationController, "revocationToleranceSeconds", 30L);
     }
 
     @Test
@@ -42,5 +56,76 @@ public class TokenValidationControllerTest {
         assertEquals(200, responseEntity.getStatusCodeValue());
         assertEquals(true, responseEntity.getBody().isValid());
     }
-}
 
+    @Test
+    public void testValidateTokens() {
+        ValidateTokensRequestDTO request = new ValidateTokensRequestDTO();
+        request.setTokens(List.of("token_a", "token_b"));
+
+        when(tokenValidationService.validateTokensForMicroservice(anyList(), any())).thenReturn(List.of(
+            new ValidatedTokenResponseDTO(true, "Token is valid"),
+            new ValidatedTokenResponseDTO(false, "Token has expired")));
+
+        ResponseEntity<BatchValidatedTokenResponseDTO> responseEntity = tokenValidationController.validateTokens(request);
+
+        assertEquals(200, responseEntity.getStatusCodeValue());
+        assertEquals(1, responseEntity.getBody().getValidCount());
+        assertEquals(2, responseEntity.getBody().getResults().size());
+    }
+
+    @Test
+    public void testValidateTokens_whenBatchIsTooLarge() {
+        ValidateTokensRequestDTO request = new ValidateTokensRequestDTO();
+        request.setTokens(List.of("token_a", "token_b", "token_c"));
+
+        ResponseEntity<BatchValidatedTokenResponseDTO> responseEntity = tokenValidationController.validateTokens(request);
+
+        assertEquals(400, responseEntity.getStatusCodeValue());
+        verify(tokenValidationService, never()).validateTokensForMicroservice(anyList(), any());
+    }
+
+    @Test
+    public void testValidateTokenFromHeader_isCacheableUntilExpiry() {
+        ValidatedTokenResponseDTO response = new ValidatedTokenResponseDTO(true, "Token is valid");
+        response.setExpirationTime(new Date(System.currentTimeMillis() + 10500));
+
+        when(tokenValidationService.validateTokenForMicroservice("test_token", null)).thenReturn(response);
+
+        ResponseEntity<ValidatedTokenResponseDTO> responseEntity =
+            tokenValidationController.validateTokenFromHeader("Bearer test_token", null);
+
+        assertEquals(200, responseEntity.getStatusCodeValue());
+        assertEquals("max-age=10, private", responseEntity.getHeaders().getCacheControl());
+        assertNotNull(responseEntity.getHeaders().getETag());
+        assertEquals(List.of("Authorization"), responseEntity.getHeaders().getVary());
+    }
+
+    @Test
+    public void testValidateToken_cappedAtRevocationTolerance() {
+        ValidateTokenRequestDTO request = new ValidateTokenRequestDTO();
+        request.setToken("test_token");
+        ValidatedTokenResponseDTO response = new ValidatedTokenResponseDTO(true, "Token is valid");
+        response.setExpirationTime(new Date(System.currentTimeMillis() + 3600000));
+
+        when(tokenValidationService.validateTokenForMicroservice("test_token", null)).thenReturn(response);
+
+        ResponseEntity<ValidatedTokenResponseDTO> responseEntity = tokenValidationController.validateToken(request);
+
+        assertEquals("max-age=30, private", responseEntity.getHeaders().getCacheControl());
+    }
+
+    @Test
+    public void testValidateToken_whenInvalid_isNotStored() {
+        ValidateTokenRequestDTO request = new ValidateTokenRequestDTO();
+        request.setToken("revoked_token");
+
+        when(tokenValidationService.validateTokenForMicroservice("revoked_token", null))
+            .thenReturn(new ValidatedTokenResponseDTO(false, "Token not found in database or has been revoked/expired"));
+
+        ResponseEntity<ValidatedTokenResponseDTO> responseEntity = tokenValidationController.validateToken(request);
+
+        assertEquals(401, responseEntity.getStatusCodeValue());
+        assertEquals("no-store", responseEntity.getHeaders().getCacheControl());
+        assertNull(responseEntity.getHeaders().getETag());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.userservice.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The typed response records must produce the same JSON as the HashMap responses they replaced
+ */
+public class AuthResponseDTOSerializationTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+
+    @Test
+    public void testQuickValidationResponse_matchesLegacyJson() throws Exception {
+        Date issuedAt = new Date(1752085854000L);
+        Date expiration = new Date(1752172254000L);
+
+        Map<String, Object> tokenInfo = new HashMap<>();
+        tokenInfo.put("username", "testuser");
+        tokenInfo.put("userId", 42L);
+        tokenInfo.put("email", null);
+        tokenInfo.put("tokenId", "jti");
+        tokenInfo.put("issuedAt", issuedAt);
+        tokenInfo.put("expiration", expiration);
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("valid", true);
+        legacy.put("message", "Token is valid");
+        legacy.put("status", ResponseStatus.SUCCESS);
+        legacy.put("tokenInfo", tokenInfo);
+
+        QuickValidationResponseDTO typed = QuickValidationResponseDTO.valid(
+            new TokenInfoDTO("testuser", 42L, null, "jti", issuedAt, expiration));
+
+        assertSameJson(legacy, typed);
+    }
+
+    @Test
+    public void testMissingTokenResponse_matchesLegacyJson() throws Exception {
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("valid", false);
+        legacy.put("message", "Token is required");
+        legacy.put("status", ResponseStatus.FAILURE);
+
+        assertSameJson(legacy, QuickValidationResponseDTO.MISSING_TOKEN);
+    }
+
+    @Test
+    public void testUserInfoResponse_matchesLegacyJson() throws Exception {
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("message", "Unable to extract user information from token");
+        legacy.put("status", ResponseStatus.FAILURE);
+
+        assertSameJson(legacy, UserInfoResponseDTO.NOT_EXTRACTED);
+    }
+
+    @Test
+    public void testAuthorizationResponse_matchesLegacyJson() throws Exception {
+        Map<String, Object> authDetails = new HashMap<>();
+        authDetails.put("hasRole", false);
+        authDetails.put("checkedRole", "USER");
+        authDetails.put("checkedPermission", null);
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("authorized", true);
+        legacy.put("message", "User is authorized");
+        legacy.put("status", ResponseStatus.SUCCESS);
+        legacy.put("authorizationDetails", authDetails);
+
+        AuthorizationResponseDTO typed = AuthorizationResponseDTO.decided(true,
+            new AuthorizationDetailsDTO(false, "USER", null));
+
+        assertSameJson(legacy, typed);
+    }
+
+    @Test
+    public void testDynamicMessage_isWrittenAsRegularString() throws Exception {
+        AuthorizationResponseDTO typed = new AuthorizationResponseDTO(false,
+            "Authorization check failed: \"quoted\"", ResponseStatus.FAILURE, null);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(typed));
+
+        assertEquals("Authorization check failed: \"quoted\"", json.get("message").asText());
+    }
+
+    private void assertSameJson(Object legacy, Object typed) throws Exception {
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(legacy));
+        JsonNode actual = objectMapper.readTree(objectMapper.writeValueAsBytes(typed));
+        assertEquals(expected, actual);
+    }
+}
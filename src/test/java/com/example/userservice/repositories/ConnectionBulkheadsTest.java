@@ -0,0 +1,251 @@
+package com.example.userservice.repositories;
+
+import com.example.userservice.exceptions.BulkheadFullException;
+import com.example.userservice.models.User;
+import com.example.userservice.repositories.ConnectionBulkheads.Workload;
+import com.example.userservice.services.AuthorizationService;
+import com.example.userservice.services.EmailVerificationService;
+import com.example.userservice.services.JwtService;
+import com.example.userservice.services.RevocationService;
+import com.example.userservice.services.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Load test through UserService and Spring Data JPA against a small Hikari pool on embedded H2:
+ * a burst of logins, each signing its token slower than the pool's connection timeout, while the
+ * JWT filter's user lookup keeps running alongside. Each login runs as a request would, with or
+ * without an EntityManager held open for the whole request (spring.jpa.open-in-view).
+ */
+@SpringJUnitConfig(ConnectionBulkheadsTest.JpaConfig.class)
+public class ConnectionBulkheadsTest {
+
+    private static final int POOL_SIZE = 4;
+    private static final long CONNECTION_TIMEOUT = 250;
+    private static final int ACCOUNT_PERMITS = 2;
+    private static final int LOGIN_THREADS = 20;
+    private static final long SIGNING_MILLIS = 2 * CONNECTION_TIMEOUT;
+    private static final int VALIDATIONS = 30;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private String username;
+
+    @BeforeEach
+    public void setUp() {
+        username = "bulkhead-" + UUID.randomUUID();
+        User user = new User();
+        user.setName(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword(passwordEncoder.encode("password"));
+        user.setVerified(true);
+        userRepository.save(user);
+    }
+
+    @Test
+    public void testValidationIsIsolatedFromLoginsWithoutOpenInView() throws Exception {
+        ConnectionBulkheads bulkheads = bulkheads(true, 2, 100, ACCOUNT_PERMITS, 1);
+
+        int failed = runLoad(bulkheads, false);
+
+        // Account work holds at most its permits' worth of connections; the rest serve validation
+        assertEquals(0, failed, "user lookups failed while logins were signing tokens");
+        assertEquals(0, bulkheads.getRejected(Workload.VALIDATION));
+    }
+
+    @Test
+    public void testOpenInViewDefeatsTheBulkheads() throws Exception {
+        ConnectionBulkheads bulkheads = bulkheads(true, 2, 100, ACCOUNT_PERMITS, 1);
+
+        int failed = runLoad(bulkheads, true);
+
+        // Each login keeps its connection past the permit until the request ends, draining the pool
+        assertTrue(failed > 0, "expected user lookups to starve with open-in-view");
+    }
+
+    @Test
+    public void testCallFailsFastWhenNoPermitIsFree() {
+        ConnectionBulkheads bulkheads = bulkheads(true, 1, 20, 1, 1);
+
+        BulkheadFullException rejected = bulkheads.call(Workload.VALIDATION,
+                () -> assertThrows(BulkheadFullException.class, () -> bulkheads.call(Workload.VALIDATION, () -> "nested")));
+
+        assertNotNull(rejected);
+        assertEquals(1, bulkheads.getRejected(Workload.VALIDATION));
+        assertEquals(0, bulkheads.getInUse(Workload.VALIDATION));
+        // Other workloads are unaffected by a full validation bulkhead
+        assertEquals("ok", bulkheads.call(Workload.VALIDATION,
+                () -> bulkheads.call(Workload.ACCOUNT, () -> "ok")));
+    }
+
+    @Test
+    public void testDegradedMode() {
+        ConnectionBulkheads bulkheads = bulkheads(true, 1, 20, 1, 1);
+        assertFalse(bulkheads.acceptVerifiedWhenDegraded());
+
+        ReflectionTestUtils.setField(bulkheads, "validationDegradedMode", "verified");
+        bulkheads.init();
+        assertTrue(bulkheads.acceptVerifiedWhenDegraded());
+    }
+
+    // Validations that failed, either shed by the bulkhead or timed out waiting for a connection
+    private int runLoad(ConnectionBulkheads bulkheads, boolean openInView) throws Exception {
+        UserService userService = userService(bulkheads);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService load = Executors.newFixedThreadPool(LOGIN_THREADS);
+        try {
+            for (int i = 0; i < LOGIN_THREADS; i++) {
+                load.submit(() -> {
+                    while (running.get()) {
+                        request(openInView, () -> userService.login(username, "password"));
+                    }
+                });
+            }
+
+            int failed = 0;
+            for (int i = 0; i < VALIDATIONS; i++) {
+                try {
+                    UserPrincipal principal = bulkheads.call(Workload.VALIDATION,
+                            () -> userRepository.findPrincipalByName(username));
+                    assertEquals(username, principal.name());
+                } catch (RuntimeException e) {
+                    failed++;
+                }
+                Thread.sleep(20);
+            }
+            return failed;
+        } finally {
+            running.set(false);
+            load.shutdown();
+            assertTrue(load.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    // One request, with the EntityManager bound for its whole duration as OpenEntityManagerInViewInterceptor does
+    private void request(boolean openInView, Runnable work) {
+        EntityManager entityManager = null;
+        if (openInView) {
+            entityManager = entityManagerFactory.createEntityManager();
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        }
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            // Shed by the account bulkhead or timed out in the pool
+        } finally {
+            if (openInView) {
+                TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+                EntityManagerFactoryUtils.closeEntityManager(entityManager);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private UserService userService(ConnectionBulkheads bulkheads) {
+        // Signing, claims and notifications are stubbed; signing is slower than the connection timeout
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateToken(any(User.class), anyBoolean(), anyMap())).thenAnswer(invocation -> {
+            Thread.sleep(SIGNING_MILLIS);
+            return "jwt-" + UUID.randomUUID();
+        });
+        AuthorizationService authorizationService = mock(AuthorizationService.class);
+        when(authorizationService.compileClaims(any(User.class))).thenReturn(Map.of());
+
+        ReadYourWrites readYourWrites = new ReadYourWrites();
+        ReflectionTestUtils.setField(readYourWrites, "replicaUrls", "");
+        readYourWrites.init();
+
+        return new UserService(userRepository, tokenRepository, passwordEncoder, jwtService,
+                mock(KafkaTemplate.class), mock(EmailVerificationService.class), mock(RevocationService.class),
+                authorizationService, readYourWrites, bulkheads);
+    }
+
+    private static ConnectionBulkheads bulkheads(boolean enabled, int validationPermits, long validationTimeout,
+                                                 int accountPermits, int maintenancePermits) {
+        ConnectionBulkheads bulkheads = new ConnectionBulkheads();
+        ReflectionTestUtils.setField(bulkheads, "enabled", enabled);
+        ReflectionTestUtils.setField(bulkheads, "validationPermits", validationPermits);
+        ReflectionTestUtils.setField(bulkheads, "validationTimeout", validationTimeout);
+        ReflectionTestUtils.setField(bulkheads, "validationDegradedMode", "deny");
+        ReflectionTestUtils.setField(bulkheads, "accountPermits", accountPermits);
+        ReflectionTestUtils.setField(bulkheads, "accountTimeout", 2000L);
+        ReflectionTestUtils.setField(bulkheads, "maintenancePermits", maintenancePermits);
+        ReflectionTestUtils.setField(bulkheads, "maintenanceTimeout", 10000L);
+        bulkheads.init();
+        return bulkheads;
+    }
+
+    // The repositories on H2, wired as Spring Boot wires them, with a small pool
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    static class JpaConfig {
+
+        @Bean(destroyMethod = "close")
+        public HikariDataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:bulkheads-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            dataSource.setUsername("sa");
+            dataSource.setMaximumPoolSize(POOL_SIZE);
+            dataSource.setConnectionTimeout(CONNECTION_TIMEOUT);
+            return dataSource;
+        }
+
+        @Bean
+        public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+            vendorAdapter.setGenerateDdl(true);
+            LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+            entityManagerFactory.setDataSource(dataSource);
+            entityManagerFactory.setPackagesToScan(User.class.getPackageName());
+            entityManagerFactory.setJpaVendorAdapter(vendorAdapter);
+            // Spring Boot's column naming, which the entities' index definitions rely on
+            entityManagerFactory.getJpaPropertyMap().put("hibernate.physical_naming_strategy",
+                    CamelCaseToUnderscoresNamingStrategy.class.getName());
+            return entityManagerFactory;
+        }
+
+        @Bean
+        public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+}
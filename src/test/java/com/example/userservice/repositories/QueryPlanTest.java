@@ -0,0 +1,216 @@
+package com.example.userservice.repositories;
+
+import com.example.userservice.security.TokenDigest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAIN plans of the repository finders on a seeded dataset: ./gradlew queryPlanTest
+ * Runs only against the scratch MySQL database given by -Pplan.datasource.url, never the configured
+ * one, with the schema built by the Flyway migrations. Every hot query has to reach its rows
+ * through an index: no full table scan (type ALL) and no full index scan (type index). The SQL
+ * mirrors what Hibernate generates. The seeded rows are committed, since ANALYZE TABLE commits
+ * anyway, and removed afterwards.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "plan.datasource.url", matches = ".+")
+public class QueryPlanTest {
+
+    private static final String SEED = "plan-seed-";
+    private static final int USERS = 20_000;
+    private static final int TOKENS_PER_USER = 5;
+    private static final int ROLES = 200;
+    private static final int CHUNK = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void scratchDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("plan.datasource.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("plan.datasource.username", "root"));
+        registry.add("spring.datasource.password", () -> System.getProperty("plan.datasource.password", ""));
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @Test
+    public void testHotQueriesUseTheirIndexes() {
+        cleanUp();
+        try {
+            seed();
+
+            long userId = userId(42);
+            String active = token(12);
+            String digest = TokenDigest.sha256Hex(active);
+            String other = token(13);
+            String third = token(14);
+
+            assertAll(
+                    // UserRepository
+                    plan("existsByName", "idx_users_name_principal",
+                            "SELECT u.id FROM users u WHERE u.name = ? LIMIT 1", SEED + 42),
+                    plan("existsByEmail", null,
+                            "SELECT u.id FROM users u WHERE u.email = ? LIMIT 1", SEED + 42 + "@example.com"),
+                    plan("findByName", "idx_users_name_principal",
+                            "SELECT * FROM users u WHERE u.name = ?", SEED + 42),
+                    coveringPlan("findPrincipalByName", "idx_users_name_principal",
+                            "SELECT u.id, u.name, u.email, u.is_verified FROM users u WHERE u.name = ?", SEED + 42),
+                    plan("findRoleNamesByUserId", "PRIMARY",
+                            "SELECT r.role_name FROM users u JOIN user_roles ur ON ur.user_id = u.id "
+                                    + "JOIN roles r ON r.id = ur.role_id WHERE u.id = ? AND r.is_deleted = false", userId),
+                    plan("markUsersVerified", "PRIMARY",
+                            "UPDATE users SET is_verified = true WHERE id IN (?, ?, ?) AND is_verified = false",
+                            userId, userId(43), userId(44)),
+
+                    // TokenRepository
+                    plan("findActiveStatus", "idx_token_digest_status",
+                            "SELECT t.id, t.token_digest, t.expired_at FROM token t WHERE t.token_digest = ? "
+                                    + "AND t.token = ? AND t.is_deleted = false AND t.is_expired = false", digest, active),
+                    plan("findActiveStatusesByDigest", "idx_token_digest_status",
+                            "SELECT t.id, t.token_digest, t.expired_at FROM token t WHERE t.token_digest IN (?, ?, ?) "
+                                    + "AND t.token IN (?, ?, ?) AND t.is_deleted = false AND t.is_expired = false",
+                            digest, TokenDigest.sha256Hex(other), TokenDigest.sha256Hex(third), active, other, third),
+                    plan("findActiveOwner", "idx_token_digest_status",
+                            "SELECT t.id, t.expired_at, u.id, u.name, u.email FROM token t JOIN users u ON u.id = t.user_id "
+                                    + "WHERE t.token_digest = ? AND t.token = ? AND t.is_deleted = false "
+                                    + "AND t.is_expired = false", digest, active),
+                    plan("findByTokenAndIsDeletedFalse", "idx_token_digest_status",
+                            "SELECT * FROM token t WHERE t.token_digest = ? AND t.token = ? AND t.is_deleted = false",
+                            digest, active),
+                    plan("findByTokenAndIsDeletedFalseAndIsExpiredFalse", "idx_token_digest_status",
+                            "SELECT * FROM token t WHERE t.token_digest = ? AND t.token = ? AND t.is_deleted = false "
+                                    + "AND t.is_expired = false", digest, active),
+                    plan("findByUserAndIsDeletedFalseAndIsExpiredFalse", "idx_token_user_status",
+                            "SELECT * FROM token t WHERE t.user_id = ? AND t.is_deleted = false AND t.is_expired = false",
+                            userId),
+                    plan("markTokenAsDeleted", "idx_token_digest_status",
+                            "UPDATE token SET is_deleted = true WHERE token_digest = ? AND token = ? AND is_deleted = false",
+                            digest, active),
+                    plan("markAllUserTokensAsDeleted", "idx_token_user_status",
+                            "UPDATE token SET is_deleted = true WHERE user_id = ? AND is_deleted = false", userId),
+                    plan("markExpiredTokens", "idx_token_expiry",
+                            "UPDATE token SET is_expired = true WHERE expired_at < NOW(6) AND is_expired = false"),
+
+                    // RoleRepository; findAllRolePermissionNames reads every grant by design
+                    plan("findByRoleName", null,
+                            "SELECT * FROM roles r WHERE r.role_name = ?", "PLAN_SEED_ROLE_7"),
+                    plan("existsByRoleName", null,
+                            "SELECT r.id FROM roles r WHERE r.role_name = ? LIMIT 1", "PLAN_SEED_ROLE_7")
+            );
+        } finally {
+            cleanUp();
+        }
+    }
+
+    private Executable plan(String query, String expectedKey, String sql, Object... args) {
+        return () -> {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+            for (Map<String, Object> row : plan) {
+                assertNotEquals("ALL", row.get("type"), query + " scans " + row.get("table") + ": " + plan);
+                assertNotEquals("index", row.get("type"), query + " scans an index of " + row.get("table") + ": " + plan);
+                assertNotNull(row.get("key"), query + " reads " + row.get("table") + " without an index: " + plan);
+            }
+            if (expectedKey != null) {
+                assertTrue(plan.stream().anyMatch(row -> expectedKey.equals(row.get("key"))),
+                        query + " does not use " + expectedKey + ": " + plan);
+            }
+        };
+    }
+
+    // Answered from the index alone, without reading the rows
+    private Executable coveringPlan(String query, String expectedKey, String sql, Object... args) {
+        Executable indexed = plan(query, expectedKey, sql, args);
+        return () -> {
+            indexed.execute();
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+            assertTrue(String.valueOf(plan.get(0).get("Extra")).contains("Using index"),
+                    query + " reads the rows: " + plan);
+        };
+    }
+
+    private void seed() {
+        insert("INSERT INTO roles (created_at, updated_at, is_deleted, role_name) VALUES ",
+                "(NOW(6), NOW(6), false, ?)", ROLES, i -> new Object[]{"PLAN_SEED_ROLE_" + i});
+        insert("INSERT INTO permissions (created_at, updated_at, is_deleted, permission_name) VALUES ",
+                "(NOW(6), NOW(6), false, ?)", ROLES, i -> new Object[]{SEED + "permission:" + i});
+        insert("INSERT INTO users (created_at, updated_at, is_deleted, name, email, password, is_verified) VALUES ",
+                "(NOW(6), NOW(6), false, ?, ?, ?, ?)", USERS,
+                i -> new Object[]{SEED + i, SEED + i + "@example.com", "$2a$10$" + "h".repeat(53), i % 3 != 0});
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) SELECT u.id, r.id FROM users u JOIN roles r "
+                + "ON r.role_name = CONCAT('PLAN_SEED_ROLE_', CAST(SUBSTRING(u.name, ?) AS UNSIGNED) % ?) "
+                + "WHERE u.name LIKE ?", SEED.length() + 1, ROLES, SEED + "%");
+        jdbcTemplate.update("INSERT INTO role_permissions (role_id, permission_id) SELECT r.id, p.id FROM roles r "
+                + "JOIN permissions p ON p.permission_name = CONCAT(?, SUBSTRING(r.role_name, 16)) "
+                + "WHERE r.role_name LIKE 'PLAN\\_SEED\\_ROLE\\_%'", SEED + "permission:");
+
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE name LIKE ? ORDER BY id",
+                Long.class, SEED + "%");
+        long now = System.currentTimeMillis();
+        insert("INSERT INTO token (created_at, updated_at, is_deleted, token, token_digest, user_id, is_expired, expired_at) "
+                        + "VALUES ", "(NOW(6), NOW(6), ?, ?, ?, ?, ?, ?)", USERS * TOKENS_PER_USER,
+                i -> {
+                    String token = token(i);
+                    // Mostly live tokens; a tenth expired, a seventh revoked, and 1% due for markExpiredTokens
+                    boolean expired = i % 10 == 0;
+                    boolean due = i % 100 == 1;
+                    long expiredAt = expired || due ? now - 3_600_000 : now + 3_600_000;
+                    return new Object[]{i % 7 == 0, token, TokenDigest.sha256Hex(token),
+                            userIds.get(i / TOKENS_PER_USER), expired, new Timestamp(expiredAt)};
+                });
+
+        jdbcTemplate.execute("ANALYZE TABLE users, roles, permissions, user_roles, role_permissions, token");
+    }
+
+    // Multi-row inserts, CHUNK rows per statement
+    private void insert(String insert, String values, int count, IntFunction<Object[]> row) {
+        for (int start = 0; start < count; start += CHUNK) {
+            int rows = Math.min(CHUNK, count - start);
+            List<Object> args = new ArrayList<>();
+            for (int i = start; i < start + rows; i++) {
+                Collections.addAll(args, row.apply(i));
+            }
+            jdbcTemplate.update(insert + String.join(", ", Collections.nCopies(rows, values)), args.toArray());
+        }
+    }
+
+    private void cleanUp() {
+        String seededUsers = "SELECT id FROM (SELECT id FROM users WHERE name LIKE '" + SEED + "%') seeded";
+        jdbcTemplate.update("DELETE FROM role_permissions WHERE role_id IN "
+                + "(SELECT id FROM roles WHERE role_name LIKE 'PLAN\\_SEED\\_ROLE\\_%')");
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + seededUsers + ")");
+        jdbcTemplate.update("DELETE FROM token WHERE user_id IN (" + seededUsers + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE name LIKE ?", SEED + "%");
+        jdbcTemplate.update("DELETE FROM roles WHERE role_name LIKE 'PLAN\\_SEED\\_ROLE\\_%'");
+        jdbcTemplate.update("DELETE FROM permissions WHERE permission_name LIKE ?", SEED + "%");
+    }
+
+    private long userId(int i) {
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE name = ?", Long.class, SEED + i);
+    }
+
+    // About the size of a login token
+    private static String token(int i) {
+        return "eyJhbGciOiJIUzI1NiJ9." + SEED + i + "." + "p".repeat(300);
+    }
+}
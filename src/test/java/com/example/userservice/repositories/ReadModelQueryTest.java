@@ -0,0 +1,169 @@
+package com.example.userservice.repositories;
+
+import com.example.userservice.models.Token;
+import com.example.userservice.models.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statements, entity loads and bytes read by the hot-path read models, against the entity
+ * finders they replace
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.userservice.repositories.ReadModelQueryTest$RecordingInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ReadModelQueryTest {
+
+    private static final Pattern TOKEN_COLUMN = Pattern.compile("\\.token\\b");
+    private static final Pattern PASSWORD_COLUMN = Pattern.compile("\\.password\\b");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+
+    private String jwt;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setName("read-model-user");
+        user.setEmail("read-model-user@example.com");
+        user.setPassword("$2a$10$" + "h".repeat(53));
+        user.setVerified(true);
+        entityManager.persist(user);
+
+        // About the size of a login token with compiled roles and permissions
+        jwt = "eyJhbGciOiJIUzI1NiJ9." + "p".repeat(600) + ".signature";
+        Token token = new Token();
+        token.setToken(jwt);
+        token.setUser(user);
+        token.setExpired(false);
+        token.setExpiredAt(new Date(System.currentTimeMillis() + 3600000));
+        entityManager.persist(token);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    public void testTokenStatus_oneStatementWithoutTokenValue() {
+        TokenStatus status = tokenRepository.findActiveStatus(jwt).orElseThrow();
+
+        assertNotNull(status.expiredAt());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(TOKEN_COLUMN.matcher(selectList()).find(), selectList());
+        assertTrue(payloadBytes(status.id(), status.tokenDigest(), status.expiredAt()) < 100);
+    }
+
+    @Test
+    public void testTokenStatus_batch() {
+        List<TokenStatus> statuses = tokenRepository.findActiveStatusesByDigest(
+                Set.of(status().tokenDigest()), Set.of(jwt));
+
+        assertEquals(1, statuses.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(TOKEN_COLUMN.matcher(selectList()).find(), selectList());
+    }
+
+    @Test
+    public void testTokenOwner_oneJoinInsteadOfLazyUserLoad() {
+        TokenOwner owner = tokenRepository.findActiveOwner(jwt).orElseThrow();
+
+        assertEquals("read-model-user", owner.username());
+        assertEquals("read-model-user@example.com", owner.email());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(TOKEN_COLUMN.matcher(selectList()).find(), selectList());
+        assertFalse(PASSWORD_COLUMN.matcher(selectList()).find(), selectList());
+        long projectionBytes = payloadBytes(owner.tokenId(), owner.expiredAt(), owner.userId(), owner.username(), owner.email());
+
+        // The entity finder it replaces: the whole row, then a second statement for the user
+        statistics.clear();
+        Token token = tokenRepository.findByTokenAndIsDeletedFalseAndIsExpiredFalse(jwt).orElseThrow();
+        User user = token.getUser();
+        assertEquals("read-model-user", user.getName());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        long entityBytes = payloadBytes(token.getId(), token.getToken(), token.getTokenDigest(), token.getExpiredAt(),
+                user.getId(), user.getName(), user.getEmail(), user.getPassword());
+
+        assertTrue(projectionBytes * 5 < entityBytes, projectionBytes + " vs " + entityBytes + " bytes");
+    }
+
+    @Test
+    public void testUserPrincipal_withoutPasswordHash() {
+        UserPrincipal principal = userRepository.findPrincipalByName("read-model-user");
+
+        assertEquals("read-model-user@example.com", principal.email());
+        assertTrue(principal.verified());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(PASSWORD_COLUMN.matcher(selectList()).find(), selectList());
+        assertNull(userRepository.findPrincipalByName("no-such-user"));
+    }
+
+    private TokenStatus status() {
+        TokenStatus status = tokenRepository.findActiveStatus(jwt).orElseThrow();
+        statistics.clear();
+        RecordingInspector.STATEMENTS.clear();
+        return status;
+    }
+
+    // Select list of the last statement
+    private static String selectList() {
+        String sql = RecordingInspector.STATEMENTS.get(RecordingInspector.STATEMENTS.size() - 1).toLowerCase();
+        return sql.substring(sql.indexOf("select") + 6, sql.indexOf(" from "));
+    }
+
+    // Bytes a row read carries: strings as UTF-8, other values as 8
+    private static long payloadBytes(Object... values) {
+        long bytes = 0;
+        for (Object value : values) {
+            bytes += value instanceof String string ? string.getBytes(StandardCharsets.UTF_8).length : 8;
+        }
+        return bytes;
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.userservice.repositories;
+
+import com.example.userservice.services.AuthorizationService;
+import com.example.userservice.services.EmailVerificationService;
+import com.example.userservice.services.JwtService;
+import com.example.userservice.services.RevocationService;
+import com.example.userservice.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Routing against embedded H2 databases standing in for the primary and two replicas;
+ * each database answers with its own name
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private ReadYourWrites readYourWrites;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource primary = database("primary");
+        ReplicaRoutingDataSource replicas = new ReplicaRoutingDataSource(primary,
+                List.of(database("replica-1"), database("replica-2")));
+
+        // Same wiring as ReadReplicaDataSourceConfig
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicas);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+
+        readYourWrites = new ReadYourWrites();
+        ReflectionTestUtils.setField(readYourWrites, "replicaUrls", "jdbc:h2:mem:replica-1");
+        ReflectionTestUtils.setField(readYourWrites, "window", 5000L);
+        ReflectionTestUtils.setField(readYourWrites, "maximumSize", 100L);
+        readYourWrites.init();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseReplicas_roundRobin() {
+        assertEquals("replica-1", readOnly.execute(status -> databaseName()));
+        assertEquals("replica-2", readOnly.execute(status -> databaseName()));
+        assertEquals("replica-1", readOnly.execute(status -> databaseName()));
+    }
+
+    @Test
+    public void testWritesUsePrimary() {
+        assertEquals("primary", readWrite.execute(status -> databaseName()));
+        // Outside a transaction the connection is not read-only either
+        assertEquals("primary", databaseName());
+    }
+
+    @Test
+    public void testRecentWritesAreReadFromPrimary() {
+        readYourWrites.written("token_a");
+
+        assertEquals("primary", readYourWrites.read("token_a", () -> readOnly.execute(status -> databaseName())));
+        assertEquals("primary", readYourWrites.readAll(List.of("token_b", "token_a"),
+                () -> readOnly.execute(status -> databaseName())));
+        assertTrue(readYourWrites.read("token_b", () -> readOnly.execute(status -> databaseName())).startsWith("replica"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testJustSignedUpUserIsLoadedFromPrimary() {
+        // The principal's name says which database answered the lookup
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findPrincipalByName(anyString())).thenAnswer(invocation ->
+                new UserPrincipal(1L, readOnly.execute(status -> databaseName()), "alice@example.com", false));
+        UserService userService = new UserService(userRepository, mock(TokenRepository.class),
+                mock(BCryptPasswordEncoder.class), mock(JwtService.class), mock(KafkaTemplate.class),
+                mock(EmailVerificationService.class), mock(RevocationService.class),
+                mock(AuthorizationService.class), readYourWrites, new ConnectionBulkheads());
+
+        // As signupUser records it
+        readYourWrites.written("alice");
+
+        assertEquals("primary", userService.getUserPrincipal("alice").name());
+        assertTrue(userService.getUserPrincipal("bob").name().startsWith("replica"));
+    }
+
+    @Test
+    public void testRecentWritesExpireAfterWindow() throws InterruptedException {
+        ReflectionTestUtils.setField(readYourWrites, "window", 50L);
+        readYourWrites.init();
+        readYourWrites.written("token_a");
+
+        Thread.sleep(100);
+
+        assertTrue(readYourWrites.read("token_a", () -> readOnly.execute(status -> databaseName())).startsWith("replica"));
+    }
+
+    @Test
+    public void testDisabledWithoutReplicas() {
+        ReadYourWrites disabled = new ReadYourWrites();
+        ReflectionTestUtils.setField(disabled, "replicaUrls", "");
+        disabled.init();
+        disabled.written("token_a");
+
+        assertTrue(disabled.read("token_a", () -> readOnly.execute(status -> databaseName())).startsWith("replica"));
+    }
+
+    private String databaseName() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
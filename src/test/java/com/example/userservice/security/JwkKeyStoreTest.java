@@ -0,0 +1,127 @@
+package com.example.userservice.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwkKeyStoreTest {
+
+    private static final Duration ROTATION = Duration.ofDays(30);
+    private static final Duration PUBLISH_AHEAD = Duration.ofDays(1);
+    private static final Duration RETENTION = Duration.ofDays(1);
+    private static final JWKSelector ALL_KEYS = new JWKSelector(new JWKMatcher.Builder().build());
+
+    @TempDir
+    Path directory;
+
+    private Path keystore;
+    private Instant start;
+
+    @BeforeEach
+    public void setUp() {
+        keystore = directory.resolve("jwks.json");
+        start = Instant.parse("2026-01-01T00:00:00Z");
+    }
+
+    @Test
+    public void testFirstStartCreatesKeystore_laterStartsOnlyLoadIt() throws Exception {
+        JwkKeyStore first = store(start);
+        String keyId = first.current().signingKey(start).getKeyID();
+        assertTrue(Files.exists(keystore));
+
+        JwkKeyStore restarted = store(start.plus(Duration.ofHours(1)));
+
+        assertEquals(keyId, restarted.current().signingKey(start.plus(Duration.ofHours(1))).getKeyID());
+        assertEquals(1, restarted.current().byActivation().size());
+    }
+
+    @Test
+    public void testNextKeyIsPublishedBeforeItSigns() throws Exception {
+        JwkKeyStore store = store(start);
+        String currentKeyId = store.current().signingKey(start).getKeyID();
+
+        // Inside the publish-ahead window of the first key's rotation
+        Instant beforeRotation = start.plus(ROTATION).minus(Duration.ofHours(12));
+        setClock(store, beforeRotation);
+        store.refresh();
+
+        List<JWK> published = store.jwkSource().get(ALL_KEYS, null);
+        assertEquals(2, published.size());
+        assertEquals(currentKeyId, signingKeyId(store));
+
+        setClock(store, start.plus(ROTATION));
+        assertNotEquals(currentKeyId, signingKeyId(store));
+        // The retired key still verifies tokens it signed
+        assertTrue(store.jwkSource().get(ALL_KEYS, null).stream().anyMatch(key -> key.getKeyID().equals(currentKeyId)));
+    }
+
+    @Test
+    public void testRetiredKeysAreDroppedAfterRetention() throws Exception {
+        JwkKeyStore store = store(start);
+        String firstKeyId = store.current().signingKey(start).getKeyID();
+        setClock(store, start.plus(ROTATION).minus(Duration.ofHours(12)));
+        store.refresh();
+
+        setClock(store, start.plus(ROTATION).plus(RETENTION).plus(Duration.ofHours(1)));
+        store.refresh();
+
+        List<RSAKey> keys = store.current().byActivation();
+        assertTrue(keys.stream().noneMatch(key -> key.getKeyID().equals(firstKeyId)));
+        assertEquals(keys, store(start.plus(ROTATION).plus(RETENTION).plus(Duration.ofHours(1))).current().byActivation());
+    }
+
+    @Test
+    public void testOtherInstancesPickUpRotation() throws Exception {
+        JwkKeyStore writer = store(start);
+        JwkKeyStore reader = store(start);
+        long version = reader.current().version();
+
+        Instant beforeRotation = start.plus(ROTATION).minus(Duration.ofHours(12));
+        setClock(writer, beforeRotation);
+        writer.refresh();
+        // Make sure the modification time differs on coarse-grained file systems
+        Files.setLastModifiedTime(keystore, FileTime.from(Instant.now().plusSeconds(5)));
+        setClock(reader, beforeRotation);
+        reader.refresh();
+
+        assertEquals(2, reader.current().byActivation().size());
+        assertTrue(reader.current().version() > version);
+    }
+
+    private String signingKeyId(JwkKeyStore store) throws Exception {
+        List<JWK> signing = store.signingKeySource().get(ALL_KEYS, null);
+        assertEquals(1, signing.size());
+        return signing.get(0).getKeyID();
+    }
+
+    private JwkKeyStore store(Instant now) {
+        JwkKeyStore store = new JwkKeyStore();
+        ReflectionTestUtils.setField(store, "keystorePath", keystore.toString());
+        ReflectionTestUtils.setField(store, "rotationInterval", ROTATION.toMillis());
+        ReflectionTestUtils.setField(store, "publishAhead", PUBLISH_AHEAD.toMillis());
+        ReflectionTestUtils.setField(store, "retention", RETENTION.toMillis());
+        setClock(store, now);
+        store.init();
+        return store;
+    }
+
+    private static void setClock(JwkKeyStore store, Instant now) {
+        ReflectionTestUtils.setField(store, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
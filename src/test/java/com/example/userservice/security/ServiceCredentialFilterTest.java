@@ -0,0 +1,61 @@
+package com.example.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceCredentialFilterTest {
+
+    private final ServiceCredentialFilter filter = new ServiceCredentialFilter("internal-secret");
+
+    @Test
+    public void testMatchingCredential_isPassedThrough() throws Exception {
+        MockHttpServletRequest request = request("/api/v1/auth/validate-token");
+        request.addHeader(ServiceCredentialFilter.HEADER, "internal-secret");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void testMissingOrWrongCredential_isRejected() throws Exception {
+        for (String credential : new String[]{null, "", "internal-secre", "internal-secret-but-longer"}) {
+            MockHttpServletRequest request = request("/api/v1/auth/validate-token");
+            if (credential != null) {
+                request.addHeader(ServiceCredentialFilter.HEADER, credential);
+            }
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(request, response, chain);
+
+            assertEquals(401, response.getStatus());
+            assertEquals("{\"error\": \"Service credential required\"}", response.getContentAsString());
+            assertNull(chain.getRequest());
+        }
+    }
+
+    @Test
+    public void testHealthAndUnconfiguredCredential_areNotChecked() throws Exception {
+        MockFilterChain healthChain = new MockFilterChain();
+        filter.doFilter(request("/api/v1/auth/health"), new MockHttpServletResponse(), healthChain);
+        assertNotNull(healthChain.getRequest());
+
+        ServiceCredentialFilter disabled = new ServiceCredentialFilter(" ");
+        MockFilterChain chain = new MockFilterChain();
+        disabled.doFilter(request("/api/v1/auth/validate-token"), new MockHttpServletResponse(), chain);
+        assertFalse(disabled.isEnabled());
+        assertNotNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.userservice.services;
+
+import com.example.userservice.models.Permission;
+import com.example.userservice.models.User;
+import com.example.userservice.repositories.PermissionRepository;
+import com.example.userservice.repositories.RoleRepository;
+import com.example.userservice.repositories.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class AuthorizationServiceTest {
+
+    @InjectMocks
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    private PermissionDictionary permissionDictionary;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        permissionDictionary = new PermissionDictionary();
+        ReflectionTestUtils.setField(permissionDictionary, "permissionRepository", permissionRepository);
+        ReflectionTestUtils.setField(permissionDictionary, "roleRepository", roleRepository);
+        ReflectionTestUtils.setField(authorizationService, "permissionDictionary", permissionDictionary);
+        ReflectionTestUtils.setField(authorizationService, "decisionCacheSize", 1000L);
+        authorizationService.init();
+
+        loadDictionary(List.of(new Object[]{"ADMIN", "users:write"}, new Object[]{"SUPPORT", "orders:read"}));
+    }
+
+    @Test
+    public void testCompiledClaims_answerWithBitTest() {
+        Claims claims = compileFor(List.of("SUPPORT"));
+
+        assertTrue(authorizationService.authorize(claims, "support", "orders:read").authorized());
+        assertTrue(authorizationService.authorize(claims, null, null).authorized());
+        assertFalse(authorizationService.authorize(claims, null, "users:write").authorized());
+        assertFalse(authorizationService.authorize(claims, "ADMIN", null).authorized());
+        assertFalse(authorizationService.authorize(claims, null, "unknown:permission").authorized());
+        assertEquals(List.of("orders:read"), authorizationService.permissionNames(claims));
+    }
+
+    @Test
+    public void testStaleDictionaryVersion_isReevaluatedFromRoles() {
+        Claims claims = compileFor(List.of("SUPPORT"));
+
+        // SUPPORT is granted users:write after the token was issued
+        loadDictionary(List.of(new Object[]{"ADMIN", "users:write"}, new Object[]{"SUPPORT", "orders:read"},
+                new Object[]{"SUPPORT", "users:write"}));
+
+        assertTrue(authorizationService.hasPermission(claims, "users:write"));
+        assertEquals(List.of("orders:read", "users:write"), authorizationService.permissionNames(claims));
+    }
+
+    @Test
+    public void testWildcardGrants_areMatchedOutsideTheDictionary() {
+        loadDictionary(List.of(new Object[]{"ADMIN", "users:*"}, new Object[]{"SUPPORT", "orders:*:read"}));
+        Claims claims = compileFor(List.of("SUPPORT"));
+
+        assertTrue(authorizationService.hasPermission(claims, "orders:42:read"));
+        assertFalse(authorizationService.hasPermission(claims, "orders:read"));
+        assertFalse(authorizationService.hasPermission(claims, "orders:42:write"));
+        assertFalse(authorizationService.hasPermission(claims, "users:write"));
+
+        // Decisions are cached per dictionary version, so a new grant is seen immediately
+        loadDictionary(List.of(new Object[]{"SUPPORT", "users:*"}));
+        assertTrue(authorizationService.hasPermission(claims, "users:write"));
+        assertFalse(authorizationService.hasPermission(claims, "orders:42:read"));
+    }
+
+    private Claims compileFor(List<String> roles) {
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findRoleNamesByUserId(1L)).thenReturn(roles);
+
+        Map<String, Object> compiled = authorizationService.compileClaims(user);
+        return Jwts.claims().subject("alice").add(compiled).build();
+    }
+
+    private void loadDictionary(List<Object[]> grants) {
+        List<Permission> permissions = new ArrayList<>();
+        for (String name : List.of("orders:read", "users:write")) {
+            Permission permission = new Permission();
+            permission.setPermissionName(name);
+            permissions.add(permission);
+        }
+        when(permissionRepository.findByIsDeletedFalseOrderByPermissionNameAsc()).thenReturn(permissions);
+        when(roleRepository.findAllRolePermissionNames()).thenReturn(grants);
+        permissionDictionary.refresh();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.userservice.services;
+
+import com.example.userservice.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class EmailVerificationBatchUpdaterTest {
+
+    @InjectMocks
+    private EmailVerificationBatchUpdater batchUpdater;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(batchUpdater, "maxBatchSize", 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlush_coalescesRepeatedClicks() {
+        batchUpdater.flush(List.of("1", "1", "2", "1"));
+
+        ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository, times(1)).markUsersVerified(captor.capture());
+        assertEquals(List.of(1L, 2L), List.copyOf(captor.getValue()));
+    }
+
+    @Test
+    public void testFlush_updatesInChunks() {
+        batchUpdater.flush(List.of("1", "2", "3", "not-an-id"));
+
+        verify(userRepository).markUsersVerified(List.of(1L, 2L));
+        verify(userRepository).markUsersVerified(List.of(3L));
+    }
+
+    @Test
+    public void testFlush_failsSoTheBatchIsRedelivered() {
+        when(userRepository.markUsersVerified(anyCollection())).thenThrow(new RuntimeException("db down"));
+
+        assertThrows(RuntimeException.class, () -> batchUpdater.flush(List.of("1")));
+    }
+}
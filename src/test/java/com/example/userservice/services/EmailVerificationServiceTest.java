@@ -0,0 +1,77 @@
+package com.example.userservice.services;
+
+import com.example.userservice.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmailVerificationServiceTest {
+
+    @InjectMocks
+    private EmailVerificationService emailVerificationService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(emailVerificationService, "verificationSecret", "a-string-secret-at-least-256-bits-long");
+        ReflectionTestUtils.setField(emailVerificationService, "linkExpiration", 3600000L);
+        ReflectionTestUtils.setField(emailVerificationService, "baseUrl", "http://localhost:8080");
+        ReflectionTestUtils.setField(emailVerificationService, "recentTtl", 60000L);
+        ReflectionTestUtils.setField(emailVerificationService, "recentMaxSize", 1000L);
+        emailVerificationService.init();
+    }
+
+    @Test
+    public void testVerifyEmail() {
+        UriComponents link = generateLink(42L);
+
+        boolean verified = emailVerificationService.verifyEmail(
+                Long.valueOf(link.getQueryParams().getFirst("uid")),
+                Long.parseLong(link.getQueryParams().getFirst("expires")),
+                link.getQueryParams().getFirst("signature"));
+
+        assertTrue(verified);
+        // Recorded by the caller once the update has committed
+        assertFalse(emailVerificationService.isRecentlyVerified(42L));
+        emailVerificationService.verified(42L);
+        assertTrue(emailVerificationService.isRecentlyVerified(42L));
+    }
+
+    @Test
+    public void testVerifyEmail_whenUserIdIsTampered() {
+        UriComponents link = generateLink(42L);
+
+        boolean verified = emailVerificationService.verifyEmail(
+                43L,
+                Long.parseLong(link.getQueryParams().getFirst("expires")),
+                link.getQueryParams().getFirst("signature"));
+
+        assertFalse(verified);
+    }
+
+    @Test
+    public void testVerifyEmail_whenLinkIsExpired() {
+        ReflectionTestUtils.setField(emailVerificationService, "linkExpiration", -1000L);
+        UriComponents link = generateLink(42L);
+
+        boolean verified = emailVerificationService.verifyEmail(
+                42L,
+                Long.parseLong(link.getQueryParams().getFirst("expires")),
+                link.getQueryParams().getFirst("signature"));
+
+        assertFalse(verified);
+    }
+
+    private UriComponents generateLink(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        return UriComponentsBuilder.fromUriString(emailVerificationService.generateVerificationLink(user)).build();
+    }
+}
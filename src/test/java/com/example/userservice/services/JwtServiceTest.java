@@ -1,12 +1,18 @@
 package com.example.userservice.services;
 
 import com.example.userservice.models.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Date;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JwtServiceTest {
 
@@ -33,5 +39,61 @@ public class JwtServiceTest {
         assertNotNull(token);
         assertEquals("testuser", jwtService.extractUsername(token));
     }
-}
 
+    @Test
+    public void testVerify_acceptsIssuedTokens() {
+        String token = jwtService.generateToken(user());
+
+        ValidationResult result = jwtService.verify(token);
+
+        assertTrue(result.isValid());
+        assertEquals("testuser", result.claims().getSubject());
+        assertEquals(1, ((Number) result.claims().get("userId")).intValue());
+        assertTrue(jwtService.validateToken(token, "testuser"));
+        assertFalse(jwtService.validateToken(token, "someoneelse"));
+    }
+
+    @Test
+    public void testVerify_reportsOutcomesWithoutThrowing() {
+        String token = jwtService.generateToken(user());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertEquals(ValidationOutcome.MISSING, jwtService.verify("").outcome());
+        assertEquals(ValidationOutcome.MALFORMED, jwtService.verify("not-a-token").outcome());
+        assertEquals(ValidationOutcome.MALFORMED, jwtService.verify("a.b.c.d").outcome());
+        assertEquals(ValidationOutcome.MALFORMED, jwtService.verify("eyJ!.eyJ.sig").outcome());
+        assertEquals(ValidationOutcome.BAD_SIGNATURE, jwtService.verify(tampered).outcome());
+        assertEquals(ValidationOutcome.BAD_SIGNATURE, jwtService.verify("eyJhbGciOiJub25lIn0.eyJzdWIiOiJ4In0.c2ln").outcome());
+    }
+
+    @Test
+    public void testVerify_checksExpirationIssuerAndAudience() {
+        Date past = new Date(System.currentTimeMillis() - 60000);
+
+        assertEquals(ValidationOutcome.EXPIRED, jwtService.verify(sign("user-service", "user-service-clients", past)).outcome());
+        assertEquals(ValidationOutcome.INVALID_CLAIMS, jwtService.verify(sign("someone-else", "user-service-clients", null)).outcome());
+        assertEquals(ValidationOutcome.INVALID_CLAIMS, jwtService.verify(sign("user-service", "other-clients", null)).outcome());
+
+        ReflectionTestUtils.setField(jwtService, "clockSkewSeconds", 120L);
+        assertTrue(jwtService.verify(sign("user-service", "user-service-clients", past)).isValid());
+    }
+
+    private String sign(String issuer, String audience, Date expiration) {
+        return Jwts.builder()
+                .issuer(issuer)
+                .subject("testuser")
+                .audience().add(audience).and()
+                .issuedAt(new Date())
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor("a-string-secret-at-least-256-bits-long".getBytes()))
+                .compact();
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("testuser");
+        user.setEmail("testuser@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.userservice.services;
+
+import com.example.userservice.models.Permission;
+import com.example.userservice.repositories.PermissionRepository;
+import com.example.userservice.repositories.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class PermissionDictionaryTest {
+
+    @InjectMocks
+    private PermissionDictionary permissionDictionary;
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testRefresh_compilesRoleBitsets() {
+        load(List.of("orders:read", "orders:write", "users:read"),
+                List.of(new Object[]{"ADMIN", "orders:write"}, new Object[]{"ADMIN", "users:read"},
+                        new Object[]{"SUPPORT", "orders:read"}));
+
+        PermissionDictionary.Snapshot snapshot = permissionDictionary.current();
+
+        assertEquals(List.of("orders:write", "users:read"), snapshot.namesOf(snapshot.permissionsFor(List.of("ADMIN"))));
+        assertEquals(3, snapshot.permissionsFor(List.of("ADMIN", "SUPPORT")).cardinality());
+        assertTrue(snapshot.permissionsFor(List.of("UNKNOWN")).isEmpty());
+    }
+
+    @Test
+    public void testRefresh_bumpsVersionWhenGrantsChange() {
+        load(List.of("orders:read"), List.of());
+        String before = permissionDictionary.current().version();
+
+        load(List.of("orders:read"), List.of(new Object[]{"SUPPORT", "orders:read"}));
+
+        assertNotEquals(before, permissionDictionary.current().version());
+    }
+
+    @Test
+    public void testTestBit_matchesEncodedBitset() {
+        for (int size : new int[]{1, 7, 8, 9, 23, 24, 25, 200}) {
+            BitSet bits = new BitSet();
+            for (int i = 0; i < size; i += 3) {
+                bits.set(i);
+            }
+            bits.set(size - 1);
+            String encoded = PermissionDictionary.Snapshot.encode(bits);
+
+            for (int i = 0; i < size + 16; i++) {
+                assertEquals(bits.get(i), PermissionDictionary.Snapshot.testBit(encoded, i), "bit " + i + " of " + size);
+            }
+            assertEquals(bits, PermissionDictionary.Snapshot.decode(encoded));
+        }
+    }
+
+    private void load(List<String> permissionNames, List<Object[]> grants) {
+        List<Permission> permissions = new ArrayList<>();
+        for (String name : permissionNames) {
+            Permission permission = new Permission();
+            permission.setPermissionName(name);
+            permissions.add(permission);
+        }
+        when(permissionRepository.findByIsDeletedFalseOrderByPermissionNameAsc()).thenReturn(permissions);
+        when(roleRepository.findAllRolePermissionNames()).thenReturn(grants);
+        permissionDictionary.refresh();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.userservice.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PermissionMatcherTest {
+
+    private final PermissionMatcher matcher = PermissionMatcher.compile(Map.of(
+            "ADMIN", List.of("*"),
+            "SUPPORT", List.of("orders:read", "orders:*:read", "tickets:*"),
+            "AUDITOR", List.of("*:read")));
+
+    @Test
+    public void testExactAndSegmentWildcards() {
+        assertTrue(matcher.matches(List.of("SUPPORT"), "orders:read"));
+        assertTrue(matcher.matches(List.of("SUPPORT"), "orders:42:read"));
+        assertFalse(matcher.matches(List.of("SUPPORT"), "orders:42:write"));
+        assertFalse(matcher.matches(List.of("SUPPORT"), "orders:write"));
+        assertFalse(matcher.matches(List.of("SUPPORT"), "orders"));
+
+        assertTrue(matcher.matches(List.of("AUDITOR"), "users:read"));
+        assertFalse(matcher.matches(List.of("AUDITOR"), "users:42:read"));
+    }
+
+    @Test
+    public void testTrailingWildcard_matchesAnyDepth() {
+        assertTrue(matcher.matches(List.of("SUPPORT"), "tickets:close"));
+        assertTrue(matcher.matches(List.of("SUPPORT"), "tickets:42:comments:write"));
+        assertTrue(matcher.matches(List.of("ADMIN"), "users:write"));
+    }
+
+    @Test
+    public void testRequestedWildcard_isLiteral() {
+        assertTrue(matcher.matches(List.of("SUPPORT"), "tickets:*"));
+        assertTrue(matcher.matches(List.of("SUPPORT"), "orders:*:read"));
+        assertFalse(matcher.matches(List.of("AUDITOR"), "*"));
+        assertFalse(matcher.matches(List.of("SUPPORT"), "orders:*"));
+    }
+
+    @Test
+    public void testRoles_areUnioned() {
+        assertFalse(matcher.matches(List.of("AUDITOR"), "tickets:close"));
+        assertTrue(matcher.matches(List.of("AUDITOR", "SUPPORT"), "tickets:close"));
+        assertFalse(matcher.matches(List.of("UNKNOWN"), "orders:read"));
+        assertFalse(matcher.matches(List.of(), "orders:read"));
+        assertFalse(PermissionMatcher.EMPTY.matches(List.of("ADMIN"), "orders:read"));
+    }
+}
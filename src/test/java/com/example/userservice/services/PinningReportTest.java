@@ -0,0 +1,63 @@
+package com.example.userservice.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PinningReportTest {
+
+    private PinningReport pinningReport;
+
+    @BeforeEach
+    public void setUp() {
+        // init() is not called: these tests feed events directly instead of streaming from JFR
+        pinningReport = new PinningReport();
+        ReflectionTestUtils.setField(pinningReport, "thresholdMillis", 20L);
+        ReflectionTestUtils.setField(pinningReport, "maxSites", 2);
+    }
+
+    @Test
+    public void testSiteOf_blockingFrameAndApplicationCaller() {
+        String site = PinningReport.siteOf(List.of(
+                "java.lang.Object.wait0:-1",
+                "java.lang.Object.wait:366",
+                "org.apache.kafka.clients.producer.internals.ProducerMetadata.awaitUpdate:122",
+                "org.apache.kafka.clients.producer.KafkaProducer.send:1003",
+                "com.example.userservice.services.UserService.signupUser:87"));
+
+        assertEquals("org.apache.kafka.clients.producer.internals.ProducerMetadata.awaitUpdate:122"
+                + " <- com.example.userservice.services.UserService.signupUser:87", site);
+    }
+
+    @Test
+    public void testSiteOf_applicationFrameOnly() {
+        assertEquals("com.example.userservice.services.Foo.bar:10",
+                PinningReport.siteOf(List.of("java.lang.Thread.sleep:500", "com.example.userservice.services.Foo.bar:10")));
+        assertEquals("java.lang.Thread.sleep:500", PinningReport.siteOf(List.of("java.lang.Thread.sleep:500")));
+        assertEquals("(no stack trace)", PinningReport.siteOf(List.of()));
+    }
+
+    @Test
+    public void testTopSites_aggregatesAndBoundsSites() {
+        pinningReport.record("a", Duration.ofMillis(30));
+        pinningReport.record("a", Duration.ofMillis(50));
+        pinningReport.record("b", Duration.ofMillis(25));
+        pinningReport.record("c", Duration.ofMillis(40));
+
+        List<PinningReport.SiteStats> sites = pinningReport.topSites(10);
+
+        assertEquals(3, sites.size());
+        assertEquals("a", sites.get(0).site());
+        assertEquals(2, sites.get(0).pinned());
+        assertEquals(80.0, sites.get(0).totalMillis(), 0.001);
+        assertEquals(50.0, sites.get(0).maxMillis(), 0.001);
+        // Past maxSites new sites are folded into one entry
+        assertTrue(sites.stream().anyMatch(stats -> stats.site().equals(PinningReport.OTHER_SITES)));
+        assertEquals(1, pinningReport.topSites(1).size());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.userservice.services;
+
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.repositories.ReactiveTokenStore;
+import com.example.userservice.repositories.TokenRepository;
+import com.example.userservice.repositories.TokenStatus;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ReactiveTokenValidationServiceTest {
+
+    @InjectMocks
+    private TokenValidationService tokenValidationService;
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @Mock
+    private TokenVerificationCache tokenVerificationCache;
+
+    @Mock
+    private RevocationService revocationService;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    @Mock
+    private ReactiveTokenStore reactiveTokenStore;
+
+    private ReactiveTokenValidationService reactiveTokenValidationService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reactiveTokenValidationService = new ReactiveTokenValidationService();
+        ReflectionTestUtils.setField(reactiveTokenValidationService, "tokenValidationService", tokenValidationService);
+        ReflectionTestUtils.setField(reactiveTokenValidationService, "tokenVerificationCache", tokenVerificationCache);
+        ReflectionTestUtils.setField(reactiveTokenValidationService, "authorizationService", authorizationService);
+        ReflectionTestUtils.setField(reactiveTokenValidationService, "reactiveTokenStore", reactiveTokenStore);
+        ReflectionTestUtils.setField(reactiveTokenValidationService, "batchConcurrency", 4);
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice_usesReactiveLookup() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(reactiveTokenStore.findActiveToken("token_a")).thenReturn(Mono.just(activeToken("token_a")));
+
+        ValidatedTokenResponseDTO response = reactiveTokenValidationService.validateTokenForMicroservice("token_a", null).block();
+
+        assertTrue(response.isValid());
+        assertEquals("alice", response.getUsername());
+        assertEquals(1L, response.getUserId());
+        verifyNoInteractions(tokenRepository);
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice_whenTokenIsNotActive() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(reactiveTokenStore.findActiveToken("token_a")).thenReturn(Mono.empty());
+
+        ValidatedTokenResponseDTO response = reactiveTokenValidationService.validateTokenForMicroservice("token_a", null).block();
+
+        assertFalse(response.isValid());
+        assertEquals(ValidationOutcome.NOT_ACTIVE.getMessage(), response.getMessage());
+        verify(tokenVerificationCache).reject("token_a", ValidationOutcome.NOT_ACTIVE);
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice_invalidTokenSkipsLookup() {
+        when(tokenVerificationCache.verify("garbage")).thenReturn(ValidationResult.failed(ValidationOutcome.MALFORMED));
+
+        ValidatedTokenResponseDTO response = reactiveTokenValidationService.validateTokenForMicroservice("garbage", null).block();
+
+        assertFalse(response.isValid());
+        assertEquals(ValidationOutcome.MALFORMED.getMessage(), response.getMessage());
+        verify(reactiveTokenStore, never()).findActiveToken(anyString());
+    }
+
+    @Test
+    public void testValidateTokensForMicroservice_keepsOrder() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(tokenVerificationCache.verify("token_b")).thenReturn(ValidationResult.valid(claims("bob", 2L)));
+        when(reactiveTokenStore.findActiveToken("token_a")).thenReturn(Mono.just(activeToken("token_a")));
+        when(reactiveTokenStore.findActiveToken("token_b")).thenReturn(Mono.just(activeToken("token_b")));
+
+        List<ValidatedTokenResponseDTO> results = reactiveTokenValidationService
+            .validateTokensForMicroservice(Arrays.asList("token_b", "", "token_a"), null).block();
+
+        assertEquals(3, results.size());
+        assertEquals("bob", results.get(0).getUsername());
+        assertFalse(results.get(1).isValid());
+        assertEquals("alice", results.get(2).getUsername());
+    }
+
+    @Test
+    public void testCheckAuthorization_unauthorizedWhenLookupFails() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(reactiveTokenStore.findActiveToken("token_a")).thenReturn(Mono.error(new IllegalStateException("pool exhausted")));
+
+        AuthorizationService.Decision decision = reactiveTokenValidationService
+            .checkAuthorization("token_a", "ADMIN", null).block();
+
+        assertFalse(decision.authorized());
+        verifyNoInteractions(authorizationService);
+    }
+
+    private Claims claims(String username, Long userId) {
+        return Jwts.claims()
+            .subject(username)
+            .add("userId", userId)
+            .expiration(new Date(System.currentTimeMillis() + 3600000))
+            .build();
+    }
+
+    private TokenStatus activeToken(String value) {
+        return new TokenStatus(1L, value + "_digest", new Date(System.currentTimeMillis() + 3600000));
+    }
+}
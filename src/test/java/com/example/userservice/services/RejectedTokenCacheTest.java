@@ -0,0 +1,91 @@
+package com.example.userservice.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RejectedTokenCacheTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    private RejectedTokenCache rejectedTokenCache;
+
+    private TokenVerificationCache tokenVerificationCache;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        rejectedTokenCache = new RejectedTokenCache();
+        ReflectionTestUtils.setField(rejectedTokenCache, "maximumSize", 1000L);
+        ReflectionTestUtils.setField(rejectedTokenCache, "ttl", 60000L);
+        ReflectionTestUtils.setField(rejectedTokenCache, "maximumClients", 100L);
+        rejectedTokenCache.init();
+
+        tokenVerificationCache = new TokenVerificationCache();
+        ReflectionTestUtils.setField(tokenVerificationCache, "jwtService", jwtService);
+        ReflectionTestUtils.setField(tokenVerificationCache, "rejectedTokenCache", rejectedTokenCache);
+        ReflectionTestUtils.setField(tokenVerificationCache, "maximumSize", 1000L);
+        ReflectionTestUtils.setField(tokenVerificationCache, "ttl", 60000L);
+        tokenVerificationCache.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testRepeatedInvalidToken_isAnsweredWithoutParsing() {
+        when(jwtService.verify("expired")).thenReturn(ValidationResult.failed(ValidationOutcome.EXPIRED));
+        asClient("10.0.0.7");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(ValidationOutcome.EXPIRED, tokenVerificationCache.verify("expired").outcome());
+        }
+
+        verify(jwtService, times(1)).verify("expired");
+        assertEquals(List.of(new RejectedTokenCache.ClientStats("10.0.0.7", 5, 4)), rejectedTokenCache.topClients(10));
+    }
+
+    @Test
+    public void testPostVerificationRejection_evictsVerifiedClaims() {
+        Claims claims = Jwts.claims().subject("alice").expiration(new Date(System.currentTimeMillis() + 60000)).build();
+        when(jwtService.verify("deleted")).thenReturn(ValidationResult.valid(claims));
+
+        assertTrue(tokenVerificationCache.verify("deleted").isValid());
+        tokenVerificationCache.reject("deleted", ValidationOutcome.NOT_ACTIVE);
+
+        assertEquals(ValidationOutcome.NOT_ACTIVE, tokenVerificationCache.verify("deleted").outcome());
+        verify(jwtService, times(1)).verify("deleted");
+        assertEquals(RejectedTokenCache.LOCAL_CLIENT, rejectedTokenCache.topClients(10).get(0).client());
+    }
+
+    @Test
+    public void testMissingToken_isNotCached() {
+        rejectedTokenCache.reject(rejectedTokenCache.keyOf(""), ValidationOutcome.MISSING);
+
+        assertNull(rejectedTokenCache.lookup(rejectedTokenCache.keyOf("")));
+        assertEquals(0, rejectedTokenCache.size());
+    }
+
+    private static void asClient(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.userservice.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RevocationServiceTest {
+
+    @InjectMocks
+    private RevocationService revocationService;
+
+    @Mock
+    private JwtService jwtService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(revocationService, "historySize", 2);
+        ReflectionTestUtils.setField(revocationService, "cacheSize", 1000L);
+        ReflectionTestUtils.setField(revocationService, "streamTimeout", 60000L);
+        ReflectionTestUtils.setField(revocationService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(revocationService, "subscriberQueueSize", 2);
+        ReflectionTestUtils.setField(revocationService, "sendTimeout", 10000L);
+        ReflectionTestUtils.setField(revocationService, "senderThreads", 2);
+        revocationService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        revocationService.shutdown();
+    }
+
+    @Test
+    public void testTokenRevoked_isRejectedLocally() {
+        Claims revoked = claims("jti-1", 1L, new Date());
+        when(jwtService.extractClaimsAllowExpired("token_a")).thenReturn(revoked);
+
+        revocationService.tokenRevoked("token_a", 1L);
+
+        assertTrue(revocationService.isRevoked(revoked));
+        assertFalse(revocationService.isRevoked(claims("jti-2", 1L, new Date())));
+    }
+
+    @Test
+    public void testTokenRevoked_ignoresUnparseableTokens() {
+        when(jwtService.extractClaimsAllowExpired("garbage")).thenThrow(new IllegalArgumentException("bad"));
+
+        revocationService.tokenRevoked("garbage", 1L);
+
+        assertFalse(revocationService.isRevoked(claims("jti-1", 1L, new Date())));
+    }
+
+    @Test
+    public void testUserTokensRevoked_onlyRevokesOlderTokens() {
+        revocationService.userTokensRevoked(1L);
+
+        assertTrue(revocationService.isRevoked(claims("jti-1", 1L, new Date(System.currentTimeMillis() - 60000))));
+        assertFalse(revocationService.isRevoked(claims("jti-2", 1L, new Date(System.currentTimeMillis() + 60000))));
+        assertFalse(revocationService.isRevoked(claims("jti-3", 2L, new Date(System.currentTimeMillis() - 60000))));
+    }
+
+    @Test
+    public void testSubscribe_withUnknownEventId() {
+        revocationService.userTokensRevoked(1L);
+
+        assertNotNull(revocationService.subscribe("0-1"));
+        assertNotNull(revocationService.subscribe("not-an-id"));
+        assertEquals(2, revocationService.getSubscriberCount());
+    }
+
+    @Test
+    public void testSlowSubscriber_isDroppedWithoutDelayingOthers() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter(1);
+        RecordingEmitter fast = new RecordingEmitter(0);
+        revocationService.subscribe(null, slow);
+        revocationService.subscribe(null, fast);
+
+        try {
+            // The slow subscriber's first send never returns; its queue overflows on the fourth event
+            for (long userId = 1; userId <= 4; userId++) {
+                revocationService.userTokensRevoked(userId);
+                assertNotNull(fast.received.poll(5, TimeUnit.SECONDS), "event " + userId + " held up");
+            }
+
+            assertEquals(1, revocationService.getSubscriberCount());
+            assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+            assertEquals(0, slow.received.size());
+        } finally {
+            slow.release.countDown();
+        }
+        // Completed by its own sender once the stuck send returns, nothing else waits on it
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertFalse(fast.completed.await(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStalledSend_isDroppedOnHeartbeat() throws Exception {
+        ReflectionTestUtils.setField(revocationService, "sendTimeout", 1L);
+        RecordingEmitter stalled = new RecordingEmitter(1);
+        revocationService.subscribe(null, stalled);
+
+        try {
+            revocationService.userTokensRevoked(1L);
+            assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+            Thread.sleep(20);
+
+            revocationService.heartbeat();
+
+            assertEquals(0, revocationService.getSubscriberCount());
+        } finally {
+            stalled.release.countDown();
+        }
+    }
+
+    @Test
+    public void testRevocations_areRelayedButRelayedOnesAreNot() {
+        RevocationRelay relay = mock(RevocationRelay.class);
+        ReflectionTestUtils.setField(revocationService, "revocationRelay",
+                new StaticListableBeanFactory(Map.of("revocationRelay", relay)).getBeanProvider(RevocationRelay.class));
+
+        revocationService.userTokensRevoked(1L);
+        revocationService.revokedElsewhere("TOKEN_REVOKED", "jti-2", 2L, System.currentTimeMillis() + 60000, null);
+
+        verify(relay).relay(eq("USER_TOKENS_REVOKED"), isNull(), eq(1L), isNull(), anyLong());
+        verify(relay, never()).relay(any(), eq("jti-2"), any(), any(), any());
+        // Applied locally all the same
+        assertTrue(revocationService.isRevoked(claims("jti-2", 2L, new Date())));
+    }
+
+    // Records sends; each send first waits for release
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final BlockingQueue<SseEventBuilder> received = new LinkedBlockingQueue<>();
+
+        RecordingEmitter(int blockedSends) {
+            super(60000L);
+            this.release = new CountDownLatch(blockedSends);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            received.add(builder);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+            super.complete();
+        }
+    }
+
+    private Claims claims(String jti, Long userId, Date issuedAt) {
+        return Jwts.claims()
+            .id(jti)
+            .subject("alice")
+            .add("userId", userId)
+            .issuedAt(issuedAt)
+            .expiration(new Date(System.currentTimeMillis() + 3600000))
+            .build();
+    }
+}
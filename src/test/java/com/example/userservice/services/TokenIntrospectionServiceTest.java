@@ -0,0 +1,74 @@
+package com.example.userservice.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenIntrospection;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class TokenIntrospectionServiceTest {
+
+    @InjectMocks
+    private TokenIntrospectionService tokenIntrospectionService;
+
+    @Mock
+    private TokenValidationService tokenValidationService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(tokenIntrospectionService, "maximumSize", 1000L);
+        ReflectionTestUtils.setField(tokenIntrospectionService, "ttl", 60000L);
+        tokenIntrospectionService.init();
+    }
+
+    @Test
+    public void testIntrospect_activeApiToken() {
+        Date issuedAt = new Date(System.currentTimeMillis() / 1000 * 1000);
+        Date expiration = new Date(issuedAt.getTime() + 3600000);
+        Claims claims = Jwts.claims()
+            .subject("alice")
+            .id("jti-1")
+            .audience().add("user-service-clients").and()
+            .issuedAt(issuedAt)
+            .expiration(expiration)
+            .add("userId", 1L)
+            .add("email", "alice@example.com")
+            .build();
+        when(tokenValidationService.resolveActiveClaims("token_a")).thenReturn(claims);
+
+        OAuth2TokenIntrospection introspection = tokenIntrospectionService.introspect("token_a");
+
+        assertTrue(introspection.isActive());
+        assertEquals("alice", introspection.getSubject());
+        assertEquals("alice", introspection.getUsername());
+        assertEquals("jti-1", introspection.getId());
+        assertEquals("Bearer", introspection.getTokenType());
+        assertEquals(List.of("user-service-clients"), introspection.getAudience());
+        assertEquals(expiration.toInstant(), introspection.getExpiresAt());
+        assertEquals(1L, introspection.getClaims().get("userId"));
+        assertSame(introspection, tokenIntrospectionService.introspect("token_a"));
+    }
+
+    @Test
+    public void testIntrospect_inactiveTokensShareOneAnswer() {
+        when(tokenValidationService.resolveActiveClaims("revoked")).thenReturn(null);
+        when(tokenValidationService.resolveActiveClaims("garbage")).thenReturn(null);
+
+        OAuth2TokenIntrospection revoked = tokenIntrospectionService.introspect("revoked");
+
+        assertFalse(revoked.isActive());
+        assertSame(revoked, tokenIntrospectionService.introspect("garbage"));
+        assertEquals(1, revoked.getClaims().size());
+    }
+}
@@ -28,6 +28,9 @@ public class TokenServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private RevocationService revocationService;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
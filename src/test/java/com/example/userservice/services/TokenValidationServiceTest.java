@@ -0,0 +1,406 @@
+package com.example.userservice.services;
+
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.exceptions.BulkheadFullException;
+import com.example.userservice.repositories.ConnectionBulkheads;
+import com.example.userservice.repositories.ReadYourWrites;
+import com.example.userservice.repositories.TokenRepository;
+import com.example.userservice.repositories.TokenStatus;
+import com.example.userservice.security.TokenDigest;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TokenValidationServiceTest {
+
+    @InjectMocks
+    private TokenValidationService tokenValidationService;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @Mock
+    private TokenVerificationCache tokenVerificationCache;
+
+    @Mock
+    private RevocationService revocationService;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    // No replicas configured: lookups pass straight through
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites();
+
+    // Not initialised: database work runs without bulkheads
+    @Spy
+    private ConnectionBulkheads connectionBulkheads = new ConnectionBulkheads();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(tokenValidationService, "coalesceValidations", true);
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(tokenRepository.findActiveStatus("token_a")).thenReturn(Optional.of(activeStatus("token_a")));
+
+        ValidatedTokenResponseDTO response = tokenValidationService.validateTokenForMicroservice("token_a", null);
+
+        assertTrue(response.isValid());
+        assertEquals("alice", response.getUsername());
+        assertEquals(1L, response.getUserId());
+    }
+
+    @Test
+    public void testValidateTokensForMicroservice_usesSingleQueryAndKeepsOrder() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(tokenVerificationCache.verify("token_b")).thenReturn(ValidationResult.valid(claims("bob", 2L)));
+        when(tokenVerificationCache.verify("garbage")).thenReturn(ValidationResult.failed(ValidationOutcome.MALFORMED));
+        when(tokenRepository.findActiveStatusesByDigest(anyCollection(), anyCollection()))
+            .thenReturn(List.of(activeStatus("token_b"), activeStatus("token_a")));
+
+        List<ValidatedTokenResponseDTO> results = tokenValidationService
+            .validateTokensForMicroservice(Arrays.asList("token_a", "garbage", "token_b", ""), null);
+
+        assertEquals(4, results.size());
+        assertEquals("alice", results.get(0).getUsername());
+        assertFalse(results.get(1).isValid());
+        assertEquals(ValidationOutcome.MALFORMED.getMessage(), results.get(1).getMessage());
+        assertEquals("bob", results.get(2).getUsername());
+        assertFalse(results.get(3).isValid());
+        verify(tokenRepository, times(1)).findActiveStatusesByDigest(anyCollection(), anyCollection());
+        verify(tokenRepository, never()).findActiveStatus(anyString());
+    }
+
+    @Test
+    public void testValidateTokensForMicroservice_whenTokenIsRevoked() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(tokenRepository.findActiveStatusesByDigest(anyCollection(), anyCollection())).thenReturn(List.of());
+
+        List<ValidatedTokenResponseDTO> results = tokenValidationService
+            .validateTokensForMicroservice(List.of("token_a"), null);
+
+        assertFalse(results.get(0).isValid());
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice_whenRevocationIsKnownLocally() {
+        Claims claims = claims("alice", 1L);
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims));
+        when(revocationService.isRevoked(claims)).thenReturn(true);
+
+        ValidatedTokenResponseDTO response = tokenValidationService.validateTokenForMicroservice("token_a", null);
+
+        assertFalse(response.isValid());
+        assertEquals("Token has been revoked", response.getMessage());
+        verify(tokenRepository, never()).findActiveStatus(anyString());
+    }
+
+    @Test
+    public void testResolveActiveClaims() {
+        Claims claims = claims("alice", 1L);
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims));
+        when(tokenRepository.findActiveStatus("token_a")).thenReturn(Optional.of(activeStatus("token_a")));
+        when(tokenVerificationCache.verify("token_b")).thenReturn(ValidationResult.valid(claims("bob", 2L)));
+        when(tokenRepository.findActiveStatus("token_b")).thenReturn(Optional.empty());
+
+        assertSame(claims, tokenValidationService.resolveActiveClaims("token_a"));
+        assertNull(tokenValidationService.resolveActiveClaims("token_b"));
+        assertNull(tokenValidationService.resolveActiveClaims(" "));
+    }
+
+    @Test
+    public void testCheckAuthorization_whenTokenIsNotActive() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(tokenRepository.findActiveStatus("token_a")).thenReturn(Optional.empty());
+
+        assertFalse(tokenValidationService.checkUserAuthorization("token_a", "ADMIN", null));
+        verify(authorizationService, never()).authorize(any(), any(), any());
+        verify(tokenVerificationCache).reject("token_a", ValidationOutcome.NOT_ACTIVE);
+    }
+
+    @Test
+    public void testConcurrentValidations_shareOneDatabaseLookup() throws Exception {
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(tokenRepository.findActiveStatus("token_a")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(activeStatus("token_a"));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ValidatedTokenResponseDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> tokenValidationService.validateTokenForMicroservice("token_a", null)));
+            }
+
+            // Hold the leader in the database until every other caller has joined it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (tokenValidationService.getCoalescedValidations() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            Set<ValidatedTokenResponseDTO> responses = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<ValidatedTokenResponseDTO> future : futures) {
+                ValidatedTokenResponseDTO response = future.get(5, TimeUnit.SECONDS);
+                assertEquals("alice", response.getUsername());
+                responses.add(response);
+            }
+            // Every caller gets its own copy to modify
+            assertEquals(callers, responses.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(callers - 1, tokenValidationService.getCoalescedValidations());
+        verify(tokenRepository, times(1)).findActiveStatus("token_a");
+        verify(tokenVerificationCache, times(1)).verify("token_a");
+    }
+
+    @Test
+    public void testConcurrentValidations_leaderErrorReachesFollowers() throws Exception {
+        int callers = 4;
+        CountDownLatch release = new CountDownLatch(1);
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(tokenRepository.findActiveStatus("token_a")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new StackOverflowError();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ValidatedTokenResponseDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> tokenValidationService.validateTokenForMicroservice("token_a", null)));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (tokenValidationService.getCoalescedValidations() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Followers fail with the leader's error instead of waiting forever
+            for (Future<ValidatedTokenResponseDTO> future : futures) {
+                ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(StackOverflowError.class, failure.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSequentialValidations_areNotCoalesced() {
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+        when(tokenRepository.findActiveStatus("token_a")).thenReturn(Optional.of(activeStatus("token_a")));
+
+        tokenValidationService.validateTokenForMicroservice("token_a", null);
+        tokenValidationService.validateTokenForMicroservice("token_a", null);
+
+        verify(tokenRepository, times(2)).findActiveStatus("token_a");
+        assertEquals(0, tokenValidationService.getCoalescedValidations());
+    }
+
+    @Test
+    public void testPipelinedLookup_overlapsVerification() {
+        ReflectionTestUtils.setField(tokenValidationService, "pipelined", true);
+        ReflectionTestUtils.setField(tokenValidationService, "lookupThreads", 2);
+        ReflectionTestUtils.setField(tokenValidationService, "lookupQueue", 10);
+        tokenValidationService.init();
+        try {
+            CountDownLatch lookupStarted = new CountDownLatch(1);
+            when(jwtService.isWellFormed(anyString())).thenReturn(true);
+            when(tokenRepository.findActiveStatus(anyString())).thenAnswer(invocation -> {
+                lookupStarted.countDown();
+                return Optional.of(activeStatus("token_a"));
+            });
+            // Verification only finishes once the lookup is already running
+            when(tokenVerificationCache.verify("token_a")).thenAnswer(invocation -> {
+                assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+                return ValidationResult.valid(claims("alice", 1L));
+            });
+
+            ValidatedTokenResponseDTO response = tokenValidationService.validateTokenForMicroservice("token_a", null);
+
+            assertTrue(response.isValid());
+            verify(tokenRepository, times(1)).findActiveStatus("token_a");
+        } finally {
+            tokenValidationService.shutdown();
+        }
+    }
+
+    @Test
+    public void testPipelinedLookup_isNotStartedForMalformedTokens() {
+        ReflectionTestUtils.setField(tokenValidationService, "pipelined", true);
+        ReflectionTestUtils.setField(tokenValidationService, "lookupThreads", 2);
+        ReflectionTestUtils.setField(tokenValidationService, "lookupQueue", 10);
+        tokenValidationService.init();
+        try {
+            when(jwtService.isWellFormed("garbage")).thenReturn(false);
+            when(tokenVerificationCache.verify("garbage")).thenReturn(ValidationResult.failed(ValidationOutcome.MALFORMED));
+
+            assertFalse(tokenValidationService.validateTokenForMicroservice("garbage", null).isValid());
+            verify(tokenRepository, never()).findActiveStatus(anyString());
+        } finally {
+            tokenValidationService.shutdown();
+        }
+    }
+
+    @Test
+    public void testPipelinedLookup_isNotStartedForCachedTokens() {
+        ReflectionTestUtils.setField(tokenValidationService, "pipelined", true);
+        ReflectionTestUtils.setField(tokenValidationService, "lookupThreads", 2);
+        ReflectionTestUtils.setField(tokenValidationService, "lookupQueue", 10);
+        tokenValidationService.init();
+        try {
+            when(jwtService.isWellFormed(anyString())).thenReturn(true);
+            when(tokenVerificationCache.isCached(anyString())).thenReturn(true);
+            when(tokenVerificationCache.verify("revoked")).thenReturn(ValidationResult.failed(ValidationOutcome.REVOKED));
+            // A verified token is looked up after the cache hit, not alongside it
+            when(tokenVerificationCache.verify("token_a")).thenAnswer(invocation -> {
+                assertTrue(mockingDetails(tokenRepository).getInvocations().isEmpty());
+                return ValidationResult.valid(claims("alice", 1L));
+            });
+            when(tokenRepository.findActiveStatus("token_a")).thenReturn(Optional.of(activeStatus("token_a")));
+
+            assertFalse(tokenValidationService.validateTokenForMicroservice("revoked", null).isValid());
+            assertTrue(tokenValidationService.validateTokenForMicroservice("token_a", null).isValid());
+
+            verify(tokenRepository, never()).findActiveStatus("revoked");
+            verify(tokenRepository, times(1)).findActiveStatus("token_a");
+        } finally {
+            tokenValidationService.shutdown();
+        }
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice_whenValidationBulkheadIsFull() {
+        fullValidationBulkhead("deny");
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L)));
+
+        assertThrows(BulkheadFullException.class,
+            () -> tokenValidationService.validateTokenForMicroservice("token_a", null));
+        // Not knowing the status is not a rejection, so nothing goes into the negative cache
+        verify(tokenVerificationCache, never()).reject(anyString(), any());
+        verify(tokenRepository, never()).findActiveStatus(anyString());
+        assertNull(tokenValidationService.resolveActiveClaims("token_a"));
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice_whenValidationBulkheadIsFull_acceptsVerifiedTokens() {
+        fullValidationBulkhead("verified");
+        Claims claims = claims("alice", 1L);
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims));
+
+        ValidatedTokenResponseDTO response = tokenValidationService.validateTokenForMicroservice("token_a", null);
+        List<ValidatedTokenResponseDTO> results = tokenValidationService.validateTokensForMicroservice(List.of("token_a"), null);
+
+        assertTrue(response.isValid());
+        assertEquals(TokenValidationService.DEGRADED_MESSAGE, response.getMessage());
+        assertEquals("alice", response.getUsername());
+        assertEquals(TokenValidationService.DEGRADED_MESSAGE, results.get(0).getMessage());
+        assertSame(claims, tokenValidationService.resolveActiveClaims("token_a"));
+        verifyNoInteractions(tokenRepository);
+    }
+
+    private void fullValidationBulkhead(String degradedMode) {
+        ReflectionTestUtils.setField(connectionBulkheads, "enabled", true);
+        ReflectionTestUtils.setField(connectionBulkheads, "validationPermits", 0);
+        ReflectionTestUtils.setField(connectionBulkheads, "validationTimeout", 10L);
+        ReflectionTestUtils.setField(connectionBulkheads, "validationDegradedMode", degradedMode);
+        connectionBulkheads.init();
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice_whenRecentTokenIsMissingFromReplica() {
+        withReplicas();
+        when(tokenVerificationCache.verify("token_a")).thenReturn(ValidationResult.valid(claims("alice", 1L, new Date())));
+        // Issued on another instance moments ago: the replica hasn't caught up, the primary has the row
+        when(tokenRepository.findActiveStatus("token_a"))
+            .thenReturn(Optional.empty(), Optional.of(activeStatus("token_a")));
+
+        assertTrue(tokenValidationService.validateTokenForMicroservice("token_a", null).isValid());
+
+        verify(tokenRepository, times(2)).findActiveStatus("token_a");
+        verify(tokenVerificationCache, never()).reject(anyString(), any());
+    }
+
+    @Test
+    public void testValidateTokenForMicroservice_whenOlderTokenIsMissing() {
+        withReplicas();
+        when(tokenVerificationCache.verify("token_a"))
+            .thenReturn(ValidationResult.valid(claims("alice", 1L, new Date(System.currentTimeMillis() - 60000))));
+        when(tokenRepository.findActiveStatus("token_a")).thenReturn(Optional.empty());
+
+        assertFalse(tokenValidationService.validateTokenForMicroservice("token_a", null).isValid());
+
+        // Older than the read-your-writes window, so the replica's answer stands
+        verify(tokenRepository, times(1)).findActiveStatus("token_a");
+        verify(tokenVerificationCache).reject("token_a", ValidationOutcome.NOT_ACTIVE);
+    }
+
+    private void withReplicas() {
+        ReflectionTestUtils.setField(readYourWrites, "replicaUrls", "jdbc:mysql://replica-1:3306/productservice");
+        ReflectionTestUtils.setField(readYourWrites, "window", 5000L);
+        ReflectionTestUtils.setField(readYourWrites, "maximumSize", 1000L);
+        readYourWrites.init();
+    }
+
+    private Claims claims(String username, Long userId, Date issuedAt) {
+        return Jwts.claims()
+            .subject(username)
+            .add("userId", userId)
+            .issuedAt(issuedAt)
+            .expiration(new Date(System.currentTimeMillis() + 3600000))
+            .build();
+    }
+
+    private Claims claims(String username, Long userId) {
+        return Jwts.claims()
+            .subject(username)
+            .add("userId", userId)
+            .expiration(new Date(System.currentTimeMillis() + 3600000))
+            .build();
+    }
+
+    private TokenStatus activeStatus(String value) {
+        return new TokenStatus(1L, TokenDigest.sha256Hex(value), new Date(System.currentTimeMillis() + 3600000));
+    }
+}
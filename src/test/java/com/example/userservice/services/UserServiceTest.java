@@ -1,6 +1,9 @@
 package com.example.userservice.services;
 
+import com.example.userservice.models.Token;
 import com.example.userservice.models.User;
+import com.example.userservice.repositories.ConnectionBulkheads;
+import com.example.userservice.repositories.ReadYourWrites;
 import com.example.userservice.repositories.TokenRepository;
 import com.example.userservice.repositories.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,9 +13,20 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -33,6 +47,26 @@ public class UserServiceTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private EmailVerificationService emailVerificationService;
+
+    @Mock
+    private RevocationService revocationService;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    // No replicas configured: lookups pass straight through
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites();
+
+    // Not initialised: database work runs without bulkheads
+    @Spy
+    private ConnectionBulkheads connectionBulkheads = new ConnectionBulkheads();
+
     @Captor
     private ArgumentCaptor<User> userArgumentCaptor;
 
@@ -70,10 +104,82 @@ public class UserServiceTest {
 
         when(userRepository.findByName(anyString())).thenReturn(user);
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtService.generateToken(user)).thenReturn("test_token");
+        when(authorizationService.compileClaims(user)).thenReturn(Map.of("roles", List.of("USER")));
+        when(jwtService.generateToken(user, false, Map.of("roles", List.of("USER")))).thenReturn("test_token");
 
         String token = userService.login("testuser", "password");
 
         assertEquals("test_token", token);
     }
+
+    @Test
+    public void testLogin_whenRecentlyVerified() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("testuser");
+        user.setPassword("encoded_password");
+
+        when(userRepository.findByName(anyString())).thenReturn(user);
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(emailVerificationService.isRecentlyVerified(1L)).thenReturn(true);
+        when(authorizationService.compileClaims(user)).thenReturn(Map.of());
+        when(jwtService.generateToken(user, true, Map.of())).thenReturn("verified_token");
+
+        String token = userService.login("testuser", "password");
+
+        assertEquals("verified_token", token);
+    }
+
+    @Test
+    public void testVerifyEmail_queuesForTheBatchUpdater() {
+        when(emailVerificationService.verifyEmail(1L, 100L, "signature")).thenReturn(true);
+        when(emailVerificationService.isRecentlyVerified(1L)).thenReturn(false, true);
+        when(kafkaTemplate.send(EmailVerificationBatchUpdater.VERIFIED_TOPIC, "1", "1"))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertTrue(userService.verifyEmail(1L, 100L, "signature"));
+        // A repeated click is answered without queueing it again
+        assertTrue(userService.verifyEmail(1L, 100L, "signature"));
+
+        verify(kafkaTemplate, times(1)).send(EmailVerificationBatchUpdater.VERIFIED_TOPIC, "1", "1");
+        verify(userRepository, never()).markUsersVerified(anyCollection());
+        verify(emailVerificationService, times(1)).verified(1L);
+    }
+
+    @Test
+    public void testVerifyEmail_whenKafkaIsUnreachable() {
+        when(emailVerificationService.verifyEmail(1L, 100L, "signature")).thenReturn(true);
+        when(kafkaTemplate.send(EmailVerificationBatchUpdater.VERIFIED_TOPIC, "1", "1"))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("broker down")));
+
+        assertTrue(userService.verifyEmail(1L, 100L, "signature"));
+
+        verify(userRepository).markUsersVerified(List.of(1L));
+        verify(emailVerificationService).verified(1L);
+    }
+
+    @Test
+    public void testVerifyEmail_whenLinkIsInvalid() {
+        when(emailVerificationService.verifyEmail(1L, 100L, "tampered")).thenReturn(false);
+
+        assertFalse(userService.verifyEmail(1L, 100L, "tampered"));
+
+        verify(userRepository, never()).markUsersVerified(anyCollection());
+    }
+
+    @Test
+    public void testLogout_publishesRevocation() {
+        User user = new User();
+        user.setId(1L);
+        Token token = new Token();
+        token.setToken("test_token");
+        token.setUser(user);
+
+        when(tokenRepository.findByTokenAndIsDeletedFalse("test_token")).thenReturn(Optional.of(token));
+
+        userService.logout("test_token");
+
+        verify(tokenRepository).save(token);
+        verify(revocationService).tokenRevoked("test_token", 1L);
+    }
 }
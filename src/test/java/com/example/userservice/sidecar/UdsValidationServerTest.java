@@ -0,0 +1,155 @@
+package com.example.userservice.sidecar;
+
+import com.example.userservice.dtos.ValidatedTokenResponseDTO;
+import com.example.userservice.services.TokenValidationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+public class UdsValidationServerTest {
+
+    @InjectMocks
+    private UdsValidationServer server;
+
+    @Mock
+    private TokenValidationService tokenValidationService;
+
+    @TempDir
+    Path tempDir;
+
+    private Path socketPath;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        socketPath = tempDir.resolve("auth.sock");
+        ReflectionTestUtils.setField(server, "socketPath", socketPath.toString());
+        ReflectionTestUtils.setField(server, "workerThreads", 2);
+        ReflectionTestUtils.setField(server, "maxInFlight", 64);
+        ReflectionTestUtils.setField(server, "maxPendingResponseBytes", 1048576L);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testValidate() throws Exception {
+        ValidatedTokenResponseDTO dto = new ValidatedTokenResponseDTO(true, "Token is valid and user is authorized");
+        dto.setUserId(42L);
+        dto.setUsername("testuser");
+        dto.setEmail("testuser@example.com");
+        dto.setExpirationTime(new Date(1752172254000L));
+        when(tokenValidationService.validateTokenForMicroservice("good_token", null)).thenReturn(dto);
+
+        try (UdsValidationClient client = new UdsValidationClient(socketPath)) {
+            UdsValidationProtocol.Response response = client.validate("good_token");
+
+            assertTrue(response.valid());
+            assertEquals(42L, response.userId());
+            assertEquals("testuser", response.username());
+            assertEquals(1752172254000L, response.expiresAt());
+        }
+    }
+
+    @Test
+    public void testValidateAll_pipelinesInOrder() throws Exception {
+        when(tokenValidationService.validateTokenForMicroservice(anyString(), isNull())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            ValidatedTokenResponseDTO dto = new ValidatedTokenResponseDTO(token.startsWith("good"), token);
+            dto.setUsername(token);
+            return dto;
+        });
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tokens.add((i % 3 == 0 ? "bad_" : "good_") + i);
+        }
+
+        try (UdsValidationClient client = new UdsValidationClient(socketPath)) {
+            List<UdsValidationProtocol.Response> responses = client.validateAll(tokens);
+
+            assertEquals(tokens.size(), responses.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                assertEquals(tokens.get(i), responses.get(i).username());
+                assertEquals(i % 3 != 0, responses.get(i).valid());
+            }
+        }
+    }
+
+    @Test
+    public void testValidateAll_stopsReadingAtTheInFlightLimit() throws Exception {
+        server.stop();
+        ReflectionTestUtils.setField(server, "maxInFlight", 4);
+        server.start();
+
+        CountDownLatch firstCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(tokenValidationService.validateTokenForMicroservice(anyString(), isNull())).thenAnswer(invocation -> {
+            firstCall.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return new ValidatedTokenResponseDTO(true, invocation.getArgument(0));
+        });
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tokens.add("token_" + i);
+        }
+
+        ExecutorService pipelining = Executors.newSingleThreadExecutor();
+        try (UdsValidationClient client = new UdsValidationClient(socketPath)) {
+            Future<List<UdsValidationProtocol.Response>> responses = pipelining.submit(() -> client.validateAll(tokens));
+
+            // While the first validation is stuck, the rest of the pipeline stays in the socket
+            assertTrue(firstCall.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertTrue(server.getDecodedRequests() <= 4, "decoded " + server.getDecodedRequests());
+
+            release.countDown();
+            List<UdsValidationProtocol.Response> answered = responses.get(10, TimeUnit.SECONDS);
+            assertEquals(tokens.size(), answered.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                assertEquals(tokens.get(i), answered.get(i).message());
+            }
+            assertEquals(tokens.size(), server.getDecodedRequests());
+        } finally {
+            release.countDown();
+            pipelining.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testValidate_whenServiceFails() throws Exception {
+        when(tokenValidationService.validateTokenForMicroservice(anyString(), isNull()))
+            .thenThrow(new RuntimeException("db down"));
+
+        try (UdsValidationClient client = new UdsValidationClient(socketPath)) {
+            UdsValidationProtocol.Response response = client.validate("token");
+
+            assertFalse(response.valid());
+            assertEquals(-1L, response.userId());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+#!/bin/bash
+
+# Startup benchmark: time from JVM launch to the first successful token validation
+# Compares a plain `java -jar` start with the fast-start profile (AOT bean definitions + CDS archive).
+# Usage: ./startup-benchmark.sh <token> [runs] [port]
+#   <token>  an API token from POST /api/v1/users/login that is still active in the database
+# Build first: ./gradlew bootJar cdsArchive
+# Environment: SERVICE_TOKEN (X-Service-Token), JAVA (default: java on PATH)
+
+TOKEN="$1"
+RUNS="${2:-5}"
+PORT="${3:-18080}"
+JAVA="${JAVA:-java}"
+CDS_DIR="build/cds"
+JAR_NAME=$(ls "$CDS_DIR"/*.jar 2> /dev/null | head -1 | xargs -r basename)
+
+# Colors for output
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+if [ -z "$TOKEN" ]; then
+    echo -e "${RED}Usage: $0 <token> [runs] [port]${NC}"
+    exit 1
+fi
+if [ -z "$JAR_NAME" ] || [ ! -f "$CDS_DIR/application.jsa" ]; then
+    echo -e "${RED}Missing $CDS_DIR; run ./gradlew bootJar cdsArchive first${NC}"
+    exit 1
+fi
+
+HEADERS=(-H "Authorization: Bearer $TOKEN")
+if [ -n "$SERVICE_TOKEN" ]; then
+    HEADERS+=(-H "X-Service-Token: $SERVICE_TOKEN")
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the service with the given JVM arguments and prints the milliseconds until
+# GET /api/v1/auth/validate-token first answers 200
+measure() {
+    local start pid elapsed=""
+    start=$(now_ms)
+    (cd "$CDS_DIR" && exec "$JAVA" "$@" -Dserver.port="$PORT" -jar "$JAR_NAME" > /dev/null 2>&1) &
+    pid=$!
+
+    while kill -0 "$pid" 2> /dev/null; do
+        if [ "$(curl -s -o /dev/null -w '%{http_code}' "${HEADERS[@]}" "http://localhost:$PORT/api/v1/auth/validate-token")" = "200" ]; then
+            elapsed=$(( $(now_ms) - start ))
+            break
+        fi
+        sleep 0.01
+        # Give up after two minutes
+        if [ $(( $(now_ms) - start )) -gt 120000 ]; then
+            break
+        fi
+    done
+
+    pkill -P "$pid" 2> /dev/null
+    kill "$pid" 2> /dev/null
+    wait "$pid" 2> /dev/null
+    echo "${elapsed:-failed}"
+}
+
+run_mode() {
+    local name="$1"
+    shift
+    local times=()
+    for run in $(seq 1 "$RUNS"); do
+        local ms
+        ms=$(measure "$@")
+        echo -e "  $name run $run: ${YELLOW}$ms ms${NC}"
+        if [ "$ms" != "failed" ]; then
+            times+=("$ms")
+        fi
+    done
+    if [ ${#times[@]} -gt 0 ]; then
+        local median
+        median=$(printf '%s\n' "${times[@]}" | sort -n | awk '{ a[NR] = $1 } END { print (NR % 2 ? a[(NR + 1) / 2] : (a[NR / 2] + a[NR / 2 + 1]) / 2) }')
+        echo -e "${GREEN}$name: median time to first successful validation ${median} ms over ${#times[@]} runs${NC}"
+    else
+        echo -e "${RED}$name: no run reached a successful validation${NC}"
+    fi
+}
+
+echo -e "${GREEN}=== Startup benchmark: time to first successful validation ===${NC}"
+run_mode baseline
+run_mode fast-start -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start
@@ -0,0 +1,78 @@
+package com.example.userservice.client.benchmarks;
+
+import com.example.userservice.client.TokenVerifier;
+import com.example.userservice.client.VerificationResult;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a local verification with and without a cache hit, single-threaded and contended.
+ * Run with ./gradlew :userservice-client:jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TokenVerifierBenchmark {
+
+    private static final String SECRET = "a-string-secret-at-least-256-bits-long";
+
+    private TokenVerifier cachingVerifier;
+    private TokenVerifier uncachedVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        URI unused = URI.create("http://127.0.0.1:9");
+        cachingVerifier = TokenVerifier.builder(unused).hmacSecret(SECRET).revocationStream(false).build();
+        uncachedVerifier = TokenVerifier.builder(unused).hmacSecret(SECRET).revocationStream(false)
+                .cacheMaximumSize(0)
+                .build();
+
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("user-service")
+                .subject("testuser")
+                .audience("user-service-clients")
+                .issueTime(new Date())
+                .expirationTime(new Date(System.currentTimeMillis() + 86400000))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("userId", 42L)
+                .claim("email", "testuser@example.com")
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        jwt.sign(new MACSigner(SECRET.getBytes(StandardCharsets.UTF_8)));
+        token = jwt.serialize();
+        cachingVerifier.verify(token);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cachingVerifier.close();
+        uncachedVerifier.close();
+    }
+
+    @Benchmark
+    public VerificationResult cachedVerification() {
+        return cachingVerifier.verify(token);
+    }
+
+    @Benchmark
+    public VerificationResult localSignatureVerification() {
+        return uncachedVerifier.verify(token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public VerificationResult cachedVerificationContended() {
+        return cachingVerifier.verify(token);
+    }
+}
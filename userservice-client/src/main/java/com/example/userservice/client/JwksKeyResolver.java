@@ -0,0 +1,119 @@
+package com.example.userservice.client;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifiers for the public keys published at /oauth2/jwks
+ * The key set is fetched lazily and re-fetched when a token names an unknown key id,
+ * at most once per minimum refresh interval so bad tokens can't hammer the endpoint.
+ */
+final class JwksKeyResolver {
+
+    private final HttpClient httpClient;
+    private final URI jwksUri;
+    private final Duration requestTimeout;
+    private final long minRefreshIntervalMillis;
+
+    private final ConcurrentHashMap<String, JWSVerifier> verifiers = new ConcurrentHashMap<>();
+    private volatile JWKSet jwkSet = new JWKSet();
+    private volatile long lastRefresh;
+
+    JwksKeyResolver(HttpClient httpClient, URI jwksUri, Duration requestTimeout, Duration minRefreshInterval) {
+        this.httpClient = httpClient;
+        this.jwksUri = jwksUri;
+        this.requestTimeout = requestTimeout;
+        this.minRefreshIntervalMillis = minRefreshInterval.toMillis();
+    }
+
+    /**
+     * Verifier for the token's key, or null if no published key matches
+     */
+    JWSVerifier verifierFor(JWSHeader header) {
+        String kid = header.getKeyID();
+        if (kid != null) {
+            JWSVerifier cached = verifiers.get(kid);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        JWK key = find(header);
+        if (key == null && refresh()) {
+            key = find(header);
+        }
+        if (key == null) {
+            return null;
+        }
+
+        JWSVerifier verifier = createVerifier(key);
+        if (verifier != null && kid != null) {
+            verifiers.put(kid, verifier);
+        }
+        return verifier;
+    }
+
+    private JWK find(JWSHeader header) {
+        for (JWK key : jwkSet.getKeys()) {
+            boolean kidMatches = header.getKeyID() == null || header.getKeyID().equals(key.getKeyID());
+            boolean algMatches = key.getAlgorithm() == null || key.getAlgorithm().equals(header.getAlgorithm());
+            boolean signingKey = key.getKeyUse() == null || KeyUse.SIGNATURE.equals(key.getKeyUse());
+            if (kidMatches && algMatches && signingKey) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private synchronized boolean refresh() {
+        long now = System.currentTimeMillis();
+        if (lastRefresh != 0 && now - lastRefresh < minRefreshIntervalMillis) {
+            return false;
+        }
+        lastRefresh = now;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(jwksUri).timeout(requestTimeout).GET().build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            jwkSet = JWKSet.parse(response.body());
+            verifiers.clear();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static JWSVerifier createVerifier(JWK key) {
+        try {
+            if (key instanceof RSAKey rsaKey) {
+                return new RSASSAVerifier(rsaKey);
+            }
+            if (key instanceof ECKey ecKey) {
+                return new ECDSAVerifier(ecKey);
+            }
+        } catch (JOSEException e) {
+            return null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.userservice.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revocations received from /api/v1/auth/revocations/stream
+ *
+ * Revoked token ids are kept until the token itself expires. Logout-all cutoffs are kept for
+ * the maximum token lifetime, after which every token they cover has expired anyway.
+ */
+public class LocalRevocations {
+
+    public static final String TOKEN_REVOKED = "TOKEN_REVOKED";
+    public static final String USER_TOKENS_REVOKED = "USER_TOKENS_REVOKED";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Cache<String, Long> revokedTokenIds;
+    private final Cache<Long, Long> userRevokedBefore;
+
+    public LocalRevocations(long maximumSize, Duration maxTokenLifetime) {
+        this.revokedTokenIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String jti, Long expiresAt) ->
+                        Duration.ofMillis(Math.max(0, expiresAt - System.currentTimeMillis()))))
+                .build();
+        this.userRevokedBefore = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxTokenLifetime)
+                .build();
+    }
+
+    /**
+     * Applies one event from the stream; unknown event types are ignored
+     */
+    public void apply(String type, String data) throws IOException {
+        if (!TOKEN_REVOKED.equals(type) && !USER_TOKENS_REVOKED.equals(type)) {
+            return;
+        }
+        JsonNode event = OBJECT_MAPPER.readTree(data);
+        if (TOKEN_REVOKED.equals(type) && event.hasNonNull("jti")) {
+            long expiresAt = event.hasNonNull("expiresAt")
+                    ? event.get("expiresAt").asLong()
+                    : System.currentTimeMillis() + Duration.ofDays(1).toMillis();
+            revokedTokenIds.put(event.get("jti").asText(), expiresAt);
+        } else if (USER_TOKENS_REVOKED.equals(type) && event.hasNonNull("userId") && event.hasNonNull("revokedBefore")) {
+            userRevokedBefore.asMap().merge(event.get("userId").asLong(), event.get("revokedBefore").asLong(), Math::max);
+        }
+    }
+
+    public boolean isRevoked(String tokenId, Long userId, Instant issuedAt) {
+        if (tokenId != null && revokedTokenIds.getIfPresent(tokenId) != null) {
+            return true;
+        }
+        if (userId != null && issuedAt != null) {
+            Long cutoff = userRevokedBefore.getIfPresent(userId);
+            // iat has second precision, same rule as the server
+            return cutoff != null && issuedAt.toEpochMilli() < (cutoff / 1000) * 1000;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.userservice.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Fallback to POST /api/v1/auth/validate-token over the verifier's shared HttpClient,
+ * which keeps connections to the user service alive between calls.
+ */
+final class RemoteTokenValidator {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final URI validateUri;
+    private final Duration requestTimeout;
+    private final String serviceToken;
+
+    RemoteTokenValidator(HttpClient httpClient, URI validateUri, Duration requestTimeout, String serviceToken) {
+        this.httpClient = httpClient;
+        this.validateUri = validateUri;
+        this.requestTimeout = requestTimeout;
+        this.serviceToken = serviceToken;
+    }
+
+    VerificationResult validate(String token) {
+        try {
+            ObjectNode body = OBJECT_MAPPER.createObjectNode().put("token", token);
+            HttpRequest.Builder request = HttpRequest.newBuilder(validateUri)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(OBJECT_MAPPER.writeValueAsBytes(body)));
+            if (serviceToken != null) {
+                request.header(TokenVerifier.SERVICE_TOKEN_HEADER, serviceToken);
+            }
+            HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 500) {
+                return VerificationResult.invalid("Token validation unavailable", VerificationResult.Source.REMOTE);
+            }
+            return parse(OBJECT_MAPPER.readTree(response.body()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return VerificationResult.invalid("Token validation interrupted", VerificationResult.Source.REMOTE);
+        } catch (Exception e) {
+            return VerificationResult.invalid("Token validation unavailable", VerificationResult.Source.REMOTE);
+        }
+    }
+
+    static VerificationResult parse(JsonNode json) {
+        return new VerificationResult(
+                json.path("valid").asBoolean(false),
+                text(json, "message"),
+                text(json, "username"),
+                json.hasNonNull("userId") ? json.get("userId").asLong() : null,
+                text(json, "email"),
+                text(json, "tokenId"),
+                instant(json.get("issuedAt")),
+                instant(json.get("expirationTime")),
+                VerificationResult.Source.REMOTE);
+    }
+
+    private static String text(JsonNode json, String field) {
+        return json.hasNonNull(field) ? json.get(field).asText() : null;
+    }
+
+    // Dates arrive as ISO-8601 strings with Spring Boot defaults, or epoch millis otherwise
+    private static Instant instant(JsonNode value) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return Instant.ofEpochMilli(value.asLong());
+        }
+        try {
+            return OffsetDateTime.parse(value.asText()).toInstant();
+        } catch (DateTimeParseException e) {
+            return Instant.parse(value.asText());
+        }
+    }
+}
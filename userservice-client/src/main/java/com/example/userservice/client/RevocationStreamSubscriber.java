@@ -0,0 +1,162 @@
+package com.example.userservice.client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Follows the server-sent revocation stream on a daemon thread
+ *
+ * Reconnects with Last-Event-ID so the server only replays missed events. A "resync" event,
+ * or the very first connection, resets the verifier because earlier revocations are unknown.
+ */
+final class RevocationStreamSubscriber implements Runnable {
+
+    interface Listener {
+
+        void onEvent(String type, String data) throws Exception;
+
+        /**
+         * Revocations before this point may have been missed
+         */
+        void onResync();
+    }
+
+    private static final String RESYNC_EVENT = "resync";
+
+    private final HttpClient httpClient;
+    private final URI streamUri;
+    private final String serviceToken;
+    private final long reconnectDelayMillis;
+    private final Listener listener;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile Stream<String> currentStream;
+    private String lastEventId;
+
+    RevocationStreamSubscriber(HttpClient httpClient, URI streamUri, String serviceToken,
+                               long reconnectDelayMillis, Listener listener) {
+        this.httpClient = httpClient;
+        this.streamUri = streamUri;
+        this.serviceToken = serviceToken;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.listener = listener;
+        this.thread = new Thread(this, "userservice-revocation-stream");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        Stream<String> stream = currentStream;
+        if (stream != null) {
+            stream.close();
+        }
+        thread.interrupt();
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                HttpRequest.Builder request = HttpRequest.newBuilder(streamUri)
+                        .header("Accept", "text/event-stream")
+                        .GET();
+                if (lastEventId != null) {
+                    request.header("Last-Event-ID", lastEventId);
+                }
+                if (serviceToken != null) {
+                    request.header(TokenVerifier.SERVICE_TOKEN_HEADER, serviceToken);
+                }
+
+                HttpResponse<Stream<String>> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+                try (Stream<String> lines = response.body()) {
+                    if (response.statusCode() == 200) {
+                        currentStream = lines;
+                        if (lastEventId == null) {
+                            listener.onResync();
+                        }
+                        connected = true;
+                        read(lines.iterator());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // connection dropped; reconnect below
+            } finally {
+                connected = false;
+                currentStream = null;
+            }
+
+            try {
+                Thread.sleep(reconnectDelayMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void read(Iterator<String> lines) {
+        String id = null;
+        String type = null;
+        StringBuilder data = new StringBuilder();
+
+        while (running && lines.hasNext()) {
+            String line = lines.next();
+            if (line.isEmpty()) {
+                // blank line ends the event
+                if (type != null || data.length() > 0) {
+                    dispatch(type, data.toString());
+                }
+                if (id != null) {
+                    lastEventId = id;
+                }
+                id = null;
+                type = null;
+                data.setLength(0);
+            } else if (line.startsWith(":")) {
+                // heartbeat comment
+            } else if (line.startsWith("id:")) {
+                id = value(line, 3);
+            } else if (line.startsWith("event:")) {
+                type = value(line, 6);
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(value(line, 5));
+            }
+        }
+    }
+
+    private void dispatch(String type, String data) {
+        if (RESYNC_EVENT.equals(type)) {
+            listener.onResync();
+            return;
+        }
+        try {
+            listener.onEvent(type, data);
+        } catch (Exception e) {
+            // skip the malformed event; reconnecting would only replay it
+        }
+    }
+
+    private static String value(String line, int prefixLength) {
+        String value = line.substring(prefixLength);
+        return value.startsWith(" ") ? value.substring(1) : value;
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.userservice.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies user service tokens inside the consuming service
+ *
+ * Tokens signed with the authorization server keys are verified against /oauth2/jwks.
+ * API tokens from /api/v1/users/login are HMAC-signed, so they are verified locally only when
+ * the shared secret is configured. Everything else goes to /api/v1/auth/validate-token, which is
+ * also the default for API tokens: the secret verifies and signs alike, so configuring it makes
+ * the consumer as trusted as the user service itself (see Builder.hmacSecret).
+ *
+ * Valid results are cached until the token expires or the cache TTL passes, concurrent
+ * verifications of the same token share one computation, and revocations arrive over
+ * /api/v1/auth/revocations/stream. An API token issued before the stream connected is checked
+ * remotely once, since revocations from before that point are unknown locally.
+ */
+public class TokenVerifier implements AutoCloseable {
+
+    private static final String JWKS_PATH = "/oauth2/jwks";
+    private static final String VALIDATE_PATH = "/api/v1/auth/validate-token";
+    private static final String REVOCATIONS_PATH = "/api/v1/auth/revocations/stream";
+    static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    private final JWSVerifier hmacVerifier;
+    private final JwksKeyResolver keyResolver;
+    private final RemoteTokenValidator remoteValidator;
+    private final LocalRevocations revocations;
+    private final RevocationStreamSubscriber revocationSubscriber;
+    private final String issuer;
+    private final String audience;
+    private final long clockSkewMillis;
+
+    private final Cache<String, VerificationResult> results;
+    private final ConcurrentHashMap<String, CompletableFuture<VerificationResult>> inFlight = new ConcurrentHashMap<>();
+
+    // API tokens issued before this instant are validated remotely before they are trusted
+    private volatile long revocationsKnownSince = Long.MAX_VALUE;
+
+    private TokenVerifier(Builder builder) {
+        HttpClient httpClient = builder.httpClient != null
+                ? builder.httpClient
+                : HttpClient.newBuilder().connectTimeout(builder.requestTimeout).build();
+        URI baseUri = builder.baseUri;
+
+        this.hmacVerifier = createHmacVerifier(builder.hmacSecret);
+        this.keyResolver = new JwksKeyResolver(httpClient, baseUri.resolve(JWKS_PATH),
+                builder.requestTimeout, builder.jwksMinRefreshInterval);
+        this.remoteValidator = new RemoteTokenValidator(httpClient, baseUri.resolve(VALIDATE_PATH),
+                builder.requestTimeout, builder.serviceToken);
+        this.revocations = new LocalRevocations(builder.cacheMaximumSize, builder.maxTokenLifetime);
+        this.issuer = builder.issuer;
+        this.audience = builder.audience;
+        this.clockSkewMillis = builder.clockSkew.toMillis();
+
+        long ttlNanos = builder.cacheTtl.toNanos();
+        this.results = Caffeine.newBuilder()
+                .maximumSize(builder.cacheMaximumSize)
+                .expireAfter(Expiry.creating((String token, VerificationResult result) -> {
+                    if (result.expiresAt() == null) {
+                        return Duration.ofNanos(ttlNanos);
+                    }
+                    long remaining = Duration.between(Instant.now(), result.expiresAt()).toNanos();
+                    return Duration.ofNanos(Math.max(0, Math.min(ttlNanos, remaining)));
+                }))
+                .build();
+
+        if (builder.revocationStream) {
+            this.revocationSubscriber = new RevocationStreamSubscriber(httpClient, baseUri.resolve(REVOCATIONS_PATH),
+                    builder.serviceToken, builder.reconnectDelay.toMillis(), new RevocationStreamSubscriber.Listener() {
+                        @Override
+                        public void onEvent(String type, String data) throws Exception {
+                            revocations.apply(type, data);
+                        }
+
+                        @Override
+                        public void onResync() {
+                            revocationsKnownSince = System.currentTimeMillis();
+                            results.invalidateAll();
+                        }
+                    });
+            this.revocationSubscriber.start();
+        } else {
+            this.revocationSubscriber = null;
+            this.revocationsKnownSince = 0;
+        }
+    }
+
+    public static Builder builder(URI baseUri) {
+        return new Builder(baseUri);
+    }
+
+    /**
+     * Verifies the token, returning a cached result when one is available
+     */
+    public VerificationResult verify(String token) {
+        if (token == null || token.isBlank()) {
+            return VerificationResult.invalid("Token is required", VerificationResult.Source.LOCAL);
+        }
+
+        VerificationResult cached = results.getIfPresent(token);
+        if (cached != null) {
+            return checkRevocation(cached);
+        }
+
+        CompletableFuture<VerificationResult> future = new CompletableFuture<>();
+        CompletableFuture<VerificationResult> existing = inFlight.putIfAbsent(token, future);
+        if (existing != null) {
+            // Another thread is already verifying this token
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            VerificationResult result = doVerify(token);
+            if (result.valid()) {
+                results.put(token, result);
+            }
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too: threads already waiting in join() would otherwise never return
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(token, future);
+        }
+    }
+
+    /**
+     * True while revocation events are being received
+     */
+    public boolean isRevocationStreamConnected() {
+        return revocationSubscriber != null && revocationSubscriber.isConnected();
+    }
+
+    @Override
+    public void close() {
+        if (revocationSubscriber != null) {
+            revocationSubscriber.stop();
+        }
+    }
+
+    private VerificationResult doVerify(String token) {
+        SignedJWT jwt;
+        try {
+            jwt = SignedJWT.parse(token);
+        } catch (ParseException e) {
+            return VerificationResult.invalid("Invalid token structure", VerificationResult.Source.LOCAL);
+        }
+
+        JWSAlgorithm algorithm = jwt.getHeader().getAlgorithm();
+        boolean apiToken = JWSAlgorithm.Family.HMAC_SHA.contains(algorithm);
+        JWSVerifier verifier = apiToken ? hmacVerifier : keyResolver.verifierFor(jwt.getHeader());
+        if (verifier == null) {
+            return remoteValidator.validate(token);
+        }
+
+        JWTClaimsSet claims;
+        try {
+            if (!jwt.verify(verifier)) {
+                return VerificationResult.invalid("Token signature validation failed", VerificationResult.Source.LOCAL);
+            }
+            claims = jwt.getJWTClaimsSet();
+        } catch (JOSEException | ParseException e) {
+            return VerificationResult.invalid("Token signature validation failed", VerificationResult.Source.LOCAL);
+        }
+
+        String failure = checkClaims(claims);
+        if (failure != null) {
+            return VerificationResult.invalid(failure, VerificationResult.Source.LOCAL);
+        }
+
+        Date issuedAt = claims.getIssueTime();
+        if (apiToken && revocationSubscriber != null && (issuedAt == null || issuedAt.getTime() < revocationsKnownSince)) {
+            return remoteValidator.validate(token);
+        }
+
+        return checkRevocation(toResult(claims));
+    }
+
+    private String checkClaims(JWTClaimsSet claims) {
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpirationTime();
+        if (expiration != null && expiration.getTime() + clockSkewMillis < now) {
+            return "Token has expired";
+        }
+        Date notBefore = claims.getNotBeforeTime();
+        if (notBefore != null && notBefore.getTime() - clockSkewMillis > now) {
+            return "Token is not yet valid";
+        }
+        if (issuer != null && !issuer.equals(claims.getIssuer())) {
+            return "Token signature or claims validation failed";
+        }
+        if (audience != null && (claims.getAudience() == null || !claims.getAudience().contains(audience))) {
+            return "Token signature or claims validation failed";
+        }
+        if (claims.getSubject() == null || claims.getSubject().isBlank()) {
+            return "Invalid token: unable to extract username";
+        }
+        return null;
+    }
+
+    private VerificationResult checkRevocation(VerificationResult result) {
+        if (revocations.isRevoked(result.tokenId(), result.userId(), result.issuedAt())) {
+            return VerificationResult.invalid("Token has been revoked", result.source());
+        }
+        return result;
+    }
+
+    private static VerificationResult toResult(JWTClaimsSet claims) {
+        Long userId = null;
+        String email = null;
+        try {
+            userId = claims.getLongClaim("userId");
+            email = claims.getStringClaim("email");
+        } catch (ParseException e) {
+            // optional custom claims
+        }
+        return new VerificationResult(
+                true,
+                "Token is valid",
+                claims.getSubject(),
+                userId,
+                email,
+                claims.getJWTID(),
+                claims.getIssueTime() != null ? claims.getIssueTime().toInstant() : null,
+                claims.getExpirationTime() != null ? claims.getExpirationTime().toInstant() : null,
+                VerificationResult.Source.LOCAL);
+    }
+
+    private static JWSVerifier createHmacVerifier(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            return null;
+        }
+        try {
+            return new MACVerifier(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (JOSEException e) {
+            throw new IllegalArgumentException("HMAC secret must be at least 256 bits", e);
+        }
+    }
+
+    public static final class Builder {
+
+        private final URI baseUri;
+        private HttpClient httpClient;
+        private String hmacSecret;
+        private String serviceToken;
+        private String issuer = "user-service";
+        private String audience = "user-service-clients";
+        private long cacheMaximumSize = 100_000;
+        private Duration cacheTtl = Duration.ofMinutes(5);
+        private Duration maxTokenLifetime = Duration.ofHours(24);
+        private Duration clockSkew = Duration.ZERO;
+        private Duration requestTimeout = Duration.ofSeconds(2);
+        private Duration jwksMinRefreshInterval = Duration.ofSeconds(30);
+        private Duration reconnectDelay = Duration.ofSeconds(1);
+        private boolean revocationStream = true;
+
+        private Builder(URI baseUri) {
+            this.baseUri = baseUri;
+        }
+
+        /**
+         * Shared client to reuse connections across components; one is created otherwise
+         */
+        public Builder httpClient(HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * The user service's jwt.secret, to verify API tokens locally; without it (the default)
+         * they are validated remotely
+         * This is a trust-boundary decision. HS256 has no public half: whoever holds the secret can
+         * mint API tokens for any user, role or permission that every other holder accepts. Only
+         * set it in services that are operated and secured like the user service itself, and
+         * rotate jwt.secret everywhere if any of them is compromised.
+         */
+        public Builder hmacSecret(String hmacSecret) {
+            this.hmacSecret = hmacSecret;
+            return this;
+        }
+
+        /**
+         * The user service's auth.internal.service-token, sent with validation and revocation calls
+         */
+        public Builder serviceToken(String serviceToken) {
+            this.serviceToken = serviceToken;
+            return this;
+        }
+
+        /**
+         * Expected iss claim, or null to skip the check
+         */
+        public Builder issuer(String issuer) {
+            this.issuer = issuer;
+            return this;
+        }
+
+        /**
+         * Required aud value, or null to skip the check
+         */
+        public Builder audience(String audience) {
+            this.audience = audience;
+            return this;
+        }
+
+        public Builder cacheMaximumSize(long cacheMaximumSize) {
+            this.cacheMaximumSize = cacheMaximumSize;
+            return this;
+        }
+
+        public Builder cacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+            return this;
+        }
+
+        /**
+         * The user service's jwt.expiration; bounds how long logout-all cutoffs are kept
+         */
+        public Builder maxTokenLifetime(Duration maxTokenLifetime) {
+            this.maxTokenLifetime = maxTokenLifetime;
+            return this;
+        }
+
+        public Builder clockSkew(Duration clockSkew) {
+            this.clockSkew = clockSkew;
+            return this;
+        }
+
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        public Builder jwksMinRefreshInterval(Duration jwksMinRefreshInterval) {
+            this.jwksMinRefreshInterval = jwksMinRefreshInterval;
+            return this;
+        }
+
+        public Builder reconnectDelay(Duration reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+            return this;
+        }
+
+        /**
+         * Disables the revocation subscription; locally verified tokens then stay valid
+         * until the cache entry expires even if they are revoked
+         */
+        public Builder revocationStream(boolean revocationStream) {
+            this.revocationStream = revocationStream;
+            return this;
+        }
+
+        public TokenVerifier build() {
+            return new TokenVerifier(this);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.userservice.client;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a token verification
+ * Source tells whether the answer was computed locally or by the user service.
+ */
+public record VerificationResult(
+        boolean valid,
+        String message,
+        String subject,
+        Long userId,
+        String email,
+        String tokenId,
+        Instant issuedAt,
+        Instant expiresAt,
+        Source source) {
+
+    public enum Source {
+        LOCAL,
+        REMOTE
+    }
+
+    public static VerificationResult invalid(String message, Source source) {
+        return new VerificationResult(false, message, null, null, null, null, null, null, source);
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.userservice.client;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenVerifierTest {
+
+    private static final String SECRET = "a-string-secret-at-least-256-bits-long";
+
+    private HttpServer server;
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+    private final AtomicReference<String> serviceTokenSeen = new AtomicReference<>();
+    private final CountDownLatch releaseRemote = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/auth/validate-token", exchange -> {
+            remoteCalls.incrementAndGet();
+            serviceTokenSeen.set(exchange.getRequestHeaders().getFirst(TokenVerifier.SERVICE_TOKEN_HEADER));
+            try {
+                releaseRemote.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"valid\":true,\"message\":\"Token is valid and user is authorized\",\"username\":\"alice\",\"userId\":1,\"tokenId\":\"jti-remote\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testVerify_locallyWithSharedSecret() throws Exception {
+        try (TokenVerifier verifier = verifier(SECRET)) {
+            VerificationResult result = verifier.verify(apiToken("jti-1", new Date(System.currentTimeMillis() + 60000)));
+
+            assertTrue(result.valid());
+            assertEquals("alice", result.subject());
+            assertEquals(1L, result.userId());
+            assertEquals(VerificationResult.Source.LOCAL, result.source());
+            assertEquals(0, remoteCalls.get());
+        }
+    }
+
+    @Test
+    public void testVerify_rejectsExpiredAndForgedTokens() throws Exception {
+        try (TokenVerifier verifier = verifier(SECRET)) {
+            assertFalse(verifier.verify(apiToken("jti-1", new Date(System.currentTimeMillis() - 60000))).valid());
+            assertFalse(verifier.verify("not.a.token").valid());
+        }
+        try (TokenVerifier verifier = verifier("another-secret-that-is-at-least-256-bits")) {
+            assertFalse(verifier.verify(apiToken("jti-1", new Date(System.currentTimeMillis() + 60000))).valid());
+        }
+    }
+
+    @Test
+    public void testVerify_coalescesConcurrentRemoteValidations() throws Exception {
+        String token = apiToken("jti-remote", new Date(System.currentTimeMillis() + 60000));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (TokenVerifier verifier = verifier(null)) {
+            List<Future<VerificationResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> verifier.verify(token)));
+            }
+            Thread.sleep(200);
+            releaseRemote.countDown();
+
+            for (Future<VerificationResult> future : futures) {
+                assertTrue(future.get().valid());
+            }
+            assertTrue(verifier.verify(token).valid());
+            assertEquals(1, remoteCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVerify_leaderErrorReachesWaitingThreads() throws Exception {
+        String token = apiToken("jti-remote", new Date(System.currentTimeMillis() + 60000));
+        CountDownLatch failRemote = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (TokenVerifier verifier = TokenVerifier.builder(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .httpClient(new FailingHttpClient(failRemote))
+                .revocationStream(false)
+                .build()) {
+            List<Future<VerificationResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> verifier.verify(token)));
+            }
+            Thread.sleep(200);
+            failRemote.countDown();
+
+            // Every thread fails with the leader's error instead of waiting forever
+            for (Future<VerificationResult> future : futures) {
+                ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(StackOverflowError.class, failure.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRemoteValidation_sendsServiceToken() throws Exception {
+        releaseRemote.countDown();
+        try (TokenVerifier verifier = TokenVerifier.builder(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .serviceToken("internal-service-token")
+                .revocationStream(false)
+                .build()) {
+            assertTrue(verifier.verify(apiToken("jti-remote", new Date(System.currentTimeMillis() + 60000))).valid());
+            assertEquals("internal-service-token", serviceTokenSeen.get());
+        }
+    }
+
+    // Throws an Error from the remote validation call once released
+    private static class FailingHttpClient extends HttpClient {
+
+        private final CountDownLatch release;
+
+        FailingHttpClient(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+                throws InterruptedException {
+            release.await(5, TimeUnit.SECONDS);
+            throw new StackOverflowError();
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> responseBodyHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+    }
+
+    private TokenVerifier verifier(String secret) {
+        return TokenVerifier.builder(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .hmacSecret(secret)
+                .revocationStream(false)
+                .build();
+    }
+
+    private static String apiToken(String jti, Date expiration) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("user-service")
+                .subject("alice")
+                .audience("user-service-clients")
+                .issueTime(new Date())
+                .expirationTime(expiration)
+                .jwtID(jti)
+                .claim("userId", 1L)
+                .claim("email", "alice@example.com")
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        jwt.sign(new MACSigner(SECRET.getBytes(StandardCharsets.UTF_8)));
+        return jwt.serialize();
+    }
+}